@@ -5,14 +5,22 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.navigation.NavController;
 import androidx.navigation.fragment.NavHostFragment;
 import androidx.navigation.ui.NavigationUI;
+import com.example.smartcommunicator.data.ContactSnapshotStore;
+import com.example.smartcommunicator.perf.PerfMonitor;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 public class MainActivity extends AppCompatActivity {
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        long startNanos = PerfMonitor.beginAsync(PerfMonitor.Stage.STARTUP);
+        PerfMonitor.beginLaunch();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        PerfMonitor.endAsyncOnNextFrame(PerfMonitor.Stage.STARTUP, startNanos, getWindow().getDecorView());
+
+        // Start reading the stored contact list now, so it is ready when the list screen opens.
+        ContactSnapshotStore.getInstance(this).prefetch();
 
         BottomNavigationView navView = findViewById(R.id.nav_view);
 
@@ -23,5 +31,11 @@ public class MainActivity extends AppCompatActivity {
         // The setupActionBarWithNavController line is COMPLETELY REMOVED to prevent the crash.
         // We only set up the bottom navigation view. The fragment will handle its own toolbar.
         NavigationUI.setupWithNavController(navView, navController);
+
+        // Startup to the first list frame only means something when the list is the first screen
+        // (e.g. recreated on that tab); otherwise it would time how long the user took to open it.
+        navController.addOnDestinationChangedListener((controller, destination, arguments) -> {
+            if (destination.getId() != R.id.navigation_list) PerfMonitor.cancelLaunch();
+        });
     }
 }
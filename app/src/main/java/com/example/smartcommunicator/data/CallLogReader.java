@@ -0,0 +1,165 @@
+package com.example.smartcommunicator.data;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.CallLog;
+
+import com.example.smartcommunicator.calls.CallEntry;
+import com.example.smartcommunicator.calls.CallHistory;
+import com.example.smartcommunicator.calls.PhoneNumberIndex;
+import com.example.smartcommunicator.model.ContactStore;
+import com.example.smartcommunicator.perf.PerfMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads the recent calls and joins them to the contacts. The calls are kept for as long as the
+ * process lives, so each visit only reads the rows above the highest _ID seen so far, plus the
+ * ids of the kept calls to notice deletions; calls below the kept ones take the place of deleted
+ * ones. The first visit reads the newest {@link CallHistory#MAX_ENTRIES} rows and stops.
+ *
+ * Numbers are matched against a {@link PhoneNumberIndex} built once per contact list, not
+ * with a PhoneLookup query per call. Needs READ_CALL_LOG.
+ */
+public class CallLogReader {
+
+    private static final String[] PROJECTION = {
+            CallLog.Calls._ID,
+            CallLog.Calls.NUMBER,
+            CallLog.Calls.TYPE,
+            CallLog.Calls.DATE,
+            CallLog.Calls.DURATION,
+            CallLog.Calls.CACHED_NAME
+    };
+
+    private static CallLogReader instance;
+
+    public interface Callback {
+        /** @param calls newest first, unmodifiable */
+        void onCallsLoaded(List<CallEntry> calls);
+        void onCallsFailed(Exception e);
+    }
+
+    private final ContentResolver resolver;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Worker only.
+    private final CallHistory history = new CallHistory();
+    private PhoneNumberIndex index = PhoneNumberIndex.EMPTY;
+
+    private CallLogReader(Context context) {
+        resolver = context.getContentResolver();
+    }
+
+    public static synchronized CallLogReader getInstance(Context context) {
+        if (instance == null) {
+            instance = new CallLogReader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Brings the calls up to date and delivers them on the main thread.
+     *
+     * @param contacts the list to join against, or null to show the names the call log stored
+     */
+    public void refresh(ContactStore contacts, Callback callback) {
+        executor.execute(() -> {
+            long start = PerfMonitor.begin(PerfMonitor.Stage.CALL_LOG_READ);
+            try {
+                final List<CallEntry> calls = read(contacts != null ? contacts : ContactStore.EMPTY);
+                mainHandler.post(() -> callback.onCallsLoaded(calls));
+            } catch (RuntimeException e) {
+                // SecurityException without the permission, or a provider that went away.
+                mainHandler.post(() -> callback.onCallsFailed(e));
+            } finally {
+                PerfMonitor.end(PerfMonitor.Stage.CALL_LOG_READ, start);
+            }
+        });
+    }
+
+    private List<CallEntry> read(ContactStore contacts) {
+        if (index.getStore() != contacts) {
+            index = PhoneNumberIndex.of(contacts);
+            history.resolveAll(index);
+        }
+        boolean dropped = false;
+        if (history.size() > 0) {
+            long[] existing = queryIds(history.getOldestId(), history.getHighWaterId());
+            if (existing != null) dropped = history.retain(existing);
+        }
+        List<CallEntry> newer = queryNewer(history.getHighWaterId());
+        resolve(newer);
+        history.addNewer(newer);
+        if (dropped && history.size() < CallHistory.MAX_ENTRIES) {
+            List<CallEntry> older = queryOlder(history.getRefillBelowId(), CallHistory.MAX_ENTRIES - history.size());
+            resolve(older);
+            history.addOlder(older);
+        }
+        return history.entries();
+    }
+
+    private void resolve(List<CallEntry> calls) {
+        for (int i = 0; i < calls.size(); i++) {
+            calls.set(i, index.resolve(calls.get(i)));
+        }
+    }
+
+    /** The calls above {@code afterId}, highest first, at most {@link CallHistory#MAX_ENTRIES}. */
+    private List<CallEntry> queryNewer(long afterId) {
+        List<CallEntry> calls = new ArrayList<>();
+        // Ids grow with every call added, so id order is time order and the newest come first.
+        try (Cursor cursor = resolver.query(CallLog.Calls.CONTENT_URI, PROJECTION,
+                CallLog.Calls._ID + " > ?", new String[]{String.valueOf(afterId)},
+                CallLog.Calls._ID + " DESC")) {
+            if (cursor == null) return calls;
+            while (cursor.moveToNext() && calls.size() < CallHistory.MAX_ENTRIES) {
+                calls.add(readCall(cursor));
+            }
+        }
+        return calls;
+    }
+
+    /** The calls below {@code beforeId}, highest first, at most {@code limit}. */
+    private List<CallEntry> queryOlder(long beforeId, int limit) {
+        List<CallEntry> calls = new ArrayList<>(limit);
+        Uri uri = CallLog.Calls.CONTENT_URI.buildUpon()
+                .appendQueryParameter(CallLog.Calls.LIMIT_PARAM_KEY, String.valueOf(limit))
+                .build();
+        try (Cursor cursor = resolver.query(uri, PROJECTION,
+                CallLog.Calls._ID + " < ?", new String[]{String.valueOf(beforeId)},
+                CallLog.Calls._ID + " DESC")) {
+            if (cursor == null) return calls;
+            while (cursor.moveToNext() && calls.size() < limit) {
+                calls.add(readCall(cursor));
+            }
+        }
+        return calls;
+    }
+
+    private static CallEntry readCall(Cursor cursor) {
+        return new CallEntry(cursor.getLong(0), cursor.getString(1), cursor.getInt(2),
+                cursor.getLong(3), cursor.getLong(4), cursor.getString(5));
+    }
+
+    /** The ids from {@code fromId} to {@code toId} that are still in the call log, or null if it could not be read. */
+    private long[] queryIds(long fromId, long toId) {
+        try (Cursor cursor = resolver.query(CallLog.Calls.CONTENT_URI, new String[]{CallLog.Calls._ID},
+                CallLog.Calls._ID + " >= ? AND " + CallLog.Calls._ID + " <= ?",
+                new String[]{String.valueOf(fromId), String.valueOf(toId)}, null)) {
+            if (cursor == null) return null;
+            long[] ids = new long[cursor.getCount()];
+            for (int i = 0; i < ids.length && cursor.moveToNext(); i++) {
+                ids[i] = cursor.getLong(0);
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.smartcommunicator.data;
+
+import android.util.AtomicFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * A small file that is always written whole, framed so a damaged or outdated one reads as missing.
+ * The stores only read and write their payload; this keeps the rest.
+ *
+ * File layout (big endian, see {@link DataOutputStream}):
+ * <pre>
+ *   int magic, int version, payload, long crc32 of everything before it
+ * </pre>
+ * Writes go through an {@link AtomicFile}, so a crash mid-write leaves the previous file.
+ * Not thread safe; each store calls it from its own worker.
+ */
+final class CheckedFile {
+
+    interface PayloadReader<T> {
+        /** @return the payload read back, or null if it cannot be trusted */
+        T read(DataInputStream in) throws IOException;
+    }
+
+    interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private final AtomicFile file;
+    private final int magic;
+    private final int version;
+
+    CheckedFile(File file, int magic, int version) {
+        this.file = new AtomicFile(file);
+        this.magic = magic;
+        this.version = version;
+    }
+
+    /** @return the payload, or null when the file is missing, damaged or has another magic or version */
+    <T> T read(PayloadReader<T> reader) {
+        byte[] bytes;
+        try {
+            bytes = file.readFully();
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (bytes.length < Long.BYTES) return null;
+
+        int payloadLength = bytes.length - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, payloadLength);
+        if (ByteBuffer.wrap(bytes, payloadLength, Long.BYTES).getLong() != crc.getValue()) return null;
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, payloadLength))) {
+            if (in.readInt() != magic || in.readInt() != version) return null;
+            return reader.read(in);
+        } catch (IOException | RuntimeException e) {
+            // A checksum collision on a damaged file is unlikely, but an index out of range must not crash us.
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the file. A payload that fails to write leaves the old file in place.
+     *
+     * @param sizeHint about how many bytes the payload takes, to size the buffer
+     */
+    void write(PayloadWriter writer, int sizeHint) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(sizeHint + 16);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(magic);
+            out.writeInt(version);
+            writer.write(out);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        byte[] payload = buffer.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            DataOutputStream out = new DataOutputStream(stream);
+            out.write(payload);
+            out.writeLong(crc.getValue());
+            out.flush();
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (stream != null) {
+                file.failWrite(stream);
+            }
+        }
+    }
+
+    void delete() {
+        file.delete();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.smartcommunicator.data;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.ContactsContract;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Deletes contacts on a worker thread, grouping the deletes into {@code applyBatch}
+ * transactions of bounded size instead of one provider call per contact.
+ * Progress and the final result are reported on the main thread.
+ */
+public class ContactBatchDeleter {
+
+    // Small enough that one transaction does not hold the provider's database lock for long.
+    static final int BATCH_SIZE = 100;
+
+    public interface Callback {
+        void onProgress(int processed, int total);
+        /**
+         * @param deletedLookupKeys the contacts the provider actually removed
+         * @param failedCount how many contacts could not be deleted
+         */
+        void onDeleteFinished(Set<String> deletedLookupKeys, int failedCount);
+    }
+
+    private final ContentResolver contentResolver;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean released = false;
+
+    public ContactBatchDeleter(ContentResolver contentResolver) {
+        this.contentResolver = contentResolver;
+    }
+
+    /** Queues the deletion of the given contacts. Call from the main thread. */
+    public void delete(List<String> lookupKeys, Callback callback) {
+        final List<String> keys = new ArrayList<>(lookupKeys);
+        executor.execute(() -> deleteInBatches(keys, callback));
+    }
+
+    /**
+     * Stops reporting to the callbacks. Deletions that were already started still run to the end,
+     * since the user confirmed them.
+     */
+    public void release() {
+        released = true;
+        executor.shutdown();
+    }
+
+    private void deleteInBatches(List<String> lookupKeys, Callback callback) {
+        Set<String> deleted = new HashSet<>();
+        int failed = 0;
+        int total = lookupKeys.size();
+        for (int start = 0; start < total; start += BATCH_SIZE) {
+            List<String> batchKeys = lookupKeys.subList(start, Math.min(start + BATCH_SIZE, total));
+            ArrayList<ContentProviderOperation> operations = new ArrayList<>(batchKeys.size());
+            for (String lookupKey : batchKeys) {
+                Uri contactUri = Uri.withAppendedPath(ContactsContract.Contacts.CONTENT_LOOKUP_URI, lookupKey);
+                operations.add(ContentProviderOperation.newDelete(contactUri).build());
+            }
+            try {
+                ContentProviderResult[] results = contentResolver.applyBatch(ContactsContract.AUTHORITY, operations);
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i].count != null && results[i].count > 0) {
+                        deleted.add(batchKeys.get(i));
+                    } else {
+                        failed++;
+                    }
+                }
+            } catch (Exception e) {
+                // The whole transaction was rolled back, so none of this batch is gone.
+                e.printStackTrace();
+                failed += batchKeys.size();
+            }
+            final int processed = Math.min(start + BATCH_SIZE, total);
+            post(() -> callback.onProgress(processed, total));
+        }
+        final int failedCount = failed;
+        post(() -> callback.onDeleteFinished(deleted, failedCount));
+    }
+
+    private void post(Runnable runnable) {
+        mainHandler.post(() -> {
+            if (!released) runnable.run();
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.smartcommunicator.data;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentResolver;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.ContactsContract;
+
+import com.example.smartcommunicator.model.Contact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Adds new contacts on a worker thread, all of them in one {@code applyBatch} transaction:
+ * either every contact is saved or, if the provider fails, none is and the whole set can be retried.
+ * Each contact is a raw contact plus its name and numbers, tied together by back references.
+ * The result is reported on the main thread.
+ */
+public class ContactBatchInserter {
+
+    // The provider refuses larger transactions; each contact needs 2 + numbers operations.
+    static final int MAX_OPERATIONS = 499;
+
+    public interface Callback {
+        void onInsertFinished(int insertedCount);
+        void onInsertFailed(Exception e);
+    }
+
+    private final ContentResolver contentResolver;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean released = false;
+
+    public ContactBatchInserter(ContentResolver contentResolver) {
+        this.contentResolver = contentResolver;
+    }
+
+    /** How many operations inserting the contacts takes; keep it within {@link #MAX_OPERATIONS}. */
+    public static int operationCount(List<Contact> contacts) {
+        int count = 0;
+        for (Contact contact : contacts) {
+            count += 2 + contact.getNumberCount();
+        }
+        return count;
+    }
+
+    /**
+     * Queues the insertion of the contacts into the default account. Their lookupKeys are ignored,
+     * since the provider assigns new ones. Call from the main thread.
+     */
+    public void insert(List<Contact> contacts, Callback callback) {
+        final List<Contact> toInsert = new ArrayList<>(contacts);
+        executor.execute(() -> {
+            try {
+                contentResolver.applyBatch(ContactsContract.AUTHORITY, buildOperations(toInsert));
+                post(() -> callback.onInsertFinished(toInsert.size()));
+            } catch (Exception e) {
+                // Rolled back as a whole, so nothing was saved.
+                post(() -> callback.onInsertFailed(e));
+            }
+        });
+    }
+
+    /** Stops reporting to the callbacks. An insertion already started still runs to the end. */
+    public void release() {
+        released = true;
+        executor.shutdown();
+    }
+
+    // Scanned business cards: every number on them is taken for a work number.
+    static ArrayList<ContentProviderOperation> buildOperations(List<Contact> contacts) {
+        return buildOperations(contacts, ContactsContract.CommonDataKinds.Phone.TYPE_WORK);
+    }
+
+    /**
+     * Saves each number with the contact's own type (Contact.TYPE_* are the platform's values),
+     * or with {@code defaultType} where the contact does not know it.
+     */
+    static ArrayList<ContentProviderOperation> buildOperations(List<Contact> contacts, int defaultType) {
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>(operationCount(contacts));
+        for (Contact contact : contacts) {
+            int rawContactIndex = operations.size();
+            operations.add(ContentProviderOperation.newInsert(ContactsContract.RawContacts.CONTENT_URI)
+                    .withValue(ContactsContract.RawContacts.ACCOUNT_TYPE, null)
+                    .withValue(ContactsContract.RawContacts.ACCOUNT_NAME, null)
+                    .build());
+            operations.add(ContentProviderOperation.newInsert(ContactsContract.Data.CONTENT_URI)
+                    .withValueBackReference(ContactsContract.Data.RAW_CONTACT_ID, rawContactIndex)
+                    .withValue(ContactsContract.Data.MIMETYPE, ContactsContract.CommonDataKinds.StructuredName.CONTENT_ITEM_TYPE)
+                    .withValue(ContactsContract.CommonDataKinds.StructuredName.DISPLAY_NAME, contact.getName())
+                    .build());
+            for (int i = 0; i < contact.getNumberCount(); i++) {
+                int type = contact.getNumberType(i) != Contact.TYPE_UNKNOWN ? contact.getNumberType(i) : defaultType;
+                operations.add(ContentProviderOperation.newInsert(ContactsContract.Data.CONTENT_URI)
+                        .withValueBackReference(ContactsContract.Data.RAW_CONTACT_ID, rawContactIndex)
+                        .withValue(ContactsContract.Data.MIMETYPE, ContactsContract.CommonDataKinds.Phone.CONTENT_ITEM_TYPE)
+                        .withValue(ContactsContract.CommonDataKinds.Phone.NUMBER, contact.getNumber(i))
+                        .withValue(ContactsContract.CommonDataKinds.Phone.TYPE, type)
+                        .withValue(ContactsContract.CommonDataKinds.Phone.IS_PRIMARY, i == contact.getPrimaryNumberIndex() ? 1 : 0)
+                        .build());
+            }
+        }
+        return operations;
+    }
+
+    private void post(Runnable runnable) {
+        mainHandler.post(() -> {
+            if (!released) runnable.run();
+        });
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.smartcommunicator.data;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.provider.ContactsContract;
+
+import com.example.smartcommunicator.model.Contact;
+import com.example.smartcommunicator.perf.PerfMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the phone contacts on a background thread and streams them back to the
+ * main thread in chunks. The first chunk is small so the list can paint right away,
+ * the rest arrive in larger batches while the cursor is still being walked.
+ */
+public class ContactLoader {
+
+    // Roughly one screenful of rows, so first paint does not wait for the whole cursor.
+    static final int FIRST_CHUNK_SIZE = 40;
+    static final int CHUNK_SIZE = 300;
+
+    public interface Callback {
+        void onChunkLoaded(List<Contact> chunk);
+        void onLoadFinished(int totalCount, ContactSyncState syncState);
+        void onLoadFailed(Exception e);
+    }
+
+    private final ContentResolver contentResolver;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Bumped on every load() and cancel(); results from an older generation are dropped.
+    private volatile int generation = 0;
+    private CancellationSignal cancellationSignal;
+
+    public ContactLoader(ContentResolver contentResolver) {
+        this.contentResolver = contentResolver;
+    }
+
+    /** Starts a fresh load, cancelling any load that is still running. Call from the main thread. */
+    public void load(Callback callback) {
+        cancel();
+        final int loadGeneration = generation;
+        final CancellationSignal signal = new CancellationSignal();
+        cancellationSignal = signal;
+        executor.execute(() -> queryInChunks(loadGeneration, signal, callback));
+    }
+
+    /** Stops the running load. No more callbacks are delivered for it. Call from the main thread. */
+    public void cancel() {
+        generation++;
+        if (cancellationSignal != null) {
+            cancellationSignal.cancel();
+            cancellationSignal = null;
+        }
+    }
+
+    /** Cancels any running load and releases the worker thread. The loader cannot be reused afterwards. */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void queryInChunks(int loadGeneration, CancellationSignal signal, Callback callback) {
+        String[] projection = {
+                ContactsContract.CommonDataKinds.Phone.LOOKUP_KEY,
+                ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME,
+                ContactsContract.CommonDataKinds.Phone.NUMBER,
+                ContactsContract.CommonDataKinds.Phone.CONTACT_ID,
+                ContactsContract.CommonDataKinds.Phone.CONTACT_LAST_UPDATED_TIMESTAMP,
+                ContactsContract.CommonDataKinds.Phone.IS_PRIMARY,
+                ContactsContract.CommonDataKinds.Phone.IS_SUPER_PRIMARY
+        };
+        // Deletions that happen while we are still reading are picked up by the first sync.
+        final ContactSyncState syncState = new ContactSyncState(System.currentTimeMillis());
+        int total = 0;
+        try (Cursor cursor = queryPhones(projection, signal)) {
+            if (cursor != null) {
+                long walkStart = PerfMonitor.begin(PerfMonitor.Stage.CURSOR_WALK);
+                try {
+                    int lookupKeyIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.LOOKUP_KEY);
+                    int nameIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME);
+                    int numberIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.NUMBER);
+                    int contactIdIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.CONTACT_ID);
+                    int updatedIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.CONTACT_LAST_UPDATED_TIMESTAMP);
+                    int primaryIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.IS_PRIMARY);
+                    int superPrimaryIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.IS_SUPER_PRIMARY);
+                    ContactRowAggregator aggregator = new ContactRowAggregator();
+                    int chunkSize = FIRST_CHUNK_SIZE;
+                    List<Contact> chunk = new ArrayList<>(chunkSize);
+                    while (cursor.moveToNext()) {
+                        if (isStale(loadGeneration)) return;
+                        String lookupKey = cursor.getString(lookupKeyIndex);
+                        String name = cursor.getString(nameIndex);
+                        String number = cursor.getString(numberIndex);
+                        if (lookupKey != null) {
+                            syncState.recordContact(cursor.getLong(contactIdIndex), lookupKey, cursor.getLong(updatedIndex));
+                        }
+                        Contact completed = aggregator.addRow(lookupKey, name, number,
+                                cursor.getInt(primaryIndex) != 0, cursor.getInt(superPrimaryIndex) != 0);
+                        if (completed != null) {
+                            chunk.add(completed);
+                        }
+                        if (chunk.size() >= chunkSize) {
+                            total += chunk.size();
+                            deliverChunk(loadGeneration, chunk, callback);
+                            chunkSize = CHUNK_SIZE;
+                            chunk = new ArrayList<>(chunkSize);
+                        }
+                    }
+                    Contact last = aggregator.flush();
+                    if (last != null) {
+                        chunk.add(last);
+                    }
+                    if (!chunk.isEmpty()) {
+                        total += chunk.size();
+                        deliverChunk(loadGeneration, chunk, callback);
+                    }
+                } finally {
+                    PerfMonitor.end(PerfMonitor.Stage.CURSOR_WALK, walkStart);
+                }
+            }
+        } catch (OperationCanceledException e) {
+            return;
+        } catch (Exception e) {
+            e.printStackTrace();
+            mainHandler.post(() -> {
+                if (!isStale(loadGeneration)) callback.onLoadFailed(e);
+            });
+            return;
+        }
+        final int totalCount = total;
+        mainHandler.post(() -> {
+            if (!isStale(loadGeneration)) callback.onLoadFinished(totalCount, syncState);
+        });
+    }
+
+    // Timed apart from the walk: the provider runs the query and fills the first window here.
+    private Cursor queryPhones(String[] projection, CancellationSignal signal) {
+        long start = PerfMonitor.begin(PerfMonitor.Stage.CONTACT_QUERY);
+        try {
+            return contentResolver.query(ContactsContract.CommonDataKinds.Phone.CONTENT_URI, projection, null, null,
+                    ContactRowAggregator.GROUPED_SORT_ORDER, signal);
+        } finally {
+            PerfMonitor.end(PerfMonitor.Stage.CONTACT_QUERY, start);
+        }
+    }
+
+    private void deliverChunk(int loadGeneration, List<Contact> chunk, Callback callback) {
+        mainHandler.post(() -> {
+            if (!isStale(loadGeneration)) callback.onChunkLoaded(chunk);
+        });
+    }
+
+    private boolean isStale(int loadGeneration) {
+        return loadGeneration != generation;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.smartcommunicator.data;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.ContactsContract;
+
+import com.example.smartcommunicator.geo.AddressGeocoder;
+import com.example.smartcommunicator.geo.ContactAddress;
+import com.example.smartcommunicator.geo.ContactLocation;
+import com.example.smartcommunicator.geo.GeocodeCache;
+import com.example.smartcommunicator.geo.GeocodePipeline;
+import com.example.smartcommunicator.geo.PointQuadtree;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Puts the contacts' postal addresses on the map. Every run reads the addresses, places the ones
+ * in the {@link GeocodeCache} at once and geocodes the rest through a {@link GeocodePipeline}.
+ * The cache is saved after every batch, so an interrupted run loses at most one batch.
+ * A run started while another is going just gets its results.
+ *
+ * The cache file is a {@link CheckedFile} holding the cache as written by {@link GeocodeCache#writeTo}.
+ * Needs READ_CONTACTS.
+ */
+public class ContactLocationLoader {
+
+    private static final String FILE_NAME = "geocode_cache.bin";
+    private static final int MAGIC = 0x53434743; // "SCGC"
+    private static final int VERSION = 1;
+    // Requests in flight at once, and a pause between batches, to stay within the geocoder's rate limit.
+    private static final int CONCURRENCY = 4;
+    private static final long BATCH_INTERVAL_MS = 500;
+
+    private static final String[] PROJECTION = {
+            ContactsContract.Data._ID,
+            ContactsContract.Data.LOOKUP_KEY,
+            ContactsContract.Data.DISPLAY_NAME_PRIMARY,
+            ContactsContract.CommonDataKinds.StructuredPostal.FORMATTED_ADDRESS
+    };
+
+    private static ContactLocationLoader instance;
+
+    public interface Callback {
+        /**
+         * @param locations the addresses placed so far
+         * @param tree the locations' positions; point i is location i
+         * @param remaining how many addresses are still being geocoded, 0 when done
+         */
+        void onLocationsChanged(List<ContactLocation> locations, PointQuadtree tree, int remaining);
+    }
+
+    private final ContentResolver resolver;
+    private final CheckedFile file;
+    private final AddressGeocoder geocoder;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Worker only; read from the file on the first run.
+    private GeocodeCache cache;
+    // Main thread only.
+    private Callback callback;
+    private boolean running = false;
+    private List<ContactLocation> lastLocations;
+    private PointQuadtree lastTree;
+    private int lastRemaining;
+
+    private ContactLocationLoader(Context context) {
+        resolver = context.getContentResolver();
+        file = new CheckedFile(new File(context.getFilesDir(), FILE_NAME), MAGIC, VERSION);
+        geocoder = new PlatformGeocoder(context);
+    }
+
+    public static synchronized ContactLocationLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new ContactLocationLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Sends the locations to {@code callback} on the main thread, now if a run already has some and
+     * as they change; starts a run unless one is going. Main thread only.
+     */
+    public void load(Callback callback) {
+        this.callback = callback;
+        if (lastLocations != null) callback.onLocationsChanged(lastLocations, lastTree, lastRemaining);
+        if (running) return;
+        running = true;
+        executor.execute(this::run);
+    }
+
+    /** Stops sending to the callback; the run keeps going so its results are cached. */
+    public void detach(Callback callback) {
+        if (this.callback == callback) this.callback = null;
+    }
+
+    private void run() {
+        if (cache == null) {
+            GeocodeCache read = file.read(GeocodeCache::readFrom);
+            cache = read != null ? read : new GeocodeCache();
+        }
+        GeocodePipeline pipeline = new GeocodePipeline(geocoder, cache, CONCURRENCY, BATCH_INTERVAL_MS, System::currentTimeMillis);
+        final int[] progressCalls = {0};
+        try {
+            pipeline.run(queryAddresses(), (located, remaining) -> {
+                // The first call only has what was cached; after that every call follows a batch.
+                if (progressCalls[0]++ > 0) writeCache();
+                publish(located, ContactLocation.index(located), remaining);
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // No permission or the provider went away; whatever was placed already stays on the map.
+            e.printStackTrace();
+        } finally {
+            // Also keeps which address each row has, for noticing edits next time.
+            writeCache();
+            mainHandler.post(() -> running = false);
+        }
+    }
+
+    private void publish(List<ContactLocation> located, PointQuadtree tree, int remaining) {
+        mainHandler.post(() -> {
+            lastLocations = located;
+            lastTree = tree;
+            lastRemaining = remaining;
+            if (callback != null) callback.onLocationsChanged(located, tree, remaining);
+        });
+    }
+
+    private List<ContactAddress> queryAddresses() {
+        List<ContactAddress> addresses = new ArrayList<>();
+        try (Cursor cursor = resolver.query(ContactsContract.CommonDataKinds.StructuredPostal.CONTENT_URI, PROJECTION,
+                null, null, ContactsContract.Data.DISPLAY_NAME_PRIMARY + " COLLATE LOCALIZED ASC")) {
+            if (cursor == null) return addresses;
+            while (cursor.moveToNext()) {
+                String address = cursor.getString(3);
+                if (address == null || address.trim().isEmpty()) continue;
+                addresses.add(new ContactAddress(cursor.getLong(0), cursor.getString(1), cursor.getString(2), address));
+            }
+        }
+        return addresses;
+    }
+
+    private void writeCache() {
+        file.write(cache::writeTo, cache.size() * 32);
+    }
+}
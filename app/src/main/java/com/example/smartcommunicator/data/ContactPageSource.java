@@ -0,0 +1,245 @@
+package com.example.smartcommunicator.data;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.ContactsContract;
+
+import com.example.smartcommunicator.model.Contact;
+import com.example.smartcommunicator.model.ContactSectionIndex;
+import com.example.smartcommunicator.model.ContactStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A windowed view over the contacts query, for address books too large to load as a whole.
+ * The query's cursor stays open on a worker and only the count is read when it is opened;
+ * pages of {@link #PAGE_SIZE} contacts are read from it on demand, each with its numbers from a
+ * second query limited to that page. Opening costs about the same for 500 contacts as for 500k.
+ * The provider's address book index comes with the count, so the A to Z sections need no scan.
+ *
+ * A search query reopens the cursor on the provider's name filter, so in this mode names are
+ * searched but numbers are not. Call everything from the main thread; callbacks arrive there too.
+ */
+public class ContactPageSource {
+
+    public static final int PAGE_SIZE = 100;
+    // Above this many contacts, screens page or query instead of loading the whole address book.
+    public static final int PAGING_THRESHOLD = 20000;
+    // Cloud sync tends to fire a burst of notifications, so we wait for it to settle.
+    private static final long CHANGE_SETTLE_DELAY_MS = 500;
+
+    private static final String[] CONTACT_PROJECTION = {
+            ContactsContract.Contacts._ID,
+            ContactsContract.Contacts.LOOKUP_KEY,
+            ContactsContract.Contacts.DISPLAY_NAME
+    };
+    private static final String[] PHONE_PROJECTION = {
+            ContactsContract.CommonDataKinds.Phone.LOOKUP_KEY,
+            ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME,
+            ContactsContract.CommonDataKinds.Phone.NUMBER,
+            ContactsContract.CommonDataKinds.Phone.IS_PRIMARY,
+            ContactsContract.CommonDataKinds.Phone.IS_SUPER_PRIMARY
+    };
+
+    public interface Callback {
+        void onOpened(int count, ContactSectionIndex sections);
+        /** @param rows the page's contacts in list order; a contact without numbers has none */
+        void onPageLoaded(int page, ContactStore rows);
+        /** The provider changed, so the open query may be out of date. */
+        void onContentChanged();
+        void onFailed(Exception e);
+    }
+
+    public interface KeysCallback {
+        void onKeysLoaded(List<String> lookupKeys);
+    }
+
+    private final ContentResolver contentResolver;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable changeRunnable = this::notifyContentChanged;
+
+    // Bumped by every open() and close(); work for an older query is skipped and its results dropped.
+    private volatile int generation = 0;
+    private Callback callback;
+    private boolean observing = false;
+
+    // Worker-confined.
+    private Cursor cursor;
+
+    private final ContentObserver contactsObserver = new ContentObserver(mainHandler) {
+        @Override
+        public void onChange(boolean selfChange) {
+            mainHandler.removeCallbacks(changeRunnable);
+            mainHandler.postDelayed(changeRunnable, CHANGE_SETTLE_DELAY_MS);
+        }
+    };
+
+    public ContactPageSource(ContentResolver contentResolver) {
+        this.contentResolver = contentResolver;
+    }
+
+    /**
+     * Opens the query, replacing any open one, and reports its count.
+     * An open that is overtaken by a newer one before it ran is skipped.
+     *
+     * @param query a name filter, or empty for every contact with a number
+     */
+    public void open(String query, Callback callback) {
+        final int openGeneration = ++generation;
+        this.callback = callback;
+        if (!observing) {
+            observing = true;
+            contentResolver.registerContentObserver(ContactsContract.Contacts.CONTENT_URI, true, contactsObserver);
+        }
+        final String filter = query != null ? query : "";
+        worker.execute(() -> {
+            if (openGeneration != generation) return;
+            closeCursor();
+            try {
+                Uri uri = filter.isEmpty()
+                        ? ContactsContract.Contacts.CONTENT_URI
+                        : Uri.withAppendedPath(ContactsContract.Contacts.CONTENT_FILTER_URI, Uri.encode(filter));
+                uri = uri.buildUpon().appendQueryParameter(ContactsContract.Contacts.EXTRA_ADDRESS_BOOK_INDEX, "true").build();
+                // The index counts rows in sort key order, so the rows must come in that order too.
+                cursor = contentResolver.query(uri, CONTACT_PROJECTION,
+                        ContactsContract.Contacts.HAS_PHONE_NUMBER + " = 1", null,
+                        ContactsContract.Contacts.SORT_KEY_PRIMARY + " ASC");
+                if (cursor == null) throw new IllegalStateException("Contacts query returned no cursor");
+                final int count = cursor.getCount();
+                Bundle extras = cursor.getExtras();
+                final ContactSectionIndex sections = extras == null ? ContactSectionIndex.EMPTY : ContactSectionIndex.fromCounts(
+                        extras.getStringArray(ContactsContract.Contacts.EXTRA_ADDRESS_BOOK_INDEX_TITLES),
+                        extras.getIntArray(ContactsContract.Contacts.EXTRA_ADDRESS_BOOK_INDEX_COUNTS));
+                post(openGeneration, () -> callback.onOpened(count, sections));
+            } catch (Exception e) {
+                post(openGeneration, () -> callback.onFailed(e));
+            }
+        });
+    }
+
+    /** Reads one page of the open query in the background. */
+    public void loadPage(int page) {
+        final int pageGeneration = generation;
+        worker.execute(() -> {
+            if (pageGeneration != generation || cursor == null) return;
+            try {
+                final ContactStore rows = readPage(page);
+                post(pageGeneration, () -> callback.onPageLoaded(page, rows));
+            } catch (Exception e) {
+                post(pageGeneration, () -> callback.onFailed(e));
+            }
+        });
+    }
+
+    /** Reads just the lookupKey of every row of the open query, e.g. to select them all. */
+    public void loadLookupKeys(KeysCallback keysCallback) {
+        final int keysGeneration = generation;
+        worker.execute(() -> {
+            if (keysGeneration != generation || cursor == null) return;
+            final List<String> keys = new ArrayList<>(cursor.getCount());
+            if (cursor.moveToFirst()) {
+                do {
+                    keys.add(cursor.getString(1));
+                } while (cursor.moveToNext());
+            }
+            post(keysGeneration, () -> keysCallback.onKeysLoaded(keys));
+        });
+    }
+
+    /** Closes the query and stops watching the provider. Pending results are dropped. */
+    public void close() {
+        generation++;
+        mainHandler.removeCallbacks(changeRunnable);
+        if (observing) {
+            observing = false;
+            contentResolver.unregisterContentObserver(contactsObserver);
+        }
+        worker.execute(this::closeCursor);
+    }
+
+    public void shutdown() {
+        close();
+        // Lets the queued close run, but nothing after it.
+        worker.shutdown();
+    }
+
+    private void notifyContentChanged() {
+        if (observing && callback != null) callback.onContentChanged();
+    }
+
+    private void post(int resultGeneration, Runnable result) {
+        mainHandler.post(() -> {
+            if (resultGeneration == generation) result.run();
+        });
+    }
+
+    private void closeCursor() {
+        if (cursor != null) {
+            cursor.close();
+            cursor = null;
+        }
+    }
+
+    private ContactStore readPage(int page) {
+        List<Long> ids = new ArrayList<>(PAGE_SIZE);
+        List<String> keys = new ArrayList<>(PAGE_SIZE);
+        List<String> names = new ArrayList<>(PAGE_SIZE);
+        // Moving far away makes the cursor refill its window from there; nothing before it is kept.
+        if (cursor.moveToPosition(page * PAGE_SIZE)) {
+            do {
+                ids.add(cursor.getLong(0));
+                keys.add(cursor.getString(1));
+                names.add(cursor.getString(2));
+            } while (ids.size() < PAGE_SIZE && cursor.moveToNext());
+        }
+
+        Map<String, Contact> withNumbers = readNumbers(ids);
+        ContactStore.Builder rows = new ContactStore.Builder();
+        for (int i = 0; i < keys.size(); i++) {
+            Contact contact = withNumbers.get(keys.get(i));
+            if (contact != null) {
+                rows.add(contact);
+            } else {
+                // Lost its numbers since the count; it keeps its place so positions stay aligned.
+                rows.add(keys.get(i), names.get(i), new String[0], 0);
+            }
+        }
+        return rows.build();
+    }
+
+    private Map<String, Contact> readNumbers(List<Long> ids) {
+        Map<String, Contact> contacts = new HashMap<>(ids.size() * 2);
+        if (ids.isEmpty()) return contacts;
+        StringBuilder selection = new StringBuilder(ContactsContract.CommonDataKinds.Phone.CONTACT_ID).append(" IN (");
+        String[] selectionArgs = new String[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            selection.append(i == 0 ? "?" : ",?");
+            selectionArgs[i] = String.valueOf(ids.get(i));
+        }
+        selection.append(')');
+        ContactRowAggregator aggregator = new ContactRowAggregator();
+        try (Cursor phones = contentResolver.query(ContactsContract.CommonDataKinds.Phone.CONTENT_URI, PHONE_PROJECTION,
+                selection.toString(), selectionArgs, ContactRowAggregator.GROUPED_SORT_ORDER)) {
+            if (phones == null) return contacts;
+            while (phones.moveToNext()) {
+                Contact completed = aggregator.addRow(phones.getString(0), phones.getString(1), phones.getString(2),
+                        phones.getInt(3) != 0, phones.getInt(4) != 0);
+                if (completed != null) contacts.put(completed.getLookupKey(), completed);
+            }
+        }
+        Contact last = aggregator.flush();
+        if (last != null) contacts.put(last.getLookupKey(), last);
+        return contacts;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.smartcommunicator.data;
+
+import android.provider.ContactsContract;
+
+import com.example.smartcommunicator.model.Contact;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Folds the provider's phone rows (one per number) into one {@link Contact} per lookupKey
+ * in a single pass. Rows must arrive grouped by contact, which the phone queries ensure by
+ * sorting on the contact id after the display name.
+ *
+ * The primary number is the one marked super-primary (the user's default), else primary,
+ * else the first one. The same number stored twice, e.g. by two synced accounts, is kept once.
+ */
+class ContactRowAggregator {
+
+    // Phone queries sort by name first, then by contact, so each contact's rows are adjacent.
+    // LOCALIZED is the collation ContactStore.nameOrder() follows, so merged rows agree with a full load.
+    static final String GROUPED_SORT_ORDER = ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME + " COLLATE LOCALIZED ASC, "
+            + ContactsContract.CommonDataKinds.Phone.CONTACT_ID + " ASC";
+
+    private String lookupKey;
+    private String name;
+    private final List<String> numbers = new ArrayList<>(4);
+    // Only filled by rows that carry a type; the list does not need them.
+    private final List<Integer> types = new ArrayList<>(4);
+    private int primaryIndex;
+    private int primaryRank;
+
+    /**
+     * Adds one phone row. A row without a lookupKey, name or number, e.g. a number-only contact
+     * with no display name, is skipped, so no caller has to check the columns first.
+     *
+     * @return the previous contact once its last row has been passed, otherwise null
+     */
+    Contact addRow(String rowLookupKey, String rowName, String number, boolean isPrimary, boolean isSuperPrimary) {
+        return addRow(rowLookupKey, rowName, number, Contact.TYPE_UNKNOWN, isPrimary, isSuperPrimary);
+    }
+
+    /** As above, keeping the row's Phone.TYPE on the contact, e.g. for export. */
+    Contact addRow(String rowLookupKey, String rowName, String number, int type,
+                   boolean isPrimary, boolean isSuperPrimary) {
+        if (rowLookupKey == null || rowName == null || number == null) return null;
+        Contact completed = null;
+        if (lookupKey != null && !lookupKey.equals(rowLookupKey)) {
+            completed = flush();
+        }
+        if (lookupKey == null) {
+            lookupKey = rowLookupKey;
+            name = rowName;
+        }
+        int index = indexOfSameNumber(number);
+        if (index < 0) {
+            index = numbers.size();
+            numbers.add(number);
+            if (type != Contact.TYPE_UNKNOWN) {
+                while (types.size() < index) types.add(Contact.TYPE_UNKNOWN);
+                types.add(type);
+            }
+        }
+        int rank = isSuperPrimary ? 2 : isPrimary ? 1 : 0;
+        if (rank > primaryRank) {
+            primaryRank = rank;
+            primaryIndex = index;
+        }
+        return completed;
+    }
+
+    /** Returns the contact still being collected, if any, and starts over. */
+    Contact flush() {
+        if (lookupKey == null) return null;
+        int[] numberTypes = null;
+        if (!types.isEmpty()) {
+            numberTypes = new int[numbers.size()];
+            for (int i = 0; i < numberTypes.length; i++) {
+                numberTypes[i] = i < types.size() ? types.get(i) : Contact.TYPE_UNKNOWN;
+            }
+        }
+        Contact contact = new Contact(lookupKey, name, numbers.toArray(new String[0]), primaryIndex, numberTypes);
+        lookupKey = null;
+        name = null;
+        numbers.clear();
+        types.clear();
+        primaryIndex = 0;
+        primaryRank = 0;
+        return contact;
+    }
+
+    private int indexOfSameNumber(String number) {
+        for (int i = 0; i < numbers.size(); i++) {
+            if (sameDigits(numbers.get(i), number)) return i;
+        }
+        return -1;
+    }
+
+    // "+1 555-0100" and "+15550100" are the same number written differently.
+    private static boolean sameDigits(String a, String b) {
+        int i = 0, j = 0;
+        while (true) {
+            while (i < a.length() && !isDialable(a.charAt(i))) i++;
+            while (j < b.length() && !isDialable(b.charAt(j))) j++;
+            if (i == a.length() || j == b.length()) return i == a.length() && j == b.length();
+            if (a.charAt(i++) != b.charAt(j++)) return false;
+        }
+    }
+
+    private static boolean isDialable(char c) {
+        return (c >= '0' && c <= '9') || c == '+' || c == '*' || c == '#';
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.smartcommunicator.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.ContactsContract;
+
+import com.example.smartcommunicator.model.ContactStore;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps a compact copy of the loaded contact list on disk, so a cold start can show the list
+ * straight from the file and only reconcile the changes since it was written.
+ *
+ * The file is a {@link CheckedFile}; its payload (big endian, see {@link DataOutputStream}):
+ * <pre>
+ *   long lastUpdatedTimestamp, long lastDeletedTimestamp,
+ *   int keyCount,   keyCount   x (UTF lookupKey),
+ *   int idCount,    idCount    x (long contactId, int keyIndex),
+ *   int rowCount,   rowCount   x (int keyIndex, UTF name, short primaryNumberIndex,
+ *                                  short numberCount, numberCount x (UTF number))
+ * </pre>
+ * A file with the wrong magic, version or checksum is treated as missing.
+ */
+public class ContactSnapshotStore {
+
+    private static final String FILE_NAME = "contact_snapshot.bin";
+    private static final int MAGIC = 0x53434e53; // "SCNS"
+    // 2: one row per contact with all of its numbers (1 had one row per number).
+    // 3: rows in the localized name order (2 was sorted by the provider's default collation).
+    private static final int VERSION = 3;
+
+    private static ContactSnapshotStore instance;
+
+    /** What was read back from disk. */
+    public static class Snapshot {
+        public final ContactStore contacts;
+        public final ContactSyncState syncState;
+
+        Snapshot(ContactStore contacts, ContactSyncState syncState) {
+            this.contacts = contacts;
+            this.syncState = syncState;
+        }
+    }
+
+    public interface Callback {
+        /** @param snapshot the stored list, or null when there is none or it could not be trusted */
+        void onSnapshotLoaded(Snapshot snapshot);
+    }
+
+    private final CheckedFile file;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Future<Snapshot> prefetched;
+
+    private ContactSnapshotStore(Context context) {
+        file = new CheckedFile(new File(context.getFilesDir(), FILE_NAME), MAGIC, VERSION);
+    }
+
+    public static synchronized ContactSnapshotStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ContactSnapshotStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /** Starts reading the file in the background so a later {@link #load} finds it ready. Call from the main thread. */
+    public void prefetch() {
+        if (prefetched == null) {
+            prefetched = executor.submit(() -> file.read(ContactSnapshotStore::readSnapshot));
+        }
+    }
+
+    /** Delivers the stored snapshot on the main thread. Call from the main thread. */
+    public void load(Callback callback) {
+        prefetch();
+        final Future<Snapshot> pending = prefetched;
+        // The next load must see whatever was written in between, not this read.
+        prefetched = null;
+        executor.execute(() -> {
+            Snapshot snapshot;
+            try {
+                snapshot = pending.get();
+            } catch (Exception e) {
+                snapshot = null;
+            }
+            final Snapshot result = snapshot;
+            mainHandler.post(() -> callback.onSnapshotLoaded(result));
+        });
+    }
+
+    /**
+     * Writes the list in the background. The store is immutable; the caller must pass a copy
+     * of the sync state, since that keeps changing on its own thread.
+     */
+    public void save(ContactStore contacts, ContactSyncState syncState) {
+        executor.execute(() -> writeSnapshot(contacts, syncState));
+    }
+
+    /**
+     * Removes the file, e.g. when the stored list is known to be wrong. A {@link #load} after this
+     * finds no snapshot, even one prefetched earlier. Call from the main thread.
+     */
+    public void clear() {
+        prefetched = null;
+        executor.execute(file::delete);
+    }
+
+    private static Snapshot readSnapshot(DataInputStream in) throws IOException {
+        long lastUpdated = in.readLong();
+        long lastDeleted = in.readLong();
+        // The provider forgets deletions after a while; past that the delta can no longer be trusted.
+        if (System.currentTimeMillis() - lastDeleted > ContactsContract.DeletedContacts.DAYS_KEPT_MILLISECONDS) {
+            return null;
+        }
+
+        String[] keys = new String[in.readInt()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = in.readUTF();
+        }
+        int idCount = in.readInt();
+        Map<Long, String> lookupKeyByContactId = new HashMap<>(idCount * 2);
+        for (int i = 0; i < idCount; i++) {
+            long contactId = in.readLong();
+            lookupKeyByContactId.put(contactId, keys[in.readInt()]);
+        }
+        int rowCount = in.readInt();
+        // Rows go straight into the columnar store; no Contact is created per row.
+        ContactStore.Builder contacts = new ContactStore.Builder();
+        for (int i = 0; i < rowCount; i++) {
+            String lookupKey = keys[in.readInt()];
+            String name = in.readUTF();
+            int primaryNumberIndex = in.readShort();
+            String[] numbers = new String[in.readShort()];
+            for (int n = 0; n < numbers.length; n++) {
+                numbers[n] = in.readUTF();
+            }
+            if (numbers.length == 0 || primaryNumberIndex < 0 || primaryNumberIndex >= numbers.length) return null;
+            contacts.add(lookupKey, name, numbers, primaryNumberIndex);
+        }
+        return new Snapshot(contacts.build(), new ContactSyncState(lastUpdated, lastDeleted, lookupKeyByContactId));
+    }
+
+    private void writeSnapshot(ContactStore contacts, ContactSyncState syncState) {
+        Map<String, Integer> keyIndex = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        for (String lookupKey : syncState.lookupKeyByContactId.values()) {
+            indexOf(lookupKey, keyIndex, keys);
+        }
+        int[] rowKeys = new int[contacts.size()];
+        for (int row = 0; row < rowKeys.length; row++) {
+            rowKeys[row] = indexOf(contacts.getLookupKey(row), keyIndex, keys);
+        }
+
+        file.write(out -> {
+            out.writeLong(syncState.lastUpdatedTimestamp);
+            out.writeLong(syncState.lastDeletedTimestamp);
+            out.writeInt(keys.size());
+            for (String key : keys) {
+                out.writeUTF(key);
+            }
+            out.writeInt(syncState.lookupKeyByContactId.size());
+            for (Map.Entry<Long, String> entry : syncState.lookupKeyByContactId.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeInt(keyIndex.get(entry.getValue()));
+            }
+            out.writeInt(contacts.size());
+            for (int row = 0; row < rowKeys.length; row++) {
+                out.writeInt(rowKeys[row]);
+                String name = contacts.getName(row);
+                out.writeUTF(name != null ? name : "");
+                out.writeShort(contacts.getPrimaryNumberIndex(row));
+                out.writeShort(contacts.getNumberCount(row));
+                for (int n = 0; n < contacts.getNumberCount(row); n++) {
+                    out.writeUTF(contacts.getNumber(row, n));
+                }
+            }
+        }, contacts.size() * 48 + 48);
+    }
+
+    private static int indexOf(String key, Map<String, Integer> keyIndex, List<String> keys) {
+        Integer index = keyIndex.get(key);
+        if (index == null) {
+            index = keys.size();
+            keyIndex.put(key, index);
+            keys.add(key);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.smartcommunicator.data;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.ContactsContract;
+
+import com.example.smartcommunicator.model.Contact;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Watches the contacts provider and, instead of reloading everything, reads only the
+ * contacts that changed or were deleted since the last high-water mark.
+ * The delta is handed to the main thread so the caller can patch its in-memory list.
+ */
+public class ContactSyncManager {
+
+    // Cloud sync tends to fire a burst of notifications, so we wait for it to settle.
+    private static final long CHANGE_SETTLE_DELAY_MS = 500;
+
+    public interface Listener {
+        /**
+         * @param staleLookupKeys every contact whose rows must be removed (deleted or changed ones)
+         * @param updatedContacts the current rows of the changed and newly inserted contacts
+         * @param syncState a copy of the marks after this delta, e.g. for persisting alongside the list
+         */
+        void onContactsChanged(Set<String> staleLookupKeys, List<Contact> updatedContacts, ContactSyncState syncState);
+    }
+
+    private final ContentResolver contentResolver;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable syncRunnable = this::requestSync;
+
+    private ContactSyncState state;
+    private Listener listener;
+    private volatile boolean running = false;
+
+    private final ContentObserver contactsObserver = new ContentObserver(mainHandler) {
+        @Override
+        public void onChange(boolean selfChange) {
+            mainHandler.removeCallbacks(syncRunnable);
+            mainHandler.postDelayed(syncRunnable, CHANGE_SETTLE_DELAY_MS);
+        }
+    };
+
+    public ContactSyncManager(ContentResolver contentResolver) {
+        this.contentResolver = contentResolver;
+    }
+
+    /** Starts watching for changes made after the given state was captured. Call from the main thread. */
+    public void start(ContactSyncState initialState, Listener listener) {
+        stop();
+        this.state = initialState;
+        this.listener = listener;
+        running = true;
+        contentResolver.registerContentObserver(ContactsContract.Contacts.CONTENT_URI, true, contactsObserver);
+        // Catch anything that changed while the full load was still running.
+        requestSync();
+    }
+
+    /** Stops watching. Deltas that are still being read are dropped. Call from the main thread. */
+    public void stop() {
+        if (!running) return;
+        running = false;
+        mainHandler.removeCallbacks(syncRunnable);
+        contentResolver.unregisterContentObserver(contactsObserver);
+    }
+
+    public void shutdown() {
+        stop();
+        executor.shutdownNow();
+    }
+
+    private void requestSync() {
+        final ContactSyncState syncState = state;
+        final Listener syncListener = listener;
+        executor.execute(() -> readDelta(syncState, syncListener));
+    }
+
+    private void readDelta(ContactSyncState syncState, Listener syncListener) {
+        Set<String> staleLookupKeys = new HashSet<>();
+        List<Contact> updatedContacts = new ArrayList<>();
+        // The marks only move once the whole delta has been read.
+        ContactSyncState working = syncState.copy();
+        try {
+            readDeletedContacts(working, staleLookupKeys);
+            readUpdatedContacts(working, staleLookupKeys, updatedContacts);
+        } catch (Exception e) {
+            // A failed delta is retried with the next change notification.
+            e.printStackTrace();
+            return;
+        }
+        syncState.set(working);
+        if (staleLookupKeys.isEmpty() && updatedContacts.isEmpty()) return;
+        final ContactSyncState stateAfterDelta = working;
+        mainHandler.post(() -> {
+            if (running && listener == syncListener) {
+                syncListener.onContactsChanged(staleLookupKeys, updatedContacts, stateAfterDelta);
+            }
+        });
+    }
+
+    private void readDeletedContacts(ContactSyncState syncState, Set<String> staleLookupKeys) {
+        String[] projection = {
+                ContactsContract.DeletedContacts.CONTACT_ID,
+                ContactsContract.DeletedContacts.CONTACT_DELETED_TIMESTAMP
+        };
+        String selection = ContactsContract.DeletedContacts.CONTACT_DELETED_TIMESTAMP + " > ?";
+        String[] selectionArgs = { String.valueOf(syncState.lastDeletedTimestamp) };
+        long newDeletedMark = syncState.lastDeletedTimestamp;
+        try (Cursor cursor = contentResolver.query(ContactsContract.DeletedContacts.CONTENT_URI, projection, selection, selectionArgs, null)) {
+            if (cursor == null) return;
+            while (cursor.moveToNext()) {
+                long contactId = cursor.getLong(0);
+                long deletedAt = cursor.getLong(1);
+                String lookupKey = syncState.lookupKeyByContactId.remove(contactId);
+                if (lookupKey != null) {
+                    staleLookupKeys.add(lookupKey);
+                }
+                newDeletedMark = Math.max(newDeletedMark, deletedAt);
+            }
+        }
+        syncState.lastDeletedTimestamp = newDeletedMark;
+    }
+
+    private void readUpdatedContacts(ContactSyncState syncState, Set<String> staleLookupKeys, List<Contact> updatedContacts) {
+        String[] selectionArgs = { String.valueOf(syncState.lastUpdatedTimestamp) };
+
+        // Every changed contact, even one that no longer has a phone number, so its old rows go away.
+        String[] contactProjection = {
+                ContactsContract.Contacts._ID,
+                ContactsContract.Contacts.LOOKUP_KEY,
+                ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP
+        };
+        String contactSelection = ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP + " > ?";
+        long newUpdatedMark = syncState.lastUpdatedTimestamp;
+        List<long[]> changedIds = new ArrayList<>();
+        List<String> changedKeys = new ArrayList<>();
+        try (Cursor cursor = contentResolver.query(ContactsContract.Contacts.CONTENT_URI, contactProjection, contactSelection, selectionArgs, null)) {
+            if (cursor == null) return;
+            while (cursor.moveToNext()) {
+                long contactId = cursor.getLong(0);
+                String lookupKey = cursor.getString(1);
+                long updatedAt = cursor.getLong(2);
+                if (lookupKey == null) continue;
+                changedIds.add(new long[]{ contactId, updatedAt });
+                changedKeys.add(lookupKey);
+                newUpdatedMark = Math.max(newUpdatedMark, updatedAt);
+            }
+        }
+        if (changedKeys.isEmpty()) return;
+
+        String[] phoneProjection = {
+                ContactsContract.CommonDataKinds.Phone.LOOKUP_KEY,
+                ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME,
+                ContactsContract.CommonDataKinds.Phone.NUMBER,
+                ContactsContract.CommonDataKinds.Phone.IS_PRIMARY,
+                ContactsContract.CommonDataKinds.Phone.IS_SUPER_PRIMARY
+        };
+        String phoneSelection = ContactsContract.CommonDataKinds.Phone.CONTACT_LAST_UPDATED_TIMESTAMP + " > ?";
+        try (Cursor cursor = contentResolver.query(ContactsContract.CommonDataKinds.Phone.CONTENT_URI, phoneProjection, phoneSelection, selectionArgs,
+                ContactRowAggregator.GROUPED_SORT_ORDER)) {
+            if (cursor == null) return;
+            ContactRowAggregator aggregator = new ContactRowAggregator();
+            while (cursor.moveToNext()) {
+                Contact completed = aggregator.addRow(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getInt(3) != 0, cursor.getInt(4) != 0);
+                if (completed != null) {
+                    updatedContacts.add(completed);
+                }
+            }
+            Contact last = aggregator.flush();
+            if (last != null) {
+                updatedContacts.add(last);
+            }
+        }
+
+        for (int i = 0; i < changedIds.size(); i++) {
+            long contactId = changedIds.get(i)[0];
+            String lookupKey = changedKeys.get(i);
+            // Re-aggregation can give an existing contact id a new lookupKey.
+            String previousKey = syncState.lookupKeyByContactId.get(contactId);
+            if (previousKey != null) {
+                staleLookupKeys.add(previousKey);
+            }
+            staleLookupKeys.add(lookupKey);
+            syncState.recordContact(contactId, lookupKey, changedIds.get(i)[1]);
+        }
+        syncState.lastUpdatedTimestamp = newUpdatedMark;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.smartcommunicator.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The high-water marks the incremental sync works from. Anything the provider changed
+ * after {@link #lastUpdatedTimestamp} or deleted after {@link #lastDeletedTimestamp}
+ * has not been applied to the in-memory list yet.
+ *
+ * Not thread safe: it is filled by the loader's worker and afterwards only touched
+ * by the sync worker.
+ */
+public class ContactSyncState {
+
+    long lastUpdatedTimestamp;
+    long lastDeletedTimestamp;
+
+    // The deleted-contacts table only reports contact ids, so we remember which
+    // lookupKey each id had when we last saw it.
+    final Map<Long, String> lookupKeyByContactId = new HashMap<>();
+
+    public ContactSyncState(long lastDeletedTimestamp) {
+        this.lastDeletedTimestamp = lastDeletedTimestamp;
+    }
+
+    ContactSyncState(long lastUpdatedTimestamp, long lastDeletedTimestamp, Map<Long, String> lookupKeyByContactId) {
+        this.lastUpdatedTimestamp = lastUpdatedTimestamp;
+        this.lastDeletedTimestamp = lastDeletedTimestamp;
+        this.lookupKeyByContactId.putAll(lookupKeyByContactId);
+    }
+
+    /** A detached copy that can be handed to another thread, e.g. for writing a snapshot. */
+    public ContactSyncState copy() {
+        return new ContactSyncState(lastUpdatedTimestamp, lastDeletedTimestamp, lookupKeyByContactId);
+    }
+
+    void set(ContactSyncState other) {
+        lastUpdatedTimestamp = other.lastUpdatedTimestamp;
+        lastDeletedTimestamp = other.lastDeletedTimestamp;
+        lookupKeyByContactId.clear();
+        lookupKeyByContactId.putAll(other.lookupKeyByContactId);
+    }
+
+    void recordContact(long contactId, String lookupKey, long updatedTimestamp) {
+        lookupKeyByContactId.put(contactId, lookupKey);
+        if (updatedTimestamp > lastUpdatedTimestamp) {
+            lastUpdatedTimestamp = updatedTimestamp;
+        }
+    }
+
+    public long getLastUpdatedTimestamp() {
+        return lastUpdatedTimestamp;
+    }
+
+    public long getLastDeletedTimestamp() {
+        return lastDeletedTimestamp;
+    }
+}
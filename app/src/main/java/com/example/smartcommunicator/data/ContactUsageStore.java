@@ -0,0 +1,112 @@
+package com.example.smartcommunicator.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.smartcommunicator.usage.UsageScores;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Remembers which contacts are called and messaged, as decayed {@link UsageScores}, in a small file.
+ * The file is read on a worker the first time the scores are asked for, so the list is drawn
+ * without waiting for it. A use is counted in memory at once and written a moment later, so a
+ * burst of calls costs one write.
+ *
+ * The file is a {@link CheckedFile} holding the scores as written by {@link UsageScores#writeTo}.
+ * Main thread only.
+ */
+public class ContactUsageStore {
+
+    private static final String FILE_NAME = "contact_usage.bin";
+    private static final int MAGIC = 0x53435553; // "SCUS"
+    private static final int VERSION = 1;
+    private static final long SAVE_DELAY_MS = 2000;
+
+    private static ContactUsageStore instance;
+
+    public interface Callback {
+        /** @param scores a copy, safe to hand to a worker */
+        void onUsageLoaded(UsageScores scores);
+    }
+
+    private final CheckedFile file;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Callback> waiting = new ArrayList<>();
+    private final Runnable saveRunnable = this::save;
+    // Null until the file was read. Uses recorded before that are kept apart and merged in.
+    private UsageScores scores;
+    private final List<String> earlyUses = new ArrayList<>();
+    private final List<Long> earlyUseTimes = new ArrayList<>();
+    private boolean loading = false;
+
+    private ContactUsageStore(Context context) {
+        file = new CheckedFile(new File(context.getFilesDir(), FILE_NAME), MAGIC, VERSION);
+    }
+
+    public static synchronized ContactUsageStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ContactUsageStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /** Delivers a copy of the scores on the main thread, reading the file first if needed. */
+    public void load(Callback callback) {
+        if (scores != null) {
+            callback.onUsageLoaded(scores.copy());
+            return;
+        }
+        waiting.add(callback);
+        if (loading) return;
+        loading = true;
+        executor.execute(() -> {
+            final UsageScores read = file.read(UsageScores::readFrom);
+            mainHandler.post(() -> onLoaded(read));
+        });
+    }
+
+    /** Counts a call or message to the contact. */
+    public void recordUse(String lookupKey) {
+        if (lookupKey == null) return;
+        long now = System.currentTimeMillis();
+        if (scores == null) {
+            earlyUses.add(lookupKey);
+            earlyUseTimes.add(now);
+            load(loaded -> { });
+            return;
+        }
+        scores.record(lookupKey, now);
+        mainHandler.removeCallbacks(saveRunnable);
+        mainHandler.postDelayed(saveRunnable, SAVE_DELAY_MS);
+    }
+
+    private void onLoaded(UsageScores read) {
+        scores = read != null ? read : new UsageScores();
+        loading = false;
+        for (int i = 0; i < earlyUses.size(); i++) {
+            scores.record(earlyUses.get(i), earlyUseTimes.get(i));
+        }
+        if (!earlyUses.isEmpty()) {
+            earlyUses.clear();
+            earlyUseTimes.clear();
+            mainHandler.postDelayed(saveRunnable, SAVE_DELAY_MS);
+        }
+        List<Callback> callbacks = new ArrayList<>(waiting);
+        waiting.clear();
+        for (Callback callback : callbacks) {
+            callback.onUsageLoaded(scores.copy());
+        }
+    }
+
+    private void save() {
+        final UsageScores snapshot = scores.copy();
+        executor.execute(() -> file.write(snapshot::writeTo, snapshot.size() * 40));
+    }
+}
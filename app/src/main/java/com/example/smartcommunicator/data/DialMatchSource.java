@@ -0,0 +1,108 @@
+package com.example.smartcommunicator.data;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.ContactsContract;
+
+import com.example.smartcommunicator.model.Contact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Dial-pad matches asked from the provider, for address books too large to index in memory.
+ * Each lookup is one phone filter query capped at the number of matches shown, so it costs
+ * about the same for any address book size. The provider filters numbers by their digits, so
+ * in this mode numbers are matched but names are not spelled out on the keypad (no T9).
+ * Call everything from the main thread; callbacks arrive there too.
+ */
+public class DialMatchSource {
+
+    private static final String[] PHONE_PROJECTION = {
+            ContactsContract.CommonDataKinds.Phone.LOOKUP_KEY,
+            ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME,
+            ContactsContract.CommonDataKinds.Phone.NUMBER
+    };
+
+    public interface CountCallback {
+        void onCounted(int count);
+    }
+
+    public interface MatchCallback {
+        void onMatched(List<Contact> matches);
+    }
+
+    private final ContentResolver contentResolver;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Bumped by every match(); an older lookup is skipped and its result dropped.
+    private volatile int generation = 0;
+    private volatile boolean released = false;
+
+    public DialMatchSource(ContentResolver contentResolver) {
+        this.contentResolver = contentResolver;
+    }
+
+    /** Counts the contacts with a number, or reports -1 if the provider could not be asked. */
+    public void count(CountCallback callback) {
+        worker.execute(() -> {
+            int count = -1;
+            try (Cursor cursor = contentResolver.query(ContactsContract.Contacts.CONTENT_URI,
+                    new String[]{ ContactsContract.Contacts._ID },
+                    ContactsContract.Contacts.HAS_PHONE_NUMBER + " = 1", null, null)) {
+                if (cursor != null) count = cursor.getCount();
+            } catch (Exception e) {
+                // Reported as -1.
+            }
+            final int result = count;
+            mainHandler.post(() -> {
+                if (!released) callback.onCounted(result);
+            });
+        });
+    }
+
+    /** Finds at most {@code limit} numbers containing the typed digits; a newer call overtakes this one. */
+    public void match(String typed, int limit, MatchCallback callback) {
+        final int matchGeneration = ++generation;
+        final String digits = typed.replaceAll("[^0-9+]", "");
+        if (digits.isEmpty()) {
+            post(matchGeneration, () -> callback.onMatched(Collections.emptyList()));
+            return;
+        }
+        worker.execute(() -> {
+            if (matchGeneration != generation) return;
+            final List<Contact> matches = new ArrayList<>(limit);
+            Uri uri = Uri.withAppendedPath(ContactsContract.CommonDataKinds.Phone.CONTENT_FILTER_URI, Uri.encode(digits))
+                    .buildUpon()
+                    .appendQueryParameter(ContactsContract.LIMIT_PARAM_KEY, String.valueOf(limit))
+                    .build();
+            try (Cursor cursor = contentResolver.query(uri, PHONE_PROJECTION, null, null, null)) {
+                while (cursor != null && cursor.moveToNext() && matches.size() < limit) {
+                    matches.add(new Contact(cursor.getString(0), cursor.getString(1), cursor.getString(2)));
+                }
+            } catch (Exception e) {
+                // Matching is a convenience; no matches is a fine answer.
+            }
+            post(matchGeneration, () -> callback.onMatched(matches));
+        });
+    }
+
+    /** Drops pending results and releases the worker. The source cannot be reused afterwards. */
+    public void shutdown() {
+        released = true;
+        worker.shutdownNow();
+    }
+
+    private void post(int resultGeneration, Runnable result) {
+        mainHandler.post(() -> {
+            if (!released && resultGeneration == generation) result.run();
+        });
+    }
+}
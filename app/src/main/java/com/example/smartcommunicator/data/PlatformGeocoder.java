@@ -0,0 +1,42 @@
+package com.example.smartcommunicator.data;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+
+import com.example.smartcommunicator.geo.AddressGeocoder;
+import com.example.smartcommunicator.geo.GeoPoint;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The platform's {@link Geocoder} behind {@link AddressGeocoder}. It blocks on a network request,
+ * which is what the pipeline's workers are for. Devices without a geocoding backend fail every
+ * request, so nothing is cached and the addresses are tried again on a later visit.
+ */
+public class PlatformGeocoder implements AddressGeocoder {
+
+    private final Geocoder geocoder;
+
+    public PlatformGeocoder(Context context) {
+        geocoder = new Geocoder(context.getApplicationContext(), Locale.getDefault());
+    }
+
+    @Override
+    @SuppressWarnings("deprecation") // The listener version needs API 33; this one is fine off the main thread.
+    public GeoPoint geocode(String address) throws IOException {
+        if (!Geocoder.isPresent()) throw new IOException("No geocoder on this device");
+        List<Address> results;
+        try {
+            results = geocoder.getFromLocationName(address, 1);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (results == null || results.isEmpty() || !results.get(0).hasLatitude() || !results.get(0).hasLongitude()) {
+            return null;
+        }
+        return new GeoPoint(results.get(0).getLatitude(), results.get(0).getLongitude());
+    }
+}
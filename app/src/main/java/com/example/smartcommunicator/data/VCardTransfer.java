@@ -0,0 +1,274 @@
+package com.example.smartcommunicator.data;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.provider.ContactsContract;
+import android.provider.OpenableColumns;
+
+import com.example.smartcommunicator.model.Contact;
+import com.example.smartcommunicator.text.VCardReader;
+import com.example.smartcommunicator.text.VCardWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Imports contacts from a vCard file and exports them to one, on a worker thread, streaming both
+ * ways: an import parses a card at a time and commits every {@link #IMPORT_BATCH_SIZE} contacts in
+ * one {@code applyBatch} transaction; an export writes each contact as soon as the phone cursor has
+ * passed its last row. Neither holds the whole file or the whole address book in memory.
+ * Progress and the result are reported on the main thread. One transfer runs at a time.
+ */
+public class VCardTransfer {
+
+    // Bounds the parsed contacts held before a commit; like the deleter's batches, short transactions.
+    static final int IMPORT_BATCH_SIZE = 100;
+    private static final int EXPORT_PROGRESS_STEP = 200;
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    public interface Callback {
+        /** @param percent how far the transfer is, or -1 if the file size is unknown */
+        void onProgress(int contactCount, int percent);
+        /** @param failedCount contacts that were read but could not be saved */
+        void onTransferFinished(int contactCount, int failedCount);
+        void onTransferFailed(Exception e);
+    }
+
+    private final ContentResolver contentResolver;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean released = false;
+    // Bumped by cancel(); a transfer stops once its generation is stale.
+    private volatile int generation = 0;
+    private CancellationSignal cancellationSignal;
+
+    public VCardTransfer(ContentResolver contentResolver) {
+        this.contentResolver = contentResolver;
+    }
+
+    /** Reads the cards in the file and adds them to the default account. Call from the main thread. */
+    public void importFrom(Uri source, Callback callback) {
+        final int transferGeneration = ++generation;
+        executor.execute(() -> importCards(transferGeneration, source, callback));
+    }
+
+    /** Writes every contact with a phone number to the file. Call from the main thread. */
+    public void exportTo(Uri target, Callback callback) {
+        final int transferGeneration = ++generation;
+        final CancellationSignal signal = new CancellationSignal();
+        cancellationSignal = signal;
+        executor.execute(() -> exportContacts(transferGeneration, signal, target, callback));
+    }
+
+    /**
+     * Stops the running transfer and drops its callbacks. Batches an import already committed stay
+     * saved; an export leaves a partial file behind.
+     */
+    public void cancel() {
+        generation++;
+        if (cancellationSignal != null) {
+            cancellationSignal.cancel();
+            cancellationSignal = null;
+        }
+    }
+
+    public void release() {
+        released = true;
+        cancel();
+        executor.shutdown();
+    }
+
+    private void importCards(int transferGeneration, Uri source, Callback callback) {
+        final long size = querySize(source);
+        int imported = 0;
+        int failed = 0;
+        try (CountingInputStream input = new CountingInputStream(openInput(source));
+             VCardReader reader = new VCardReader(new BufferedReader(
+                     new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE))) {
+            List<Contact> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            int batchOperations = 0;
+            Contact contact;
+            while ((contact = reader.next()) != null) {
+                if (isStale(transferGeneration)) return;
+                int operations = ContactBatchInserter.operationCount(Collections.singletonList(contact));
+                if (batch.size() >= IMPORT_BATCH_SIZE
+                        || (!batch.isEmpty() && batchOperations + operations > ContactBatchInserter.MAX_OPERATIONS)) {
+                    if (commit(batch)) imported += batch.size();
+                    else failed += batch.size();
+                    reportProgress(transferGeneration, callback, imported, percent(input.count, size));
+                    batch.clear();
+                    batchOperations = 0;
+                }
+                batch.add(contact);
+                batchOperations += operations;
+            }
+            if (isStale(transferGeneration)) return;
+            if (!batch.isEmpty()) {
+                if (commit(batch)) imported += batch.size();
+                else failed += batch.size();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            post(transferGeneration, () -> callback.onTransferFailed(e));
+            return;
+        }
+        final int importedCount = imported;
+        final int failedCount = failed;
+        post(transferGeneration, () -> callback.onTransferFinished(importedCount, failedCount));
+    }
+
+    private boolean commit(List<Contact> batch) {
+        ArrayList<ContentProviderOperation> operations =
+                ContactBatchInserter.buildOperations(batch, ContactsContract.CommonDataKinds.Phone.TYPE_OTHER);
+        try {
+            contentResolver.applyBatch(ContactsContract.AUTHORITY, operations);
+            return true;
+        } catch (Exception e) {
+            // Rolled back as a whole; the next batch is tried regardless.
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void exportContacts(int transferGeneration, CancellationSignal signal, Uri target, Callback callback) {
+        String[] projection = {
+                ContactsContract.CommonDataKinds.Phone.LOOKUP_KEY,
+                ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME,
+                ContactsContract.CommonDataKinds.Phone.NUMBER,
+                ContactsContract.CommonDataKinds.Phone.TYPE,
+                ContactsContract.CommonDataKinds.Phone.IS_PRIMARY,
+                ContactsContract.CommonDataKinds.Phone.IS_SUPER_PRIMARY
+        };
+        int exported = 0;
+        try (Cursor cursor = contentResolver.query(ContactsContract.CommonDataKinds.Phone.CONTENT_URI, projection, null, null,
+                ContactRowAggregator.GROUPED_SORT_ORDER, signal);
+             VCardWriter writer = new VCardWriter(new BufferedWriter(
+                     new OutputStreamWriter(openOutput(target), StandardCharsets.UTF_8), BUFFER_SIZE))) {
+            if (cursor != null) {
+                int lookupKeyIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.LOOKUP_KEY);
+                int nameIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME);
+                int numberIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.NUMBER);
+                int typeIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.TYPE);
+                int primaryIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.IS_PRIMARY);
+                int superPrimaryIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.IS_SUPER_PRIMARY);
+                int rowCount = cursor.getCount();
+                ContactRowAggregator aggregator = new ContactRowAggregator();
+                while (cursor.moveToNext()) {
+                    if (isStale(transferGeneration)) return;
+                    Contact completed = aggregator.addRow(cursor.getString(lookupKeyIndex), cursor.getString(nameIndex),
+                            cursor.getString(numberIndex), cursor.getInt(typeIndex),
+                            cursor.getInt(primaryIndex) != 0, cursor.getInt(superPrimaryIndex) != 0);
+                    if (completed == null) continue;
+                    writer.write(completed);
+                    if (++exported % EXPORT_PROGRESS_STEP == 0) {
+                        reportProgress(transferGeneration, callback, exported, percent(cursor.getPosition() + 1, rowCount));
+                    }
+                }
+                Contact last = aggregator.flush();
+                if (last != null) {
+                    writer.write(last);
+                    exported++;
+                }
+            }
+        } catch (OperationCanceledException e) {
+            return;
+        } catch (Exception e) {
+            e.printStackTrace();
+            post(transferGeneration, () -> callback.onTransferFailed(e));
+            return;
+        }
+        final int exportedCount = exported;
+        post(transferGeneration, () -> callback.onTransferFinished(exportedCount, 0));
+    }
+
+    private InputStream openInput(Uri source) throws IOException {
+        InputStream input = contentResolver.openInputStream(source);
+        if (input == null) throw new FileNotFoundException(source.toString());
+        return input;
+    }
+
+    private OutputStream openOutput(Uri target) throws IOException {
+        // "wt" truncates, in case the user picked an existing, longer file.
+        OutputStream output = contentResolver.openOutputStream(target, "wt");
+        if (output == null) throw new FileNotFoundException(target.toString());
+        return output;
+    }
+
+    /** The file's size in bytes, or -1 if the provider does not say. */
+    private long querySize(Uri source) {
+        try (Cursor cursor = contentResolver.query(source, new String[]{OpenableColumns.SIZE}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) return cursor.getLong(0);
+        } catch (Exception e) {
+            // Only the progress bar needs it.
+        }
+        return -1;
+    }
+
+    private static int percent(long done, long total) {
+        if (total <= 0) return -1;
+        return (int) Math.min(100, done * 100 / total);
+    }
+
+    private boolean isStale(int transferGeneration) {
+        return transferGeneration != generation;
+    }
+
+    private void reportProgress(int transferGeneration, Callback callback, int contactCount, int percent) {
+        post(transferGeneration, () -> callback.onProgress(contactCount, percent));
+    }
+
+    private void post(int transferGeneration, Runnable runnable) {
+        mainHandler.post(() -> {
+            if (!released && !isStale(transferGeneration)) runnable.run();
+        });
+    }
+
+    // Counts the bytes handed to the reader, for the import's progress.
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.smartcommunicator.perf;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Trace;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Times the app's hot paths. Each {@link Stage} feeds a {@link LatencyHistogram} and shows up as a
+ * named section in a system trace (Perfetto or systrace), so the same names appear in both.
+ * Everything is static and thread safe; the debug screen in the settings reads it.
+ *
+ * Synchronous stages use {@link #begin}/{@link #end} on one thread, with the end in a finally block
+ * so trace sections stay balanced. Work that finishes in a callback uses the async pair.
+ */
+public final class PerfMonitor {
+
+    public enum Stage {
+        STARTUP("startupToFirstFrame"),
+        LIST_FIRST_FRAME("listOpenToFirstFrame"),
+        STARTUP_TO_LIST("startupToFirstListFrame"),
+        CONTACT_QUERY("contactQuery"),
+        CURSOR_WALK("cursorWalk"),
+        FILTER_LIST("filterList"),
+        BIND_ROW("onBindViewHolder"),
+        OCR("ocr"),
+        CALL_LOG_READ("callLogRead"),
+        MAP_DRAW("mapDraw");
+
+        final String traceName;
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        Stage(String traceName) {
+            this.traceName = traceName;
+        }
+
+        public String getTraceName() {
+            return traceName;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+
+    // Start of the launch STARTUP_TO_LIST times, or 0 once it was recorded or dropped. Main thread only.
+    private static long launchNanos;
+
+    private PerfMonitor() { }
+
+    /** Starts a stage on this thread. @return the start time, for {@link #end} */
+    public static long begin(Stage stage) {
+        Trace.beginSection(stage.traceName);
+        return System.nanoTime();
+    }
+
+    public static void end(Stage stage, long startNanos) {
+        stage.histogram.record(System.nanoTime() - startNanos);
+        Trace.endSection();
+    }
+
+    /** Starts a stage that ends on another thread or in a callback. */
+    public static long beginAsync(Stage stage) {
+        long start = System.nanoTime();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(stage.traceName, (int) start);
+        }
+        return start;
+    }
+
+    public static void endAsync(Stage stage, long startNanos) {
+        stage.histogram.record(System.nanoTime() - startNanos);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(stage.traceName, (int) startNanos);
+        }
+    }
+
+    /**
+     * Records the stage once the view draws its next frame, timed from {@code startNanos}.
+     * For "until something is on screen" stages; a frame is drawn right after its pre-draw pass.
+     */
+    public static void endAsyncOnNextFrame(Stage stage, long startNanos, View view) {
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                endAsync(stage, startNanos);
+                return true;
+            }
+        });
+    }
+
+    /** Starts {@link Stage#STARTUP_TO_LIST}; call it in the launcher activity's onCreate. */
+    public static void beginLaunch() {
+        launchNanos = beginAsync(Stage.STARTUP_TO_LIST);
+    }
+
+    /** Ends {@link Stage#STARTUP_TO_LIST} on the view's next frame, once per launch. */
+    public static void endLaunchOnNextFrame(View view) {
+        if (launchNanos == 0) return;
+        endAsyncOnNextFrame(Stage.STARTUP_TO_LIST, launchNanos, view);
+        launchNanos = 0;
+    }
+
+    /** Drops the launch timing, e.g. when the list is not the first screen shown. */
+    public static void cancelLaunch() {
+        if (launchNanos == 0) return;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(Stage.STARTUP_TO_LIST.traceName, (int) launchNanos);
+        }
+        launchNanos = 0;
+    }
+
+    public static void reset() {
+        for (Stage stage : Stage.values()) stage.histogram.reset();
+    }
+
+    /** One line per stage: count, p50, p95, p99 and max, in milliseconds. */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-22s %7s %9s %9s %9s %9s%n", "stage", "count", "p50", "p95", "p99", "max"));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = stage.histogram;
+            report.append(String.format(Locale.ROOT, "%-22s %7d %9s %9s %9s %9s%n", stage.traceName, histogram.getCount(),
+                    millis(histogram.getPercentileNanos(0.50)), millis(histogram.getPercentileNanos(0.95)),
+                    millis(histogram.getPercentileNanos(0.99)), millis(histogram.getMaxNanos())));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Writes the report, headed by the build and the device, to the app's external files
+     * directory, where it can be pulled with adb without any permission.
+     */
+    public static File dump(Context context, String versionName) throws IOException {
+        File directory = new File(context.getExternalFilesDir(null), "perf");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date());
+        File file = new File(directory, "perf-" + timestamp + ".txt");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("version " + versionName + "\n");
+            writer.write("device " + Build.MANUFACTURER + " " + Build.MODEL + ", API " + Build.VERSION.SDK_INT + "\n");
+            writer.write("time " + timestamp + "\n\n");
+            writer.write(report());
+        }
+        return file;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
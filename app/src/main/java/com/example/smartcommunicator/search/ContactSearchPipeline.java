@@ -0,0 +1,165 @@
+package com.example.smartcommunicator.search;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.smartcommunicator.model.ContactSlice;
+import com.example.smartcommunicator.model.ContactStore;
+import com.example.smartcommunicator.perf.PerfMonitor;
+import com.example.smartcommunicator.usage.UsageRanker;
+import com.example.smartcommunicator.usage.UsageScores;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs list searches on a worker thread so typing never waits for the match.
+ * <ul>
+ *   <li>Keystrokes are debounced; only the query the user pauses on is searched.</li>
+ *   <li>A newer query cancels older ones: queued searches are skipped and results that
+ *       arrive late are dropped.</li>
+ *   <li>When the new query extends the previous one, only the previous results are checked.</li>
+ * </ul>
+ * The store and its {@link ContactSearchIndex} live on the worker. Call everything except
+ * the listener from the main thread; the listener is called on the main thread too.
+ */
+public class ContactSearchPipeline {
+
+    private static final long DEBOUNCE_MS = 150;
+    // How many contacts an unindexed scan checks between looking for a newer query.
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    public interface Listener {
+        void onSearchResults(String query, ContactSlice results);
+    }
+
+    private final Listener listener;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch;
+
+    // Bumped for every new query and every cancel(); a search only reports if it is still the latest.
+    private volatile int generation = 0;
+
+    // Worker-confined state.
+    private ContactStore store = ContactStore.EMPTY;
+    private ContactSearchIndex index;
+    private String lastQuery;
+    private int[] lastPositions;
+    private UsageScores usage;
+
+    public ContactSearchPipeline(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Replaces the searched store. With {@code buildIndex} the worker indexes it before running
+     * the next search; without it (e.g. while the list is still loading) searches scan it instead.
+     */
+    public void setContacts(ContactStore newStore, boolean buildIndex) {
+        worker.execute(() -> {
+            store = newStore;
+            index = buildIndex ? ContactSearchIndex.build(newStore) : null;
+            lastQuery = null;
+            lastPositions = null;
+        });
+    }
+
+    /** Scores to rank used contacts by: pinned above an empty query, moved up in results. Pass a copy. */
+    public void setUsage(UsageScores scores) {
+        worker.execute(() -> usage = scores);
+    }
+
+    /** Searches once the user stops typing for a moment. */
+    public void search(String query) {
+        schedule(query, DEBOUNCE_MS);
+    }
+
+    /** Searches right away, e.g. on submit or after the list itself changed. */
+    public void searchNow(String query) {
+        schedule(query, 0);
+    }
+
+    /** Drops the pending and the running search. */
+    public void cancel() {
+        generation++;
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    private void schedule(String query, long delayMs) {
+        cancel();
+        final int searchGeneration = generation;
+        final String searchQuery = query != null ? query : "";
+        pendingSearch = () -> {
+            pendingSearch = null;
+            worker.execute(() -> runSearch(searchQuery, searchGeneration));
+        };
+        if (delayMs > 0) {
+            mainHandler.postDelayed(pendingSearch, delayMs);
+        } else {
+            pendingSearch.run();
+        }
+    }
+
+    private void runSearch(String query, int searchGeneration) {
+        if (isStale(searchGeneration)) return;
+        long start = PerfMonitor.begin(PerfMonitor.Stage.FILTER_LIST);
+        try {
+            ContactSlice results = match(query, searchGeneration);
+            if (results == null) return;
+            mainHandler.post(() -> {
+                if (!isStale(searchGeneration)) listener.onSearchResults(query, results);
+            });
+        } finally {
+            PerfMonitor.end(PerfMonitor.Stage.FILTER_LIST, start);
+        }
+    }
+
+    /** The rows matching the query, or null if a newer query took over during the scan. */
+    private ContactSlice match(String query, int searchGeneration) {
+        ContactSlice results;
+        if (query.isEmpty()) {
+            results = usage != null ? UsageRanker.withFrequent(store, usage, System.currentTimeMillis()) : ContactSlice.all(store);
+        } else if (index != null) {
+            String lowerCaseQuery = query.toLowerCase();
+            int[] positions = lastPositions != null && lowerCaseQuery.startsWith(lastQuery)
+                    ? index.refine(lastPositions, lowerCaseQuery)
+                    : index.searchPositions(lowerCaseQuery);
+            // Kept even if this query is already outdated: the next keystroke can refine from it.
+            lastQuery = lowerCaseQuery;
+            lastPositions = positions;
+            results = ranked(positions);
+        } else {
+            String lowerCaseQuery = query.toLowerCase();
+            int[] rows = new int[16];
+            int count = 0;
+            for (int i = 0; i < store.size(); i++) {
+                if (i % CANCEL_CHECK_INTERVAL == 0 && isStale(searchGeneration)) return null;
+                if (ContactSearchIndex.matches(store, i, lowerCaseQuery)) {
+                    if (count == rows.length) rows = Arrays.copyOf(rows, count * 2);
+                    rows[count++] = i;
+                }
+            }
+            results = ranked(Arrays.copyOf(rows, count));
+        }
+        return results;
+    }
+
+    // The positions stay in store order for refine(); only the slice shown is reordered.
+    private ContactSlice ranked(int[] positions) {
+        return usage != null ? UsageRanker.boost(store, positions, usage, System.currentTimeMillis()) : ContactSlice.of(store, positions);
+    }
+
+    private boolean isStale(int searchGeneration) {
+        return searchGeneration != generation;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.smartcommunicator.ui.calls;
+
+import android.text.format.DateUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.smartcommunicator.calls.CallEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One row per call: the contact's name (or the number) over the call type, number and time.
+// A refresh usually only adds a few calls on top, so the rows are diffed by call id; there are
+// at most a few hundred, which is quick enough on the main thread.
+public class RecentCallsAdapter extends RecyclerView.Adapter<RecentCallsAdapter.CallViewHolder> {
+
+    public interface OnCallClickListener {
+        void onCallClicked(CallEntry call);
+    }
+
+    private List<CallEntry> calls = new ArrayList<>();
+    private final OnCallClickListener listener;
+
+    public RecentCallsAdapter(OnCallClickListener listener) {
+        this.listener = listener;
+    }
+
+    public void setCalls(List<CallEntry> newCalls) {
+        final List<CallEntry> oldCalls = calls;
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldCalls.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newCalls.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return oldCalls.get(oldPosition).getId() == newCalls.get(newPosition).getId();
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                CallEntry oldCall = oldCalls.get(oldPosition);
+                CallEntry newCall = newCalls.get(newPosition);
+                // The call itself never changes, only the contact it was joined to.
+                return equal(oldCall.getLookupKey(), newCall.getLookupKey())
+                        && equal(oldCall.getDisplayName(), newCall.getDisplayName());
+            }
+        }, false);
+        calls = newCalls;
+        diff.dispatchUpdatesTo(this);
+    }
+
+    @NonNull
+    @Override
+    public CallViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(android.R.layout.simple_list_item_2, parent, false);
+        return new CallViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull CallViewHolder holder, int position) {
+        CallEntry call = calls.get(position);
+        String name = call.getDisplayName();
+        String number = call.getNumber() != null && !call.getNumber().isEmpty() ? call.getNumber() : "Unknown number";
+        holder.name.setText(name != null ? name : number);
+        CharSequence when = DateUtils.getRelativeTimeSpanString(call.getDateMs(), System.currentTimeMillis(),
+                DateUtils.MINUTE_IN_MILLIS, DateUtils.FORMAT_ABBREV_RELATIVE);
+        holder.details.setText(typeLabel(call.getType()) + (name != null ? " · " + number : "") + " · " + when);
+        holder.itemView.setOnClickListener(v -> listener.onCallClicked(call));
+    }
+
+    @Override
+    public int getItemCount() {
+        return calls.size();
+    }
+
+    private static String typeLabel(int type) {
+        switch (type) {
+            case CallEntry.TYPE_INCOMING:
+                return "Incoming";
+            case CallEntry.TYPE_OUTGOING:
+                return "Outgoing";
+            case CallEntry.TYPE_MISSED:
+                return "Missed";
+            default:
+                return "Call";
+        }
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    static class CallViewHolder extends RecyclerView.ViewHolder {
+        final TextView name;
+        final TextView details;
+
+        CallViewHolder(@NonNull View itemView) {
+            super(itemView);
+            name = itemView.findViewById(android.R.id.text1);
+            details = itemView.findViewById(android.R.id.text2);
+        }
+    }
+}
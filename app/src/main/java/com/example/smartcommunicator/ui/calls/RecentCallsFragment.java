@@ -0,0 +1,141 @@
+package com.example.smartcommunicator.ui.calls;
+
+import android.Manifest;
+import android.content.ActivityNotFoundException;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.smartcommunicator.R;
+import com.example.smartcommunicator.calls.CallEntry;
+import com.example.smartcommunicator.data.CallLogReader;
+import com.example.smartcommunicator.data.ContactSnapshotStore;
+import com.example.smartcommunicator.data.ContactUsageStore;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The recent calls with the contact each number belongs to. The names come from the stored
+ * contact list, so opening this screen queries neither the contacts nor PhoneLookup; the call
+ * log itself is only read from where the last visit stopped, see {@link CallLogReader}.
+ */
+public class RecentCallsFragment extends Fragment {
+
+    private RecentCallsAdapter adapter;
+    private TextView textEmpty;
+    private ActivityResultLauncher<String> requestCallLogPermissionLauncher;
+    // Bumped on every refresh; only the latest one may update the list.
+    private int refreshRequest = 0;
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        requestCallLogPermissionLauncher = registerForActivityResult(
+                new ActivityResultContracts.RequestPermission(),
+                isGranted -> {
+                    if (isGranted) {
+                        refresh();
+                    } else {
+                        showPermissionDenied();
+                    }
+                });
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        View root = inflater.inflate(R.layout.fragment_recent_calls, container, false);
+        textEmpty = root.findViewById(R.id.text_recent_calls_empty);
+        RecyclerView recyclerView = root.findViewById(R.id.recycler_view_recent_calls);
+        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        adapter = new RecentCallsAdapter(this::dial);
+        recyclerView.setAdapter(adapter);
+        return root;
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        // Asked once per view, not on every resume: closing the dialog resumes the fragment again.
+        if (!hasCallLogPermission()) {
+            requestCallLogPermissionLauncher.launch(Manifest.permission.READ_CALL_LOG);
+        }
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        // Every visit picks up the calls made since the last one.
+        if (hasCallLogPermission()) {
+            refresh();
+        } else {
+            showPermissionDenied();
+        }
+    }
+
+    private boolean hasCallLogPermission() {
+        return ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.READ_CALL_LOG) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    private void showPermissionDenied() {
+        if (getView() == null) return;
+        adapter.setCalls(Collections.emptyList());
+        textEmpty.setText("Allow access to the call log to see recent calls");
+        textEmpty.setVisibility(View.VISIBLE);
+    }
+
+    private void refresh() {
+        if (getContext() == null) return;
+        final int request = ++refreshRequest;
+        final CallLogReader reader = CallLogReader.getInstance(requireContext());
+        ContactSnapshotStore.getInstance(requireContext()).load(snapshot -> {
+            if (request != refreshRequest || getContext() == null) return;
+            reader.refresh(snapshot != null ? snapshot.contacts : null, new CallLogReader.Callback() {
+                @Override
+                public void onCallsLoaded(List<CallEntry> calls) {
+                    if (request != refreshRequest || getView() == null) return;
+                    adapter.setCalls(calls);
+                    textEmpty.setText("No recent calls");
+                    textEmpty.setVisibility(calls.isEmpty() ? View.VISIBLE : View.GONE);
+                }
+
+                @Override
+                public void onCallsFailed(Exception e) {
+                    if (request != refreshRequest || getContext() == null) return;
+                    Toast.makeText(getContext(), "Could not read the call log.", Toast.LENGTH_SHORT).show();
+                }
+            });
+        });
+    }
+
+    private void dial(CallEntry call) {
+        if (call.getNumber() == null || call.getNumber().trim().isEmpty()) {
+            Toast.makeText(getContext(), "No phone number available.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        Intent dialIntent = new Intent(Intent.ACTION_DIAL);
+        dialIntent.setData(Uri.parse("tel:" + Uri.encode(call.getNumber())));
+        try {
+            startActivity(dialIntent);
+            ContactUsageStore.getInstance(requireContext()).recordUse(call.getLookupKey());
+        } catch (ActivityNotFoundException e) {
+            Toast.makeText(getContext(), "No dialer found.", Toast.LENGTH_SHORT).show();
+        }
+    }
+}
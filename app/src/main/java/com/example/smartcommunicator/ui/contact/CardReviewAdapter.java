@@ -0,0 +1,87 @@
+package com.example.smartcommunicator.ui.contact;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.ImageButton;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.smartcommunicator.R;
+
+// The queued cards in the batch review; edits go straight into the queue's entries.
+public class CardReviewAdapter extends RecyclerView.Adapter<CardReviewAdapter.CardViewHolder> {
+
+    private final CardScanQueue queue;
+
+    public CardReviewAdapter(CardScanQueue queue) {
+        this.queue = queue;
+    }
+
+    @NonNull
+    @Override
+    public CardViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.card_review_item, parent, false);
+        return new CardViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull CardViewHolder holder, int position) {
+        holder.bind(queue.getEntries().get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return queue.size();
+    }
+
+    class CardViewHolder extends RecyclerView.ViewHolder {
+        final EditText name;
+        final EditText number;
+        CardScanQueue.Entry entry;
+
+        CardViewHolder(@NonNull View itemView) {
+            super(itemView);
+            name = itemView.findViewById(R.id.edit_card_name);
+            number = itemView.findViewById(R.id.edit_card_number);
+            ImageButton remove = itemView.findViewById(R.id.button_remove_card);
+            name.addTextChangedListener(new EntryWatcher() {
+                @Override
+                public void afterTextChanged(Editable s) {
+                    if (entry != null) entry.name = s.toString();
+                }
+            });
+            number.addTextChangedListener(new EntryWatcher() {
+                @Override
+                public void afterTextChanged(Editable s) {
+                    if (entry != null) entry.number = s.toString();
+                }
+            });
+            remove.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) return;
+                queue.remove(queue.getEntries().get(position));
+                notifyItemRemoved(position);
+            });
+        }
+
+        void bind(CardScanQueue.Entry newEntry) {
+            // Detached first, so filling in the fields does not write back into the entry.
+            entry = null;
+            name.setText(newEntry.name);
+            number.setText(newEntry.number);
+            entry = newEntry;
+        }
+    }
+
+    private abstract static class EntryWatcher implements TextWatcher {
+        @Override
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+        @Override
+        public void onTextChanged(CharSequence s, int start, int before, int count) { }
+    }
+}
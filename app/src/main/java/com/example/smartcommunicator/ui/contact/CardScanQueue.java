@@ -0,0 +1,107 @@
+package com.example.smartcommunicator.ui.contact;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.smartcommunicator.model.Contact;
+import com.example.smartcommunicator.text.BusinessCardParser;
+import com.example.smartcommunicator.text.PhoneNumberExtractor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The business cards scanned in batch mode, waiting to be reviewed and saved together.
+ * A card goes in as soon as the scanner has a stable number; its name is parsed from the text on a
+ * worker, so the next card can be scanned straight away. Main thread only.
+ */
+public class CardScanQueue {
+
+    // At three provider operations a card, this stays well inside one transaction.
+    public static final int MAX_CARDS = 100;
+
+    public interface Listener {
+        void onQueueChanged(int cardCount);
+    }
+
+    public enum AddResult { ADDED, DUPLICATE, FULL }
+
+    /** One scanned card; name and number can be corrected in the review. */
+    public static final class Entry {
+        String name = "";
+        String number;
+
+        Entry(String number) {
+            this.number = number;
+        }
+    }
+
+    private final BusinessCardParser parser = new BusinessCardParser(PhoneNumberExtractor.getInstance());
+    private final ExecutorService parseExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Entry> entries = new ArrayList<>();
+    private final Listener listener;
+
+    public CardScanQueue(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Queues a scanned card. A number already in the queue is not added again: the same card
+     * usually stays in front of the camera for a moment after it was read.
+     */
+    public AddResult add(String text, String number) {
+        for (Entry entry : entries) {
+            if (number.equals(entry.number)) return AddResult.DUPLICATE;
+        }
+        if (entries.size() >= MAX_CARDS) return AddResult.FULL;
+        final Entry entry = new Entry(number);
+        entries.add(entry);
+        parseExecutor.execute(() -> {
+            final BusinessCardParser.Card card = parser.parse(text);
+            mainHandler.post(() -> {
+                // A name the user typed in the meantime wins.
+                if (entry.name.isEmpty()) entry.name = card.getName();
+                if (entries.contains(entry)) listener.onQueueChanged(entries.size());
+            });
+        });
+        listener.onQueueChanged(entries.size());
+        return AddResult.ADDED;
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void remove(Entry entry) {
+        if (entries.remove(entry)) listener.onQueueChanged(entries.size());
+    }
+
+    public void clear() {
+        entries.clear();
+        listener.onQueueChanged(0);
+    }
+
+    /** The cards with a number, as contacts to insert; a card without a name is saved under its number. */
+    public List<Contact> toContacts() {
+        List<Contact> contacts = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            String number = entry.number != null ? entry.number.trim() : "";
+            if (number.isEmpty()) continue;
+            String name = entry.name.trim().isEmpty() ? number : entry.name.trim();
+            contacts.add(new Contact(null, name, number));
+        }
+        return contacts;
+    }
+
+    public void release() {
+        parseExecutor.shutdownNow();
+    }
+}
@@ -3,37 +3,59 @@ package com.example.smartcommunicator.ui.contact;
 import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.content.SharedPreferences;
 import android.graphics.Bitmap;
+import android.graphics.RectF;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.provider.ContactsContract;
 import android.provider.MediaStore;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.ImageButton;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
+import androidx.camera.view.PreviewView;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.smartcommunicator.R;
+import com.example.smartcommunicator.data.ContactBatchInserter;
+import com.example.smartcommunicator.data.ContactLoader;
+import com.example.smartcommunicator.data.ContactPageSource;
+import com.example.smartcommunicator.data.ContactSnapshotStore;
+import com.example.smartcommunicator.data.ContactSyncState;
+import com.example.smartcommunicator.data.DialMatchSource;
+import com.example.smartcommunicator.model.Contact;
+import com.example.smartcommunicator.model.ContactStore;
+import com.example.smartcommunicator.search.T9MatchIndex;
+import com.example.smartcommunicator.search.T9Matcher;
+import com.example.smartcommunicator.text.PhoneCandidate;
+import com.example.smartcommunicator.text.PhoneNumberExtractor;
 import com.google.android.gms.tasks.Task;
 import com.google.android.material.textfield.TextInputEditText;
-import com.google.mlkit.vision.common.InputImage;
 import com.google.mlkit.vision.text.Text;
-import com.google.mlkit.vision.text.TextRecognition;
-import com.google.mlkit.vision.text.TextRecognizer;
-import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
 
 import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ContactFragment extends Fragment {
 
@@ -43,13 +65,49 @@ public class ContactFragment extends Fragment {
     private ImageButton buttonScanCamera;
     private Button buttonSave;
     private Button buttonDial;
+    private RecyclerView recyclerViewDialMatches;
+    private View scanOverlay;
+    private PreviewView scanPreview;
+    private ScanRegionView scanRegion;
+    private CheckBox checkBoxBatchScan;
+    private View batchBar;
+    private TextView textBatchCount;
+    private TextView textScanHint;
+
+    // --- Live scanning: the camera preview is read in place until a number holds steady ---
+    private static final String SCAN_RATE_PREFERENCE = "scan_rate_preference";
+    private static final int DEFAULT_SCAN_RATE = 4;
+    private static final String SCAN_REGION_PREFERENCE = "scan_region";
+    // Longest edge of the image handed to the recognizer, after cropping to the scan region.
+    private static final int OCR_TARGET_LONG_EDGE = 1280;
+    private final OcrEngine ocrEngine = new OcrEngine(OCR_TARGET_LONG_EDGE);
+    private LivePhoneScanner liveScanner;
+
+    // --- Batch mode: scanned cards queue up and are saved in one transaction after a review ---
+    private CardScanQueue cardQueue;
+    private ContactBatchInserter contactInserter;
+    private boolean pendingBatchSave = false;
+
+    // --- Dial-pad matching: typed digits are matched against names (T9) and numbers ---
+    private static final int MAX_DIAL_MATCHES = 8;
+    private DialMatchAdapter dialMatchAdapter;
+    private T9Matcher t9Matcher;
+    private ContactLoader contactLoader;
+    // Only for address books too large to index; then numbers are matched by the provider instead.
+    private DialMatchSource dialMatchSource;
+    private boolean providerMatching = false;
+    private int dialIndexRequest = 0;
+    private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     // --- Result Launchers for Permissions and Activities ---
 
     // Launcher for "Write Contacts" permission
     private final ActivityResultLauncher<String> requestWriteContactsLauncher =
             registerForActivityResult(new ActivityResultContracts.RequestPermission(), isGranted -> {
-                if (isGranted) {
+                if (isGranted && pendingBatchSave) {
+                    saveBatch();
+                } else if (isGranted) {
                     saveContact(); // Permission granted, try saving again
                 } else {
                     Toast.makeText(getContext(), "Permission to write contacts denied.", Toast.LENGTH_SHORT).show();
@@ -82,6 +140,15 @@ public class ContactFragment extends Fragment {
                 }
             });
 
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        // Warmed up when the fragment starts, closed when it is destroyed.
+        getLifecycle().addObserver(ocrEngine);
+        cardQueue = new CardScanQueue(this::onCardQueueChanged);
+        contactInserter = new ContactBatchInserter(requireContext().getApplicationContext().getContentResolver());
+    }
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
@@ -92,6 +159,19 @@ public class ContactFragment extends Fragment {
         buttonScanCamera = root.findViewById(R.id.button_scan_camera);
         buttonSave = root.findViewById(R.id.button_save);
         buttonDial = root.findViewById(R.id.button_dial);
+        recyclerViewDialMatches = root.findViewById(R.id.recycler_view_dial_matches);
+        scanOverlay = root.findViewById(R.id.scan_overlay);
+        scanPreview = root.findViewById(R.id.scan_preview);
+        scanRegion = root.findViewById(R.id.scan_region);
+        checkBoxBatchScan = root.findViewById(R.id.checkbox_batch_scan);
+        batchBar = root.findViewById(R.id.batch_bar);
+        textBatchCount = root.findViewById(R.id.text_batch_count);
+        textScanHint = root.findViewById(R.id.text_scan_hint);
+        root.findViewById(R.id.button_close_scan).setOnClickListener(v -> stopLiveScan());
+        root.findViewById(R.id.button_review_batch).setOnClickListener(v -> {
+            stopLiveScan();
+            showBatchReview();
+        });
         return root;
     }
 
@@ -103,6 +183,137 @@ public class ContactFragment extends Fragment {
         buttonSave.setOnClickListener(v -> saveContact());
         buttonDial.setOnClickListener(v -> dialNumber());
         buttonScanCamera.setOnClickListener(v -> handleCameraScanClick()); // Updated listener
+
+        setupDialMatching();
+    }
+
+    @Override
+    public void onDestroyView() {
+        dialIndexRequest++;
+        if (liveScanner != null) {
+            // Bound to this view's lifecycle, so it cannot outlive it.
+            liveScanner.release();
+            liveScanner = null;
+        }
+        if (contactLoader != null) {
+            contactLoader.cancel();
+        }
+        super.onDestroyView();
+    }
+
+    @Override
+    public void onDestroy() {
+        if (contactLoader != null) {
+            contactLoader.shutdown();
+        }
+        if (dialMatchSource != null) {
+            dialMatchSource.shutdown();
+        }
+        indexExecutor.shutdownNow();
+        cardQueue.release();
+        contactInserter.release();
+        super.onDestroy();
+    }
+
+    // --- Dial-pad matching ---
+
+    private void setupDialMatching() {
+        dialMatchAdapter = new DialMatchAdapter(contact -> {
+            editTextName.setText(contact.getName());
+            editTextPhone.setText(contact.getNumber());
+        });
+        recyclerViewDialMatches.setLayoutManager(new LinearLayoutManager(requireContext()));
+        recyclerViewDialMatches.setAdapter(dialMatchAdapter);
+
+        editTextPhone.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+            @Override
+            public void afterTextChanged(Editable s) {
+                updateDialMatches();
+            }
+        });
+
+        if (ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.READ_CONTACTS) == PackageManager.PERMISSION_GRANTED) {
+            loadDialIndex();
+        }
+    }
+
+    // Uses the stored contact snapshot when there is one, and only walks the provider otherwise.
+    // The contacts list stores no snapshot for a paged address book, so that is counted first.
+    private void loadDialIndex() {
+        final int request = ++dialIndexRequest;
+        providerMatching = false;
+        ContactSnapshotStore.getInstance(requireContext()).load(snapshot -> {
+            if (request != dialIndexRequest) return;
+            if (snapshot != null) {
+                buildDialIndex(snapshot.contacts, request);
+                return;
+            }
+            if (dialMatchSource == null) {
+                dialMatchSource = new DialMatchSource(requireContext().getApplicationContext().getContentResolver());
+            }
+            dialMatchSource.count(count -> {
+                if (request != dialIndexRequest) return;
+                if (count > ContactPageSource.PAGING_THRESHOLD) {
+                    providerMatching = true;
+                    updateDialMatches();
+                } else if (count >= 0) {
+                    loadDialIndexFromProvider(request);
+                }
+            });
+        });
+    }
+
+    private void loadDialIndexFromProvider(int request) {
+        if (contactLoader == null) {
+            contactLoader = new ContactLoader(requireContext().getApplicationContext().getContentResolver());
+        }
+        final ContactStore.Builder loaded = new ContactStore.Builder();
+        contactLoader.load(new ContactLoader.Callback() {
+            @Override
+            public void onChunkLoaded(List<Contact> chunk) {
+                for (Contact contact : chunk) {
+                    loaded.add(contact);
+                }
+            }
+
+            @Override
+            public void onLoadFinished(int totalCount, ContactSyncState syncState) {
+                buildDialIndex(loaded.build(), request);
+            }
+
+            @Override
+            public void onLoadFailed(Exception e) {
+                // Matching is a convenience; the dialer works without it.
+            }
+        });
+    }
+
+    private void buildDialIndex(ContactStore contacts, int request) {
+        indexExecutor.execute(() -> {
+            T9MatchIndex index = T9MatchIndex.build(contacts);
+            mainHandler.post(() -> {
+                if (request != dialIndexRequest) return;
+                t9Matcher = new T9Matcher(index);
+                updateDialMatches();
+            });
+        });
+    }
+
+    private void updateDialMatches() {
+        if (editTextPhone == null) return;
+        String typed = editTextPhone.getText() != null ? editTextPhone.getText().toString() : "";
+        if (providerMatching) {
+            final int request = dialIndexRequest;
+            dialMatchSource.match(typed, MAX_DIAL_MATCHES, matches -> {
+                if (request == dialIndexRequest) dialMatchAdapter.setMatches(matches);
+            });
+        } else if (t9Matcher != null) {
+            dialMatchAdapter.setMatches(t9Matcher.match(typed, MAX_DIAL_MATCHES));
+        }
     }
 
     // --- Core Methods for Features ---
@@ -124,6 +335,7 @@ public class ContactFragment extends Fragment {
             editTextName.setText("");
             editTextPhone.setText("");
         } else {
+            pendingBatchSave = false;
             requestWriteContactsLauncher.launch(Manifest.permission.WRITE_CONTACTS);
         }
     }
@@ -152,8 +364,153 @@ public class ContactFragment extends Fragment {
         }
     }
 
-    // NEW: Method to open the device's camera app
+    // Scans in place from the live preview; the camera app is only the fallback.
     private void launchCamera() {
+        if (liveScanner == null) {
+            int rate = DEFAULT_SCAN_RATE;
+            try {
+                rate = Integer.parseInt(PreferenceManager.getDefaultSharedPreferences(requireContext())
+                        .getString(SCAN_RATE_PREFERENCE, String.valueOf(DEFAULT_SCAN_RATE)));
+            } catch (NumberFormatException ignored) {
+                // Keep the default.
+            }
+            liveScanner = new LivePhoneScanner(requireContext(), getViewLifecycleOwner(), scanPreview, ocrEngine, rate,
+                    this::findPhoneNumber, new LivePhoneScanner.Listener() {
+                @Override
+                public void onNumberFound(String number, String text) {
+                    if (checkBoxBatchScan.isChecked()) {
+                        onCardScanned(number, text);
+                        return;
+                    }
+                    scanOverlay.setVisibility(View.GONE);
+                    editTextPhone.setText(number);
+                    Toast.makeText(getContext(), "Phone number found!", Toast.LENGTH_SHORT).show();
+                }
+
+                @Override
+                public void onScanFailed(Exception e) {
+                    stopLiveScan();
+                    launchCaptureIntent();
+                }
+            });
+            RectF savedRegion = loadScanRegion();
+            if (savedRegion != null) {
+                scanRegion.setRegion(savedRegion);
+            }
+            liveScanner.setRegion(scanRegion.getRegion());
+            scanRegion.setListener(region -> {
+                liveScanner.setRegion(region);
+                saveScanRegion(region);
+            });
+        }
+        boolean batch = checkBoxBatchScan.isChecked();
+        liveScanner.setContinuous(batch);
+        batchBar.setVisibility(batch ? View.VISIBLE : View.GONE);
+        textScanHint.setText(batch ? "Hold up one card at a time" : "Fit the phone number inside the frame");
+        onCardQueueChanged(cardQueue.size());
+        scanOverlay.setVisibility(View.VISIBLE);
+        liveScanner.start();
+    }
+
+    // --- Batch mode ---
+
+    private void onCardScanned(String number, String text) {
+        switch (cardQueue.add(text, number)) {
+            case ADDED:
+                textScanHint.setText("Card added. Hold up the next one");
+                break;
+            case DUPLICATE:
+                textScanHint.setText("Already queued. Hold up the next card");
+                break;
+            case FULL:
+                Toast.makeText(getContext(), "The queue is full. Save these cards first.", Toast.LENGTH_LONG).show();
+                stopLiveScan();
+                showBatchReview();
+                break;
+        }
+    }
+
+    private void onCardQueueChanged(int cardCount) {
+        if (textBatchCount == null) return;
+        textBatchCount.setText(cardCount == 1 ? "1 card queued" : cardCount + " cards queued");
+        checkBoxBatchScan.setText(cardCount == 0 ? "Scan a stack of cards" : "Scan a stack of cards (" + cardCount + " queued)");
+    }
+
+    private void showBatchReview() {
+        if (cardQueue.size() == 0) {
+            Toast.makeText(getContext(), "No cards scanned yet", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        RecyclerView cards = new RecyclerView(requireContext());
+        cards.setLayoutManager(new LinearLayoutManager(requireContext()));
+        cards.setAdapter(new CardReviewAdapter(cardQueue));
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Review scanned cards")
+                .setView(cards)
+                .setPositiveButton("Save all", (dialog, which) -> saveBatch())
+                .setNegativeButton("Keep scanning", (dialog, which) -> launchCamera())
+                .setNeutralButton("Discard all", (dialog, which) -> cardQueue.clear())
+                .show();
+    }
+
+    private void saveBatch() {
+        if (ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.WRITE_CONTACTS) != PackageManager.PERMISSION_GRANTED) {
+            pendingBatchSave = true;
+            requestWriteContactsLauncher.launch(Manifest.permission.WRITE_CONTACTS);
+            return;
+        }
+        pendingBatchSave = false;
+        List<Contact> contacts = cardQueue.toContacts();
+        if (contacts.isEmpty()) {
+            Toast.makeText(getContext(), "None of the cards has a number", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        contactInserter.insert(contacts, new ContactBatchInserter.Callback() {
+            @Override
+            public void onInsertFinished(int insertedCount) {
+                cardQueue.clear();
+                Toast.makeText(getContext(), insertedCount + " contacts saved", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onInsertFailed(Exception e) {
+                // The transaction saved nothing, so the cards stay queued for another try.
+                Toast.makeText(getContext(), "Could not save the cards. They are still queued.", Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    // The region is kept as "left,top,right,bottom" fractions, so it survives a restart.
+    @Nullable
+    private RectF loadScanRegion() {
+        String saved = PreferenceManager.getDefaultSharedPreferences(requireContext()).getString(SCAN_REGION_PREFERENCE, null);
+        if (saved == null) return null;
+        String[] parts = saved.split(",");
+        if (parts.length != 4) return null;
+        try {
+            return new RectF(Float.parseFloat(parts[0]), Float.parseFloat(parts[1]),
+                    Float.parseFloat(parts[2]), Float.parseFloat(parts[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void saveScanRegion(RectF region) {
+        SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(requireContext());
+        preferences.edit()
+                .putString(SCAN_REGION_PREFERENCE, region.left + "," + region.top + "," + region.right + "," + region.bottom)
+                .apply();
+    }
+
+    private void stopLiveScan() {
+        if (liveScanner != null) {
+            liveScanner.stop();
+        }
+        scanOverlay.setVisibility(View.GONE);
+    }
+
+    // Takes a single photo with the device's camera app, for when the live preview cannot be opened.
+    private void launchCaptureIntent() {
         Intent takePictureIntent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
         // The 'cameraLauncher' will handle the result of this action.
         cameraLauncher.launch(takePictureIntent);
@@ -162,10 +519,8 @@ public class ContactFragment extends Fragment {
     // NEW: Method to process the captured image using ML Kit
     private void processImageWithMLKit(Bitmap bitmap) {
         Toast.makeText(getContext(), "Analyzing image...", Toast.LENGTH_SHORT).show();
-        InputImage image = InputImage.fromBitmap(bitmap, 0);
-        TextRecognizer recognizer = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
-
-        Task<Text> result = recognizer.process(image)
+        // The whole photo: the user framed it in the camera app, not with the scan region.
+        Task<Text> result = ocrEngine.process(bitmap, null, 0, OcrEngine.FULL_FRAME)
                 .addOnSuccessListener(visionText -> {
                     // ML Kit processing was successful
                     extractPhoneNumber(visionText.getText());
@@ -178,13 +533,10 @@ public class ContactFragment extends Fragment {
 
     // NEW: Method to find a phone number within the recognized text
     private void extractPhoneNumber(String text) {
-        // This is a simple regex to find sequences of 7 or more digits, possibly with spaces, dashes, or parentheses.
-        Pattern pattern = Pattern.compile("(?:\\+?(\\d{1,3}))?[-.\\s]?\\(?(\\d{3})\\)?[-.\\s]?(\\d{3})[-.\\s]?(\\d{4,})");
-        Matcher matcher = pattern.matcher(text);
+        String phoneNumber = findPhoneNumber(text);
 
-        if (matcher.find()) {
+        if (phoneNumber != null) {
             // A potential phone number was found
-            String phoneNumber = matcher.group(0).replaceAll("[^0-9+]", ""); // Clean up the found number
             editTextPhone.setText(phoneNumber); // Set the number in the EditText
             Toast.makeText(getContext(), "Phone number found!", Toast.LENGTH_SHORT).show();
         } else {
@@ -192,4 +544,11 @@ public class ContactFragment extends Fragment {
             Toast.makeText(getContext(), "No phone number detected in the image.", Toast.LENGTH_LONG).show();
         }
     }
+
+    // The most likely number in the text, or null. Runs for every scanned frame.
+    @Nullable
+    private String findPhoneNumber(String text) {
+        PhoneCandidate best = PhoneNumberExtractor.getInstance().best(text);
+        return best != null ? best.getNumber() : null;
+    }
 }
@@ -0,0 +1,66 @@
+package com.example.smartcommunicator.ui.contact;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.smartcommunicator.model.Contact;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Shows the contacts that match the digits in the dialer's phone field.
+public class DialMatchAdapter extends RecyclerView.Adapter<DialMatchAdapter.MatchViewHolder> {
+
+    public interface OnMatchClickListener {
+        void onMatchClicked(Contact contact);
+    }
+
+    private final List<Contact> matches = new ArrayList<>();
+    private final OnMatchClickListener listener;
+
+    public DialMatchAdapter(OnMatchClickListener listener) {
+        this.listener = listener;
+    }
+
+    public void setMatches(List<Contact> newMatches) {
+        matches.clear();
+        matches.addAll(newMatches);
+        notifyDataSetChanged();
+    }
+
+    @NonNull
+    @Override
+    public MatchViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(android.R.layout.simple_list_item_2, parent, false);
+        return new MatchViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull MatchViewHolder holder, int position) {
+        Contact contact = matches.get(position);
+        holder.name.setText(contact.getName());
+        holder.number.setText(contact.getNumber());
+        holder.itemView.setOnClickListener(v -> listener.onMatchClicked(contact));
+    }
+
+    @Override
+    public int getItemCount() {
+        return matches.size();
+    }
+
+    static class MatchViewHolder extends RecyclerView.ViewHolder {
+        final TextView name;
+        final TextView number;
+
+        MatchViewHolder(@NonNull View itemView) {
+            super(itemView);
+            name = itemView.findViewById(android.R.id.text1);
+            number = itemView.findViewById(android.R.id.text2);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.smartcommunicator.ui.contact;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.RectF;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Size;
+
+import androidx.annotation.Nullable;
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.core.Preview;
+import androidx.camera.core.UseCaseGroup;
+import androidx.camera.core.ViewPort;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.camera.view.PreviewView;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads a phone number off the camera preview, without leaving the app.
+ * Frames go through an ImageAnalysis that keeps only the latest one, so a slow recognition never
+ * builds up a queue: while a frame is being recognized it stays open and the camera simply drops
+ * the ones behind it. On top of that, recognition runs at most {@code recognitionsPerSecond} times a
+ * second. A number counts once it was read from {@link #STABLE_FRAMES} frames in a row, which filters
+ * out the half-focused reads of a moving card; scanning then stops, unless it is continuous.
+ *
+ * Analysis is bound with the preview's viewport, so a frame's crop rect is exactly what the user sees
+ * and the scan region drawn over the preview maps straight onto it.
+ *
+ * Call everything from the main thread; the listener is called there too.
+ */
+public class LivePhoneScanner {
+
+    // Consecutive frames that must agree before a number is accepted.
+    static final int STABLE_FRAMES = 3;
+    // Enough pixels for small print once the frame is cropped to the scan region.
+    private static final Size ANALYSIS_RESOLUTION = new Size(1920, 1080);
+
+    public interface Listener {
+        /** @param text all the text of the frame the number was read from */
+        void onNumberFound(String number, String text);
+        void onScanFailed(Exception e);
+    }
+
+    /** Finds the phone number in recognized text, or returns null. */
+    public interface NumberExtractor {
+        @Nullable
+        String extract(String text);
+    }
+
+    private final Context context;
+    private final LifecycleOwner lifecycleOwner;
+    private final PreviewView previewView;
+    private final OcrEngine ocrEngine;
+    private final NumberExtractor extractor;
+    private final Listener listener;
+    private final long minRecognitionIntervalMs;
+    private final ExecutorService analysisExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private ProcessCameraProvider cameraProvider;
+    private Preview preview;
+    private ImageAnalysis imageAnalysis;
+    private volatile RectF region = new RectF(OcrEngine.FULL_FRAME);
+    // Bumped by every start() and stop(); frames of an older session are dropped.
+    private volatile int session = 0;
+    private boolean released = false;
+
+    // Analysis-thread only.
+    private Bitmap frameBitmap;
+    private long lastRecognitionAt = 0;
+    private String candidate;
+    private int candidateFrames = 0;
+    // In continuous mode, the number reported last; it is not reported again until another one was.
+    private String lastFound;
+    private volatile boolean continuous = false;
+
+    public LivePhoneScanner(Context context, LifecycleOwner lifecycleOwner, PreviewView previewView, OcrEngine ocrEngine,
+                            int recognitionsPerSecond, NumberExtractor extractor, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.lifecycleOwner = lifecycleOwner;
+        this.previewView = previewView;
+        this.ocrEngine = ocrEngine;
+        this.extractor = extractor;
+        this.listener = listener;
+        this.minRecognitionIntervalMs = 1000L / Math.max(1, recognitionsPerSecond);
+    }
+
+    /** Only text inside the region is read; it takes effect from the next frame. */
+    public void setRegion(RectF region) {
+        this.region = new RectF(region);
+    }
+
+    /**
+     * Keeps scanning after a number was found, e.g. to read a stack of cards one after the other.
+     * The same number is not reported twice in a row, so a card left in view is read once.
+     */
+    public void setContinuous(boolean continuous) {
+        this.continuous = continuous;
+    }
+
+    /** Opens the back camera and starts looking for a number. */
+    public void start() {
+        if (released) return;
+        final int startSession = ++session;
+        final ListenableFuture<ProcessCameraProvider> providerFuture = ProcessCameraProvider.getInstance(context);
+        providerFuture.addListener(() -> {
+            if (startSession != session) return;
+            try {
+                cameraProvider = providerFuture.get();
+                bind(startSession);
+            } catch (Exception e) {
+                listener.onScanFailed(e);
+            }
+        }, ContextCompat.getMainExecutor(context));
+    }
+
+    /** Closes the camera. A recognition still running is dropped. */
+    public void stop() {
+        session++;
+        if (cameraProvider != null && preview != null) {
+            cameraProvider.unbind(preview, imageAnalysis);
+        }
+        if (imageAnalysis != null) {
+            imageAnalysis.clearAnalyzer();
+        }
+        preview = null;
+        imageAnalysis = null;
+    }
+
+    /** Stops for good; the scanner cannot be started again. The OCR engine is left to its owner. */
+    public void release() {
+        stop();
+        released = true;
+        analysisExecutor.shutdown();
+    }
+
+    private void bind(int bindSession) {
+        preview = new Preview.Builder().build();
+        preview.setSurfaceProvider(previewView.getSurfaceProvider());
+        imageAnalysis = new ImageAnalysis.Builder()
+                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                // RGBA frames copy straight into a bitmap for cropping, with no YUV conversion.
+                .setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_RGBA_8888)
+                .setResolutionSelector(new ResolutionSelector.Builder()
+                        .setResolutionStrategy(new ResolutionStrategy(ANALYSIS_RESOLUTION,
+                                ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER_THEN_HIGHER))
+                        .build())
+                .build();
+        analysisExecutor.execute(() -> {
+            lastRecognitionAt = 0;
+            candidate = null;
+            candidateFrames = 0;
+            lastFound = null;
+        });
+        imageAnalysis.setAnalyzer(analysisExecutor, image -> analyze(image, bindSession));
+        cameraProvider.unbindAll();
+        ViewPort viewPort = previewView.getViewPort();
+        if (viewPort != null) {
+            UseCaseGroup group = new UseCaseGroup.Builder()
+                    .setViewPort(viewPort)
+                    .addUseCase(preview)
+                    .addUseCase(imageAnalysis)
+                    .build();
+            cameraProvider.bindToLifecycle(lifecycleOwner, CameraSelector.DEFAULT_BACK_CAMERA, group);
+        } else {
+            // Not laid out yet: frames are then whole, and the region is a little off at the edges.
+            cameraProvider.bindToLifecycle(lifecycleOwner, CameraSelector.DEFAULT_BACK_CAMERA, preview, imageAnalysis);
+        }
+    }
+
+    private void analyze(ImageProxy image, int frameSession) {
+        long now = SystemClock.elapsedRealtime();
+        if (frameSession != session || now - lastRecognitionAt < minRecognitionIntervalMs) {
+            image.close();
+            return;
+        }
+        lastRecognitionAt = now;
+        // The frame is closed only when recognition is done; until then the camera holds back new ones.
+        // That also keeps frameBitmap from being refilled while it is being read.
+        ocrEngine.process(toBitmap(image), image.getCropRect(), image.getImageInfo().getRotationDegrees(), region)
+                .addOnCompleteListener(analysisExecutor, task -> {
+                    image.close();
+                    if (frameSession != session || !task.isSuccessful()) return;
+                    onFrameRecognized(task.getResult().getText(), frameSession);
+                });
+    }
+
+    // Copies the frame into one reused bitmap instead of allocating a full-size one per frame.
+    private Bitmap toBitmap(ImageProxy image) {
+        ImageProxy.PlaneProxy plane = image.getPlanes()[0];
+        if (plane.getRowStride() != image.getWidth() * plane.getPixelStride()) {
+            // Padded rows cannot be copied in one go.
+            return image.toBitmap();
+        }
+        if (frameBitmap == null || frameBitmap.getWidth() != image.getWidth() || frameBitmap.getHeight() != image.getHeight()) {
+            frameBitmap = Bitmap.createBitmap(image.getWidth(), image.getHeight(), Bitmap.Config.ARGB_8888);
+        }
+        plane.getBuffer().rewind();
+        frameBitmap.copyPixelsFromBuffer(plane.getBuffer());
+        return frameBitmap;
+    }
+
+    private void onFrameRecognized(String text, int frameSession) {
+        String number = extractor.extract(text);
+        if (number == null) {
+            candidate = null;
+            candidateFrames = 0;
+            return;
+        }
+        if (number.equals(candidate)) {
+            candidateFrames++;
+        } else {
+            candidate = number;
+            candidateFrames = 1;
+        }
+        if (candidateFrames < STABLE_FRAMES || number.equals(lastFound)) return;
+        lastFound = number;
+        final String found = number;
+        mainHandler.post(() -> {
+            if (frameSession != session) return;
+            if (!continuous) stop();
+            listener.onNumberFound(found, text);
+        });
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.smartcommunicator.ui.contact;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.smartcommunicator.perf.PerfMonitor;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognition;
+import com.google.mlkit.vision.text.TextRecognizer;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The one text recognizer of a screen, shared by live scanning and still photos.
+ * Observe it from the owner's lifecycle: it is warmed up in the background when the owner starts,
+ * so the first scan does not pay for loading the model, and closed when the owner is destroyed.
+ *
+ * Every image is cut down before recognition: only the region the user framed is kept, and that is
+ * scaled so its longer edge is at most {@code targetLongEdge}. Recognition time and native memory
+ * grow with the pixel count, and a card's digits stay readable well below camera resolution.
+ */
+public class OcrEngine implements DefaultLifecycleObserver {
+
+    /** A region covering the whole image. */
+    public static final RectF FULL_FRAME = new RectF(0f, 0f, 1f, 1f);
+
+    private static final int WARM_UP_SIZE = 32;
+
+    private final int targetLongEdge;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    // Guarded by this.
+    private TextRecognizer recognizer;
+    private boolean closed = false;
+    private boolean warmedUp = false;
+
+    public OcrEngine(int targetLongEdge) {
+        this.targetLongEdge = targetLongEdge;
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        warmUp();
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        close();
+    }
+
+    /** Creates the recognizer and runs it once on a blank image, off the main thread. */
+    public void warmUp() {
+        if (warmedUp) return;
+        warmedUp = true;
+        worker.execute(() -> {
+            TextRecognizer warming = recognizer();
+            if (warming != null) {
+                warming.process(InputImage.fromBitmap(
+                        Bitmap.createBitmap(WARM_UP_SIZE, WARM_UP_SIZE, Bitmap.Config.ARGB_8888), 0));
+            }
+        });
+    }
+
+    /**
+     * Recognizes the text in a region of the image. Cropping and scaling run on the calling thread,
+     * so pass large images from a background thread.
+     *
+     * @param image         the pixels, as the camera delivered them (not yet rotated upright)
+     * @param visibleBounds the part of {@code image} the user saw, or null for all of it
+     * @param rotationDegrees the clockwise rotation that turns {@code image} upright
+     * @param region        the part to read, as fractions of the upright visible image
+     */
+    public Task<Text> process(Bitmap image, @Nullable Rect visibleBounds, int rotationDegrees, RectF region) {
+        TextRecognizer current = recognizer();
+        if (current == null) {
+            return Tasks.forException(new IllegalStateException("OCR engine is closed"));
+        }
+        // Timed from the crop to the recognized text, for stills and live frames alike.
+        long start = PerfMonitor.beginAsync(PerfMonitor.Stage.OCR);
+        Bitmap prepared = preprocess(image, visibleBounds, rotationDegrees, region, targetLongEdge);
+        return current.process(InputImage.fromBitmap(prepared, rotationDegrees))
+                .addOnCompleteListener(task -> PerfMonitor.endAsync(PerfMonitor.Stage.OCR, start));
+    }
+
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        // Behind the warm-up, so it never closes a recognizer that is being created.
+        worker.execute(() -> {
+            TextRecognizer closing;
+            synchronized (OcrEngine.this) {
+                closing = recognizer;
+                recognizer = null;
+            }
+            if (closing != null) closing.close();
+        });
+        worker.shutdown();
+    }
+
+    private synchronized TextRecognizer recognizer() {
+        if (recognizer == null && !closed) {
+            recognizer = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
+        }
+        return recognizer;
+    }
+
+    /** Crops to the region and scales down; returns {@code image} itself when neither is needed. */
+    static Bitmap preprocess(Bitmap image, @Nullable Rect visibleBounds, int rotationDegrees, RectF region, int targetLongEdge) {
+        Rect bounds = visibleBounds != null ? visibleBounds : new Rect(0, 0, image.getWidth(), image.getHeight());
+        RectF source = new RectF();
+        toSourceRegion(region, rotationDegrees, source);
+        int left = clamp(bounds.left + Math.round(source.left * bounds.width()), 0, image.getWidth() - 1);
+        int top = clamp(bounds.top + Math.round(source.top * bounds.height()), 0, image.getHeight() - 1);
+        int right = clamp(bounds.left + Math.round(source.right * bounds.width()), left + 1, image.getWidth());
+        int bottom = clamp(bounds.top + Math.round(source.bottom * bounds.height()), top + 1, image.getHeight());
+        int width = right - left;
+        int height = bottom - top;
+
+        float scale = Math.min(1f, targetLongEdge / (float) Math.max(width, height));
+        Matrix matrix = null;
+        if (scale < 1f) {
+            matrix = new Matrix();
+            matrix.setScale(scale, scale);
+        }
+        return Bitmap.createBitmap(image, left, top, width, height, matrix, true);
+    }
+
+    /**
+     * Maps a region of the upright image to the same region of the image before it was rotated,
+     * both as fractions of the image.
+     */
+    static void toSourceRegion(RectF upright, int rotationDegrees, RectF out) {
+        switch (((rotationDegrees % 360) + 360) % 360) {
+            case 90:
+                out.set(upright.top, 1f - upright.right, upright.bottom, 1f - upright.left);
+                break;
+            case 180:
+                out.set(1f - upright.right, 1f - upright.bottom, 1f - upright.left, 1f - upright.top);
+                break;
+            case 270:
+                out.set(1f - upright.bottom, upright.left, 1f - upright.top, upright.right);
+                break;
+            default:
+                out.set(upright);
+                break;
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.smartcommunicator.ui.contact;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+/**
+ * The frame drawn over the live preview. Only what is inside it is read, so the user can box the
+ * phone number and leave out the rest of the card. Dragging an edge or corner resizes it, dragging
+ * inside moves it. The region is kept as fractions of the view, which is how {@link OcrEngine} takes it.
+ */
+public class ScanRegionView extends View {
+
+    private static final int TOUCH_SLOP_DP = 24;
+    private static final int STROKE_DP = 2;
+    private static final float MIN_SIZE = 0.1f;
+
+    public interface Listener {
+        void onRegionChanged(RectF region);
+    }
+
+    private final Paint maskPaint = new Paint();
+    private final Paint framePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float touchSlop;
+    private final RectF region = new RectF(0.1f, 0.35f, 0.9f, 0.65f);
+    private final RectF frame = new RectF();
+    private Listener listener;
+
+    // Edges held by the current drag; all four when the whole frame is moved.
+    private boolean dragLeft, dragTop, dragRight, dragBottom;
+    private float lastX, lastY;
+
+    public ScanRegionView(Context context) {
+        this(context, null);
+    }
+
+    public ScanRegionView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        touchSlop = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, TOUCH_SLOP_DP, context.getResources().getDisplayMetrics());
+        maskPaint.setColor(0x99000000);
+        framePaint.setColor(Color.WHITE);
+        framePaint.setStyle(Paint.Style.STROKE);
+        framePaint.setStrokeWidth(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, STROKE_DP, context.getResources().getDisplayMetrics()));
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setRegion(RectF newRegion) {
+        region.set(newRegion);
+        invalidate();
+    }
+
+    /** A copy of the region, as fractions of the view. */
+    public RectF getRegion() {
+        return new RectF(region);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        float width = getWidth();
+        float height = getHeight();
+        frame.set(region.left * width, region.top * height, region.right * width, region.bottom * height);
+        canvas.drawRect(0, 0, width, frame.top, maskPaint);
+        canvas.drawRect(0, frame.bottom, width, height, maskPaint);
+        canvas.drawRect(0, frame.top, frame.left, frame.bottom, maskPaint);
+        canvas.drawRect(frame.right, frame.top, width, frame.bottom, maskPaint);
+        canvas.drawRect(frame, framePaint);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (getWidth() == 0 || getHeight() == 0) return false;
+        float x = event.getX();
+        float y = event.getY();
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                float width = getWidth();
+                float height = getHeight();
+                frame.set(region.left * width, region.top * height, region.right * width, region.bottom * height);
+                boolean nearX = x > frame.left - touchSlop && x < frame.right + touchSlop;
+                boolean nearY = y > frame.top - touchSlop && y < frame.bottom + touchSlop;
+                dragLeft = nearY && Math.abs(x - frame.left) < touchSlop;
+                dragRight = nearY && !dragLeft && Math.abs(x - frame.right) < touchSlop;
+                dragTop = nearX && Math.abs(y - frame.top) < touchSlop;
+                dragBottom = nearX && !dragTop && Math.abs(y - frame.bottom) < touchSlop;
+                if (!dragLeft && !dragRight && !dragTop && !dragBottom) {
+                    if (!frame.contains(x, y)) return false;
+                    dragLeft = dragTop = dragRight = dragBottom = true;
+                }
+                lastX = x;
+                lastY = y;
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                drag((x - lastX) / getWidth(), (y - lastY) / getHeight());
+                lastX = x;
+                lastY = y;
+                return true;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (listener != null) listener.onRegionChanged(getRegion());
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private void drag(float dx, float dy) {
+        boolean moving = dragLeft && dragTop && dragRight && dragBottom;
+        if (moving) {
+            dx = Math.max(-region.left, Math.min(1f - region.right, dx));
+            dy = Math.max(-region.top, Math.min(1f - region.bottom, dy));
+            region.offset(dx, dy);
+        } else {
+            if (dragLeft) region.left = Math.max(0f, Math.min(region.right - MIN_SIZE, region.left + dx));
+            if (dragRight) region.right = Math.min(1f, Math.max(region.left + MIN_SIZE, region.right + dx));
+            if (dragTop) region.top = Math.max(0f, Math.min(region.bottom - MIN_SIZE, region.top + dy));
+            if (dragBottom) region.bottom = Math.min(1f, Math.max(region.top + MIN_SIZE, region.bottom + dy));
+        }
+        invalidate();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.smartcommunicator.ui.list;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.LruCache;
+import android.util.TypedValue;
+
+import com.example.smartcommunicator.model.ContactStore;
+
+/**
+ * Draws the round, coloured initial shown in front of every contact row.
+ * The colour is derived from the lookupKey, so a contact keeps its colour across scrolls
+ * and launches. Avatars only differ by colour and letter, so a small LRU cache of
+ * pre-rendered bitmaps covers the whole list and binding a row is a cache lookup.
+ */
+public class AvatarRenderer {
+
+    private static final int AVATAR_SIZE_DP = 40;
+    private static final int TEXT_SIZE_SP = 20;
+
+    private final int[] avatarColors;
+    private final int sizePx;
+    private final Paint circlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final LruCache<Integer, Bitmap> cache;
+
+    public AvatarRenderer(Context context, int[] avatarColors) {
+        this.avatarColors = avatarColors;
+        this.sizePx = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, AVATAR_SIZE_DP,
+                context.getResources().getDisplayMetrics()));
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE_SP,
+                context.getResources().getDisplayMetrics()));
+        // Sized in bytes; a few hundred avatars at most, well below this on any screen density.
+        int maxBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / 32, 8 * 1024 * 1024);
+        cache = new LruCache<Integer, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Integer key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * A key that is equal for every row sharing the same avatar, so rows can skip identical rebinds.
+     * Read from the store's columns, so no String is created for it.
+     */
+    public int avatarKey(ContactStore store, int row) {
+        // Code points fit in 21 bits; the colour index goes above them.
+        return (colorIndex(store, row) << 21) | initial(store, row);
+    }
+
+    public Bitmap getAvatar(ContactStore store, int row) {
+        int key = avatarKey(store, row);
+        Bitmap avatar = cache.get(key);
+        if (avatar == null) {
+            avatar = render(avatarColors[colorIndex(store, row)], new String(Character.toChars(initial(store, row))));
+            cache.put(key, avatar);
+        }
+        return avatar;
+    }
+
+    private int colorIndex(ContactStore store, int row) {
+        return Math.floorMod(store.lookupKeyHash(row), avatarColors.length);
+    }
+
+    private static int initial(ContactStore store, int row) {
+        int codePoint = store.firstNameCodePoint(row);
+        return codePoint < 0 ? '?' : Character.toUpperCase(codePoint);
+    }
+
+    private Bitmap render(int color, String initial) {
+        Bitmap bitmap = Bitmap.createBitmap(sizePx, sizePx, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        float radius = sizePx / 2f;
+        circlePaint.setColor(color);
+        canvas.drawCircle(radius, radius, radius, circlePaint);
+        // Centre the glyph vertically on the baseline.
+        float baseline = radius - (textPaint.descent() + textPaint.ascent()) / 2f;
+        canvas.drawText(initial, radius, baseline, textPaint);
+        return bitmap;
+    }
+}
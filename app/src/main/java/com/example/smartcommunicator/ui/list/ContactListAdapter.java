@@ -3,49 +3,184 @@ package com.example.smartcommunicator.ui.list;
 // REMOVED: Unnecessary imports are gone (Manifest, Context, PackageManager)
 import android.content.Intent;
 import android.graphics.Color;
-import android.graphics.drawable.GradientDrawable;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageButton;
+import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.smartcommunicator.R;
+import com.example.smartcommunicator.data.ContactPageSource;
 import com.example.smartcommunicator.model.Contact;
+import com.example.smartcommunicator.model.ContactSlice;
+import com.example.smartcommunicator.model.ContactStore;
+import com.example.smartcommunicator.perf.PerfMonitor;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
+// Rows are bound straight from the columnar ContactStore through a ContactSlice, so no Contact
+// is created per row. Every submitted slice is diffed against the current one on a background
+// thread, and only the rows that actually changed are notified.
+// In paging mode the rows come from a ContactPageCache instead, and rows whose page is still
+// loading are bound as empty placeholders.
 public class ContactListAdapter extends RecyclerView.Adapter<ContactListAdapter.ContactViewHolder> {
 
-    private final List<Contact> contactList;
-    private final int[] avatarColors;
-    private final Random random = new Random();
+    // One diff at a time for every list, like ListAdapter's default background executor.
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
 
-    private boolean isMultiSelectMode = false;
-    private final List<Contact> selectedItems = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private ContactSlice currentSlice = ContactSlice.EMPTY;
+    // Non-null in paging mode.
+    private ContactPageCache pageCache;
+    // Bumped on every submit; a diff only applies if no newer slice came in meanwhile.
+    private int submitGeneration = 0;
+
+    private final AvatarRenderer avatarRenderer;
+
+    // Rebinds only the selection background, not the whole row.
+    private static final Object PAYLOAD_SELECTION = new Object();
+
+    private final ContactSelectionTracker selectionTracker;
     private final MultiSelectListener multiSelectListener;
+    private final DragSelectTouchListener dragSelectTouchListener;
 
     // --- UPDATED INTERFACE: Added a new method for call requests ---
     public interface MultiSelectListener {
         void onMultiSelectStateChanged(boolean isEnabled);
         void onItemSelectionChanged(int selectedCount);
         void onCallRequested(Contact contact); // NEW METHOD
+        void onMessageStarted(String lookupKey);
     }
 
-    public ContactListAdapter(List<Contact> contactList, int[] avatarColors, MultiSelectListener listener) {
-        this.contactList = contactList;
-        this.avatarColors = avatarColors;
+    public ContactListAdapter(AvatarRenderer avatarRenderer, ContactSelectionTracker selectionTracker, MultiSelectListener listener) {
+        this.avatarRenderer = avatarRenderer;
+        this.selectionTracker = selectionTracker;
         this.multiSelectListener = listener;
+        this.dragSelectTouchListener = new DragSelectTouchListener(new DragSelectTouchListener.RangeListener() {
+            @Override
+            public void onRangeMoved(int position) {
+                int[] changed = selectionTracker.extendRange(shownKeys, position);
+                if (changed != null) {
+                    notifyItemRangeChanged(changed[0], changed[1] - changed[0] + 1, PAYLOAD_SELECTION);
+                    notifyPinnedCopiesChanged();
+                    multiSelectListener.onItemSelectionChanged(selectionTracker.getSelectedCount());
+                }
+            }
+
+            @Override
+            public void onRangeFinished() {
+                selectionTracker.endRange();
+            }
+        });
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        recyclerView.addOnItemTouchListener(dragSelectTouchListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        recyclerView.removeOnItemTouchListener(dragSelectTouchListener);
+        super.onDetachedFromRecyclerView(recyclerView);
+    }
+
+    public void submitSlice(ContactSlice slice) {
+        submitSlice(slice, null);
+    }
+
+    /**
+     * Shows a new slice. Rows are the same when their lookupKey matches; they are rebound only
+     * if what we show changed. A slice submitted while this one is still being diffed wins.
+     *
+     * @param commitCallback run once the slice is shown, e.g. to swap state that goes with its positions
+     */
+    public void submitSlice(ContactSlice slice, Runnable commitCallback) {
+        final int generation = ++submitGeneration;
+        final ContactSlice previous = currentSlice;
+        if (pageCache != null) {
+            // Leaving paging mode; the rows have nothing in common with the pages.
+            pageCache = null;
+            currentSlice = slice;
+            notifyDataSetChanged();
+            if (commitCallback != null) commitCallback.run();
+            return;
+        }
+        if (slice == previous || previous.isEmpty() || slice.isEmpty()) {
+            // Nothing to compare against; skip the background round trip.
+            currentSlice = slice;
+            if (slice != previous) {
+                if (!previous.isEmpty()) notifyItemRangeRemoved(0, previous.size());
+                if (!slice.isEmpty()) notifyItemRangeInserted(0, slice.size());
+            }
+            if (commitCallback != null) commitCallback.run();
+            return;
+        }
+        DIFF_EXECUTOR.execute(() -> {
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(new SliceDiffCallback(previous, slice));
+            mainHandler.post(() -> {
+                if (generation != submitGeneration) return;
+                currentSlice = slice;
+                result.dispatchUpdatesTo(ContactListAdapter.this);
+                if (commitCallback != null) commitCallback.run();
+            });
+        });
+    }
+
+    /** Shows the pages of a windowed query instead of a slice. Call again after the cache was reset. */
+    public void showPages(ContactPageCache cache) {
+        submitGeneration++;
+        pageCache = cache;
+        currentSlice = ContactSlice.EMPTY;
+        notifyDataSetChanged();
     }
 
+    public boolean isPaging() {
+        return pageCache != null;
+    }
+
+    @Override
+    public int getItemCount() {
+        return pageCache != null ? pageCache.getCount() : currentSlice.size();
+    }
+
+    // The store holding the row at the position, or null while its page is loading.
+    private ContactStore storeAt(int position) {
+        return pageCache != null ? pageCache.storeFor(position) : currentSlice.getStore();
+    }
+
+    private int rowAt(int position) {
+        return pageCache != null ? pageCache.rowFor(position) : currentSlice.rowAt(position);
+    }
+
+    private final ContactSelectionTracker.KeySource shownKeys = new ContactSelectionTracker.KeySource() {
+        @Override
+        public int size() {
+            return getItemCount();
+        }
+
+        @Override
+        public String keyAt(int position) {
+            ContactStore store = storeAt(position);
+            return store != null ? store.getLookupKey(rowAt(position)) : null;
+        }
+    };
+
     @NonNull
     @Override
     public ContactViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -55,45 +190,133 @@ public class ContactListAdapter extends RecyclerView.Adapter<ContactListAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ContactViewHolder holder, int position) {
-        Contact contact = contactList.get(position);
-        holder.bind(contact);
+        long start = PerfMonitor.begin(PerfMonitor.Stage.BIND_ROW);
+        try {
+            holder.bind(position);
+        } finally {
+            PerfMonitor.end(PerfMonitor.Stage.BIND_ROW, start);
+        }
     }
 
     @Override
-    public int getItemCount() {
-        return contactList != null ? contactList.size() : 0;
+    public void onBindViewHolder(@NonNull ContactViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && allSelectionPayloads(payloads)) {
+            holder.bindSelection(position);
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    // The pinned rows are listed again below; a range that covered one copy also changed the other.
+    private void notifyPinnedCopiesChanged() {
+        if (pageCache != null) return;
+        for (int position = 0; position < currentSlice.getPinnedCount(); position++) {
+            for (int shown : currentSlice.positionsOf(currentSlice.rowAt(position))) {
+                notifyItemChanged(shown, PAYLOAD_SELECTION);
+            }
+        }
+    }
+
+    private static boolean allSelectionPayloads(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_SELECTION) return false;
+        }
+        return true;
     }
 
-    // (Methods like startMultiSelectMode, stopMultiSelectMode, etc. are unchanged)
     public void startMultiSelectMode() {
-        if (!isMultiSelectMode) {
-            isMultiSelectMode = true;
+        if (!selectionTracker.isActive()) {
+            selectionTracker.setActive(true);
             multiSelectListener.onMultiSelectStateChanged(true);
         }
     }
 
     public void stopMultiSelectMode() {
-        isMultiSelectMode = false;
-        selectedItems.clear();
+        boolean hadSelection = selectionTracker.getSelectedCount() > 0;
+        selectionTracker.setActive(false);
         multiSelectListener.onMultiSelectStateChanged(false);
-        notifyDataSetChanged();
+        if (hadSelection) {
+            notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        }
     }
 
     public boolean isMultiSelectMode() {
-        return isMultiSelectMode;
+        return selectionTracker.isActive();
+    }
+
+    /**
+     * Selects every row currently shown, i.e. the whole filtered list, not just the visible part.
+     * In paging mode the keys are read from the open query first.
+     */
+    public void selectAll(ContactPageSource pageSource) {
+        if (pageCache != null) {
+            pageSource.loadLookupKeys(this::selectKeys);
+            return;
+        }
+        List<String> keys = new ArrayList<>(currentSlice.size());
+        for (int position = 0; position < currentSlice.size(); position++) {
+            keys.add(currentSlice.getLookupKey(position));
+        }
+        selectKeys(keys);
+    }
+
+    private void selectKeys(List<String> keys) {
+        if (!selectionTracker.isActive()) return;
+        selectionTracker.selectAll(keys);
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        multiSelectListener.onItemSelectionChanged(selectionTracker.getSelectedCount());
     }
 
-    public List<Contact> getSelectedItems() {
-        return selectedItems;
+    public Set<String> getSelectedKeys() {
+        return selectionTracker.getSelectedKeys();
     }
 
 
+    // Compares rows of two slices column by column, without creating a Contact for either.
+    private static final class SliceDiffCallback extends DiffUtil.Callback {
+        private final ContactSlice oldSlice;
+        private final ContactSlice newSlice;
+
+        SliceDiffCallback(ContactSlice oldSlice, ContactSlice newSlice) {
+            this.oldSlice = oldSlice;
+            this.newSlice = newSlice;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldSlice.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newSlice.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            // A pinned row is listed again below; the two copies are different items.
+            boolean oldPinned = oldPosition < oldSlice.getPinnedCount();
+            boolean newPinned = newPosition < newSlice.getPinnedCount();
+            return oldPinned == newPinned && oldSlice.getStore().hasSameLookupKey(oldSlice.rowAt(oldPosition), newSlice.getStore(), newSlice.rowAt(newPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return oldSlice.getStore().hasSameContent(oldSlice.rowAt(oldPosition), newSlice.getStore(), newSlice.rowAt(newPosition));
+        }
+    }
+
     public class ContactViewHolder extends RecyclerView.ViewHolder {
-        TextView contactInitial;
+        ImageView contactInitial;
         TextView contactName;
         ImageButton callButton;
         ImageButton messageButton;
         View itemView;
+        // The avatar currently shown, so rebinding the same look is skipped. Real keys are never negative.
+        int boundAvatarKey = -1;
+        // The name is copied in here and shown from it. The TextView keeps pointing at this array,
+        // which is fine: it is only overwritten by the next bind, which sets the text again.
+        char[] nameBuffer = new char[32];
 
         public ContactViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -102,70 +325,109 @@ public class ContactListAdapter extends RecyclerView.Adapter<ContactListAdapter.
             contactName = itemView.findViewById(R.id.contact_name);
             callButton = itemView.findViewById(R.id.button_call);
             messageButton = itemView.findViewById(R.id.button_message);
-        }
-
-        public void bind(Contact contact) {
-            contactName.setText(contact.getName());
-
-            if (contact.getName() != null && !contact.getName().isEmpty()) {
-                contactInitial.setText(String.valueOf(contact.getName().charAt(0)).toUpperCase());
-            } else {
-                contactInitial.setText("?");
-            }
-
-            int randomColor = avatarColors[random.nextInt(avatarColors.length)];
-            GradientDrawable background = (GradientDrawable) contactInitial.getBackground();
-            background.setColor(randomColor);
 
+            // Set once here and resolved to a row on click, so binding allocates no listeners.
             itemView.setOnClickListener(v -> {
-                if (isMultiSelectMode) {
-                    toggleSelection(contact);
+                int position = getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) return;
+                ContactStore store = storeAt(position);
+                if (store == null) return;
+                if (selectionTracker.isActive()) {
+                    toggleSelection(position);
                 } else {
-                    Toast.makeText(v.getContext(), "Clicked on " + contact.getName(), Toast.LENGTH_SHORT).show();
+                    String name = store.getName(rowAt(position));
+                    Toast.makeText(v.getContext(), "Clicked on " + name, Toast.LENGTH_SHORT).show();
                 }
             });
 
             itemView.setOnLongClickListener(v -> {
-                if (!isMultiSelectMode) {
+                int position = getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION || storeAt(position) == null) return false;
+                if (!selectionTracker.isActive()) {
                     startMultiSelectMode();
-                    toggleSelection(contact);
+                    toggleSelection(position);
                 }
+                // Keeping the finger down and dragging selects every row passed over.
+                selectionTracker.beginRange(position);
+                dragSelectTouchListener.startDrag();
                 return true;
             });
 
-            if (selectedItems.contains(contact)) {
-                itemView.setBackgroundColor(ContextCompat.getColor(itemView.getContext(), R.color.selected_item_background));
-            } else {
-                itemView.setBackgroundColor(Color.TRANSPARENT);
-            }
-
             // --- SIMPLIFIED CALL BUTTON LOGIC ---
             callButton.setOnClickListener(v -> {
                 // The adapter's only job is to tell the fragment that the button was clicked.
                 // It passes the specific contact to the listener.
-                multiSelectListener.onCallRequested(contact);
+                int position = getAdapterPosition();
+                ContactStore store = position != RecyclerView.NO_POSITION ? storeAt(position) : null;
+                if (store != null) {
+                    multiSelectListener.onCallRequested(store.toContact(rowAt(position)));
+                }
             });
 
             // --- Message Button Logic (Unchanged) ---
             messageButton.setOnClickListener(v -> {
-                String phoneNumber = contact.getNumber();
+                int position = getAdapterPosition();
+                ContactStore store = position != RecyclerView.NO_POSITION ? storeAt(position) : null;
+                if (store == null) return;
+                String phoneNumber = store.getPrimaryNumber(rowAt(position));
                 if (phoneNumber != null && !phoneNumber.trim().isEmpty()) {
                     Intent smsIntent = new Intent(Intent.ACTION_VIEW, Uri.parse("sms:" + phoneNumber));
                     v.getContext().startActivity(smsIntent);
+                    multiSelectListener.onMessageStarted(store.getLookupKey(rowAt(position)));
                 } else {
                     Toast.makeText(v.getContext(), "No phone number available", Toast.LENGTH_SHORT).show();
                 }
             });
         }
 
-        private void toggleSelection(Contact contact) {
-            if (selectedItems.contains(contact)) {
-                selectedItems.remove(contact);
+        public void bind(int position) {
+            ContactStore store = storeAt(position);
+            if (store == null) {
+                // Its page is on the way; the row is rebound once it arrives.
+                contactName.setText(null);
+                contactInitial.setImageDrawable(null);
+                boundAvatarKey = -1;
+                itemView.setBackgroundColor(Color.TRANSPARENT);
+                return;
+            }
+            int row = rowAt(position);
+
+            int length = store.nameLength(row);
+            if (nameBuffer.length < length) nameBuffer = new char[length * 2];
+            store.copyName(row, nameBuffer);
+            contactName.setText(nameBuffer, 0, length);
+
+            int avatarKey = avatarRenderer.avatarKey(store, row);
+            if (avatarKey != boundAvatarKey) {
+                contactInitial.setImageBitmap(avatarRenderer.getAvatar(store, row));
+                boundAvatarKey = avatarKey;
+            }
+
+            bindSelection(position);
+        }
+
+        void bindSelection(int position) {
+            ContactStore store = storeAt(position);
+            if (store != null && selectionTracker.isSelected(store, rowAt(position))) {
+                itemView.setBackgroundColor(ContextCompat.getColor(itemView.getContext(), R.color.selected_item_background));
             } else {
-                selectedItems.add(contact);
+                itemView.setBackgroundColor(Color.TRANSPARENT);
+            }
+        }
+
+        private void toggleSelection(int position) {
+            ContactStore store = storeAt(position);
+            if (store == null) return;
+            selectionTracker.toggle(store, rowAt(position));
+            multiSelectListener.onItemSelectionChanged(selectionTracker.getSelectedCount());
+            if (pageCache != null) {
+                notifyItemChanged(position, PAYLOAD_SELECTION);
+                return;
+            }
+            // A pinned contact is shown twice; both copies change.
+            for (int shown : currentSlice.positionsOf(rowAt(position))) {
+                notifyItemChanged(shown, PAYLOAD_SELECTION);
             }
-            multiSelectListener.onItemSelectionChanged(selectedItems.size());
-            notifyItemChanged(getAdapterPosition());
         }
     }
 }
@@ -3,16 +3,15 @@ package com.example.smartcommunicator.ui.list;
 import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.database.Cursor;
 import android.net.Uri;
 import android.os.Bundle;
-import android.provider.ContactsContract;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -27,34 +26,117 @@ import androidx.appcompat.widget.SearchView;
 import androidx.appcompat.widget.Toolbar;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.fragment.NavHostFragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.smartcommunicator.R;
+import com.example.smartcommunicator.data.ContactBatchDeleter;
+import com.example.smartcommunicator.data.ContactLoader;
+import com.example.smartcommunicator.data.ContactPageSource;
+import com.example.smartcommunicator.data.ContactSnapshotStore;
+import com.example.smartcommunicator.data.ContactSyncManager;
+import com.example.smartcommunicator.data.ContactSyncState;
+import com.example.smartcommunicator.data.ContactUsageStore;
+import com.example.smartcommunicator.data.VCardTransfer;
 import com.example.smartcommunicator.model.Contact;
+import com.example.smartcommunicator.model.ContactSectionIndex;
+import com.example.smartcommunicator.model.ContactSlice;
+import com.example.smartcommunicator.model.ContactStore;
+import com.example.smartcommunicator.perf.PerfMonitor;
+import com.example.smartcommunicator.search.ContactSearchPipeline;
+import com.example.smartcommunicator.usage.UsageRanker;
+import com.example.smartcommunicator.usage.UsageScores;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 public class ContactListFragment extends Fragment implements ContactListAdapter.MultiSelectListener {
 
     private RecyclerView recyclerView;
     private ContactListAdapter adapter;
-    private final List<Contact> displayedContactList = new ArrayList<>();
-    private final List<Contact> fullContactList = new ArrayList<>();
+    // --- Columnar list: every contact lives in one immutable store; what is shown is a slice of its rows ---
+    // Each change replaces the store, and the adapter diffs the new slice against the old one.
+    private ContactStore contactStore = ContactStore.EMPTY;
+    private ContactSlice displayedContacts = ContactSlice.EMPTY;
+    // Collects the chunks of a running provider load; each chunk extends it without copying earlier rows.
+    private ContactStore.Builder loadingStore;
     private ActivityResultLauncher<String[]> requestContactPermissionsLauncher;
     private TextView textViewNotFound;
     private ActionMode actionMode;
+    private ContactSelectionTracker selectionTracker;
 
     private ActivityResultLauncher<String> requestCallPermissionLauncher;
     private Contact pendingCallContact;
 
+    // --- Background loading: the cursor is walked off the main thread and streamed in chunks ---
+    private ContactLoader contactLoader;
+    private String currentQuery = "";
+
+    // --- Incremental sync: after the first load only changed rows are re-read ---
+    private ContactSyncManager contactSyncManager;
+
+    // --- Snapshot: the last known list is shown straight from disk on a cold start ---
+    private ContactSnapshotStore snapshotStore;
+    private int snapshotRequest = 0;
+
+    // --- Deletion: batched provider transactions on a worker ---
+    private ContactBatchDeleter contactDeleter;
+    private boolean isDeleting = false;
+
+    // --- Search: debounced and run on a worker, which also owns the search index ---
+    private ContactSearchPipeline searchPipeline;
+
+    // --- Paging: very large address books are shown through a windowed query instead of being loaded ---
+    private ContactPageSource pageSource;
+    private ContactPageCache pageCache;
+    private boolean pagingMode = false;
+
+    // --- Sections: every row's letter is worked out once per store; a filtered slice only regroups them ---
+    private byte[] rowSectionKeys;
+    private ContactStore sectionKeysStore;
+    private SectionHeaderDecoration sectionHeaders;
+    private FastScrollRail fastScrollRail;
+
+    // --- vCard: import and export stream through the file a card at a time on a worker ---
+    private VCardTransfer vCardTransfer;
+    private ActivityResultLauncher<String[]> importVCardLauncher;
+    private ActivityResultLauncher<String> exportVCardLauncher;
+    private AlertDialog transferDialog;
+    private ProgressBar transferProgress;
+
+    // --- Usage: calls and messages rank contacts; the scores arrive from disk after the list is up ---
+    private ContactUsageStore usageStore;
+    private UsageScores usageScores;
+    // Set by a call or message; the list re-ranks when it is shown again rather than under the user.
+    private boolean usageChanged = false;
+
+    // --- Instrumentation: when this view was created, until its first contacts are drawn; 0 once recorded ---
+    private long listOpenedNanos;
+
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setHasOptionsMenu(true);
+        selectionTracker = new ViewModelProvider(this).get(ContactListViewModel.class).getSelectionTracker();
+        contactLoader = new ContactLoader(requireContext().getApplicationContext().getContentResolver());
+        contactSyncManager = new ContactSyncManager(requireContext().getApplicationContext().getContentResolver());
+        snapshotStore = ContactSnapshotStore.getInstance(requireContext());
+        contactDeleter = new ContactBatchDeleter(requireContext().getApplicationContext().getContentResolver());
+        searchPipeline = new ContactSearchPipeline((query, results) -> {
+            // A result for what the user has typed since is of no use any more.
+            if (query.equals(currentQuery)) showResults(results);
+        });
+        pageSource = new ContactPageSource(requireContext().getApplicationContext().getContentResolver());
+        pageCache = new ContactPageCache(pageSource, (start, count) -> {
+            if (adapter != null && adapter.isPaging()) adapter.notifyItemRangeChanged(start, count);
+        });
+        vCardTransfer = new VCardTransfer(requireContext().getApplicationContext().getContentResolver());
+        usageStore = ContactUsageStore.getInstance(requireContext());
+        usageStore.load(this::onUsageLoaded);
 
         requestContactPermissionsLauncher = registerForActivityResult(
                 new ActivityResultContracts.RequestMultiplePermissions(),
@@ -83,6 +165,18 @@ public class ContactListFragment extends Fragment implements ContactListAdapter.
                     }
                     pendingCallContact = null;
                 });
+
+        importVCardLauncher = registerForActivityResult(
+                new ActivityResultContracts.OpenDocument(),
+                uri -> {
+                    if (uri != null) importVCard(uri);
+                });
+
+        exportVCardLauncher = registerForActivityResult(
+                new ActivityResultContracts.CreateDocument("text/x-vcard"),
+                uri -> {
+                    if (uri != null) exportVCard(uri);
+                });
     }
 
     @Override
@@ -90,6 +184,26 @@ public class ContactListFragment extends Fragment implements ContactListAdapter.
         initiatePhoneCall(contact);
     }
 
+    @Override
+    public void onMessageStarted(String lookupKey) {
+        recordUse(lookupKey);
+    }
+
+    private void recordUse(String lookupKey) {
+        usageStore.recordUse(lookupKey);
+        usageChanged = true;
+    }
+
+    private void onUsageLoaded(UsageScores scores) {
+        // The store outlives this fragment and may answer after it is gone.
+        if (getContext() == null) return;
+        usageScores = scores;
+        searchPipeline.setUsage(scores);
+        if (!pagingMode && contactStore.size() > 0 && adapter != null) {
+            filterList(currentQuery);
+        }
+    }
+
     private void initiatePhoneCall(Contact contact) {
         if (getContext() == null || contact == null || contact.getNumber() == null || contact.getNumber().trim().isEmpty()) {
             Toast.makeText(getContext(), "No phone number available.", Toast.LENGTH_SHORT).show();
@@ -101,6 +215,7 @@ public class ContactListFragment extends Fragment implements ContactListAdapter.
             callIntent.setData(Uri.parse("tel:" + contact.getNumber()));
             try {
                 startActivity(callIntent);
+                recordUse(contact.getLookupKey());
             } catch (SecurityException e) {
                 Toast.makeText(getContext(), "Error placing call.", Toast.LENGTH_SHORT).show();
             }
@@ -140,6 +255,19 @@ public class ContactListFragment extends Fragment implements ContactListAdapter.
         } else if (itemId == R.id.action_delete) {
             adapter.startMultiSelectMode();
             return true;
+        } else if (itemId == R.id.action_recent_calls) {
+            NavHostFragment.findNavController(this).navigate(R.id.navigation_recent_calls);
+            return true;
+        } else if (itemId == R.id.action_import_vcard) {
+            if (hasContactPermission(Manifest.permission.WRITE_CONTACTS, "Permission to write contacts is required to import.")) {
+                importVCardLauncher.launch(new String[]{"text/x-vcard", "text/vcard", "text/directory"});
+            }
+            return true;
+        } else if (itemId == R.id.action_export_vcard) {
+            if (hasContactPermission(Manifest.permission.READ_CONTACTS, "Permission to read contacts is required to export.")) {
+                exportVCardLauncher.launch("contacts.vcf");
+            }
+            return true;
         } else if (itemId == R.id.action_feedback) {
             sendFeedbackEmail();
             return true;
@@ -157,67 +285,318 @@ public class ContactListFragment extends Fragment implements ContactListAdapter.
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        listOpenedNanos = PerfMonitor.beginAsync(PerfMonitor.Stage.LIST_FIRST_FRAME);
         View root = inflater.inflate(R.layout.fragment_contact_list, container, false);
         Toolbar toolbar = root.findViewById(R.id.toolbar_contact_list);
         recyclerView = root.findViewById(R.id.recycler_view_contacts);
         textViewNotFound = root.findViewById(R.id.text_view_not_found);
+        fastScrollRail = root.findViewById(R.id.fast_scroll_rail);
         if (getActivity() instanceof AppCompatActivity) {
             ((AppCompatActivity) getActivity()).setSupportActionBar(toolbar);
         }
         setupRecyclerView();
         checkPermissionAndLoadContacts();
+        if (selectionTracker.isActive()) {
+            // Back from a rotation with a selection in progress.
+            onMultiSelectStateChanged(true);
+            onItemSelectionChanged(selectionTracker.getSelectedCount());
+        }
         return root;
     }
 
-    private void deleteSelectedContacts() {
-        List<Contact> selected = adapter.getSelectedItems();
-        if (selected.isEmpty() || getContext() == null) { return; }
+    @Override
+    public void onResume() {
+        super.onResume();
+        if (usageChanged) {
+            usageChanged = false;
+            // Hands back a fresh copy, which re-ranks the list.
+            usageStore.load(this::onUsageLoaded);
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        // The view is gone, so any chunks still in flight have nowhere to go.
+        contactLoader.cancel();
+        contactSyncManager.stop();
+        searchPipeline.cancel();
+        pageSource.close();
+        snapshotRequest++;
+        dismissTransferDialog();
+        super.onDestroyView();
+    }
+
+    @Override
+    public void onDestroy() {
+        contactLoader.shutdown();
+        contactSyncManager.shutdown();
+        searchPipeline.shutdown();
+        pageSource.shutdown();
+        contactDeleter.release();
+        vCardTransfer.release();
+        super.onDestroy();
+    }
+
+    private boolean hasContactPermission(String permission, String deniedMessage) {
+        if (getContext() == null) return false;
+        if (ContextCompat.checkSelfPermission(requireContext(), permission) == PackageManager.PERMISSION_GRANTED) return true;
+        Toast.makeText(getContext(), deniedMessage, Toast.LENGTH_LONG).show();
+        return false;
+    }
+
+    private void importVCard(Uri source) {
+        showTransferDialog("Importing contacts…");
+        vCardTransfer.importFrom(source, new TransferCallback("Imported", "Import failed."));
+        // New contacts reach the list through the provider observers, like any other change.
+    }
+
+    private void exportVCard(Uri target) {
+        showTransferDialog("Exporting contacts…");
+        vCardTransfer.exportTo(target, new TransferCallback("Exported", "Export failed."));
+    }
+
+    private void showTransferDialog(String title) {
+        if (getContext() == null) return;
+        transferProgress = new ProgressBar(requireContext(), null, android.R.attr.progressBarStyleHorizontal);
+        transferProgress.setIndeterminate(true);
+        int padding = (int) (24 * getResources().getDisplayMetrics().density);
+        transferProgress.setPadding(padding, padding / 2, padding, 0);
+        transferDialog = new AlertDialog.Builder(requireContext())
+                .setTitle(title)
+                // Set up front: a dialog shown without a message has no room for one later.
+                .setMessage("0 contacts")
+                .setView(transferProgress)
+                .setCancelable(false)
+                .setNegativeButton(android.R.string.cancel, (dialog, which) -> {
+                    vCardTransfer.cancel();
+                    dismissTransferDialog();
+                })
+                .show();
+    }
+
+    private void dismissTransferDialog() {
+        if (transferDialog != null) {
+            transferDialog.dismiss();
+            transferDialog = null;
+            transferProgress = null;
+        }
+    }
+
+    private class TransferCallback implements VCardTransfer.Callback {
+        private final String verb;
+        private final String failureMessage;
+
+        TransferCallback(String verb, String failureMessage) {
+            this.verb = verb;
+            this.failureMessage = failureMessage;
+        }
+
+        @Override
+        public void onProgress(int contactCount, int percent) {
+            if (transferDialog == null) return;
+            transferDialog.setMessage(contactCount + " contacts");
+            if (percent >= 0) {
+                transferProgress.setIndeterminate(false);
+                transferProgress.setProgress(percent);
+            }
+        }
+
+        @Override
+        public void onTransferFinished(int contactCount, int failedCount) {
+            dismissTransferDialog();
+            String message = verb + " " + contactCount + " contacts.";
+            if (failedCount > 0) {
+                message += " " + failedCount + " could not be saved.";
+            }
+            Toast.makeText(getContext(), message, Toast.LENGTH_SHORT).show();
+        }
+
+        @Override
+        public void onTransferFailed(Exception e) {
+            dismissTransferDialog();
+            Toast.makeText(getContext(), failureMessage, Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void deleteSelectedContacts(ActionMode mode) {
+        Set<String> selected = adapter.getSelectedKeys();
+        if (selected.isEmpty() || getContext() == null) {
+            mode.finish();
+            return;
+        }
         if (ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.WRITE_CONTACTS) != PackageManager.PERMISSION_GRANTED) {
             Toast.makeText(getContext(), "Permission to write contacts is required to delete.", Toast.LENGTH_LONG).show();
+            mode.finish();
             return;
         }
-        int deletedCount = 0;
-        for (Contact contact : selected) {
-            if (contact.getLookupKey() == null) continue;
-            Uri contactUri = Uri.withAppendedPath(ContactsContract.Contacts.CONTENT_LOOKUP_URI, contact.getLookupKey());
-            try {
-                int rowsDeleted = requireContext().getContentResolver().delete(contactUri, null, null);
-                if (rowsDeleted > 0) {
-                    deletedCount++;
+        // The action mode stays open and shows the progress until the worker is done.
+        isDeleting = true;
+        mode.setTitle("Deleting…");
+        contactDeleter.delete(new ArrayList<>(selected), new ContactBatchDeleter.Callback() {
+            @Override
+            public void onProgress(int processed, int total) {
+                if (actionMode != null) {
+                    actionMode.setTitle("Deleting " + processed + "/" + total + "…");
                 }
-            } catch (SecurityException e) {
-                Toast.makeText(getContext(), "Could not delete contact: " + contact.getName(), Toast.LENGTH_SHORT).show();
-                e.printStackTrace();
             }
-        }
-        fullContactList.removeAll(selected);
-        filterList("");
-        Toast.makeText(getContext(), deletedCount + " contacts permanently deleted.", Toast.LENGTH_SHORT).show();
+
+            @Override
+            public void onDeleteFinished(Set<String> deletedLookupKeys, int failedCount) {
+                isDeleting = false;
+                if (pagingMode) {
+                    // The open query still counts the deleted rows.
+                    pageSource.open(currentQuery, pageCallback);
+                } else {
+                    // One pass over the store that copies every row it keeps.
+                    contactStore = contactStore.withChanges(deletedLookupKeys, Collections.emptyList());
+                    onContactListChanged(true);
+                    filterList(currentQuery);
+                }
+                if (actionMode != null) {
+                    actionMode.finish();
+                }
+                String message = deletedLookupKeys.size() + " contacts permanently deleted.";
+                if (failedCount > 0) {
+                    message += " " + failedCount + " could not be deleted.";
+                }
+                Toast.makeText(getContext(), message, Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void loadContacts() {
         if (getContext() == null) return;
-        fullContactList.clear();
-        String[] projection = { ContactsContract.CommonDataKinds.Phone.LOOKUP_KEY, ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME, ContactsContract.CommonDataKinds.Phone.NUMBER };
-        try (Cursor cursor = requireContext().getContentResolver().query(ContactsContract.CommonDataKinds.Phone.CONTENT_URI, projection, null, null, ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME + " ASC")) {
-            if (cursor != null) {
-                int lookupKeyIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.LOOKUP_KEY);
-                int nameIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME);
-                int numberIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.NUMBER);
-                while (cursor.moveToNext()) {
-                    String lookupKey = cursor.getString(lookupKeyIndex);
-                    String name = cursor.getString(nameIndex);
-                    String number = cursor.getString(numberIndex);
-                    if (lookupKey != null && name != null && number != null) {
-                        fullContactList.add(new Contact(lookupKey, name, number));
-                    }
+        contactSyncManager.stop();
+        contactLoader.cancel();
+        pageSource.close();
+        pagingMode = false;
+        loadingStore = null;
+        contactStore = ContactStore.EMPTY;
+        onContactListChanged(false);
+        filterList(currentQuery);
+        final int request = ++snapshotRequest;
+        snapshotStore.load(snapshot -> {
+            if (request != snapshotRequest) return;
+            if (snapshot == null) {
+                // Counting is cheap; it decides whether the list is loaded or paged.
+                pageSource.open("", pageCallback);
+                return;
+            }
+            // Show the stored list right away; the sync then reads only what changed since it was written.
+            contactStore = snapshot.contacts;
+            onContactListChanged(true);
+            filterList(currentQuery);
+            contactSyncManager.start(snapshot.syncState, this::applyContactDelta);
+        });
+    }
+
+    private final ContactPageSource.Callback pageCallback = new ContactPageSource.Callback() {
+        @Override
+        public void onOpened(int count, ContactSectionIndex sections) {
+            if (!pagingMode) {
+                if (count <= ContactPageSource.PAGING_THRESHOLD) {
+                    pageSource.close();
+                    loadContactsFromProvider();
+                    return;
+                }
+                pagingMode = true;
+                if (!currentQuery.isEmpty()) {
+                    // That was the unfiltered count; open what the user is searching for.
+                    pageSource.open(currentQuery, this);
+                    return;
                 }
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            pageCache.reset(count);
+            if (textViewNotFound != null) {
+                textViewNotFound.setVisibility(!currentQuery.isEmpty() && count == 0 ? View.VISIBLE : View.GONE);
+            }
+            if (adapter != null) {
+                adapter.showPages(pageCache);
+                applySections(sections);
+                if (count > 0) recordFirstListFrame();
+            }
+        }
+
+        @Override
+        public void onPageLoaded(int page, ContactStore rows) {
+            pageCache.onPageLoaded(page, rows);
+        }
+
+        @Override
+        public void onContentChanged() {
+            pageSource.open(currentQuery, this);
+        }
+
+        @Override
+        public void onFailed(Exception e) {
+            pageCache.onLoadFailed();
             Toast.makeText(getContext(), "Failed to load contacts.", Toast.LENGTH_SHORT).show();
         }
-        filterList("");
+    };
+
+    private void loadContactsFromProvider() {
+        loadingStore = new ContactStore.Builder();
+        contactLoader.load(new ContactLoader.Callback() {
+            @Override
+            public void onChunkLoaded(List<Contact> chunk) {
+                appendContacts(chunk);
+            }
+
+            @Override
+            public void onLoadFinished(int totalCount, ContactSyncState syncState) {
+                loadingStore = null;
+                onContactListChanged(true);
+                // Only now do we know for sure whether the search matched nothing.
+                filterList(currentQuery);
+                snapshotStore.save(contactStore, syncState.copy());
+                contactSyncManager.start(syncState, ContactListFragment.this::applyContactDelta);
+            }
+
+            @Override
+            public void onLoadFailed(Exception e) {
+                Toast.makeText(getContext(), "Failed to load contacts.", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Adds a freshly loaded chunk. Without a search query the rows are simply appended,
+    // so the diff only reports an insertion at the end and earlier rows are not rebound.
+    // The chunk's Contacts are only passed through; the store keeps their columns.
+    private void appendContacts(List<Contact> chunk) {
+        for (Contact contact : chunk) {
+            loadingStore.add(contact);
+        }
+        contactStore = loadingStore.build();
+        onContactListChanged(false);
+        if (currentQuery.isEmpty()) {
+            showResults(ContactSlice.all(contactStore));
+        } else {
+            filterList(currentQuery);
+        }
+    }
+
+    // Patches the loaded list with what the provider changed, instead of reloading everything.
+    private void applyContactDelta(Set<String> staleLookupKeys, List<Contact> updatedContacts, ContactSyncState syncState) {
+        // Stale rows are dropped and the updated ones merged in by name in one pass.
+        ContactStore synced = contactStore.withChanges(staleLookupKeys, updatedContacts);
+        if (synced.size() > ContactPageSource.PAGING_THRESHOLD) {
+            // The address book outgrew the in-memory list, e.g. since the snapshot was written.
+            // Without the snapshot the reload counts the provider first, which switches to paging.
+            snapshotStore.clear();
+            loadContacts();
+            return;
+        }
+        contactStore = synced;
+        onContactListChanged(true);
+        filterList(currentQuery);
+        snapshotStore.save(contactStore, syncState);
+    }
+
+    // Hands the search worker the store; being immutable it needs no copy. Only a settled list is
+    // worth indexing; while chunks are still streaming in, searches scan the store instead.
+    private void onContactListChanged(boolean settled) {
+        updateSectionKeys();
+        searchPipeline.setContacts(contactStore, settled);
     }
 
     @Override
@@ -236,7 +615,13 @@ public class ContactListFragment extends Fragment implements ContactListAdapter.
                     }
                     @Override
                     public boolean onQueryTextChange(String newText) {
-                        filterList(newText);
+                        // A paged query is reopened on the provider; an open overtaken by the next keystroke is skipped.
+                        if (newText == null || newText.isEmpty() || pagingMode) {
+                            filterList(newText);
+                        } else {
+                            currentQuery = newText;
+                            searchPipeline.search(newText);
+                        }
                         return true;
                     }
                 });
@@ -274,14 +659,16 @@ public class ContactListFragment extends Fragment implements ContactListAdapter.
         public boolean onPrepareActionMode(ActionMode mode, Menu menu) { return false; }
         @Override
         public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+            if (item.getItemId() == R.id.action_select_all) {
+                if (!isDeleting) adapter.selectAll(pageSource);
+                return true;
+            }
             if (item.getItemId() == R.id.action_delete_items) {
+                if (isDeleting) return true;
                 new AlertDialog.Builder(requireContext())
                         .setTitle("Delete Contacts")
                         .setMessage("Are you sure you want to permanently delete the selected contacts? This action cannot be undone.")
-                        .setPositiveButton("Delete", (dialog, which) -> {
-                            deleteSelectedContacts();
-                            mode.finish();
-                        })
+                        .setPositiveButton("Delete", (dialog, which) -> deleteSelectedContacts(mode))
                         .setNegativeButton(android.R.string.no, null)
                         .setIcon(android.R.drawable.ic_dialog_alert)
                         .show();
@@ -291,15 +678,34 @@ public class ContactListFragment extends Fragment implements ContactListAdapter.
         }
         @Override
         public void onDestroyActionMode(ActionMode mode) {
-            adapter.stopMultiSelectMode();
             actionMode = null;
+            // A rotation tears the action mode down too, but the selection should survive it.
+            if (getActivity() != null && getActivity().isChangingConfigurations()) return;
+            adapter.stopMultiSelectMode();
         }
     };
 
     private void setupRecyclerView() {
-        adapter = new ContactListAdapter(displayedContactList, requireContext().getResources().getIntArray(R.array.avatar_colors), this);
-        recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        AvatarRenderer avatarRenderer = new AvatarRenderer(requireContext(), requireContext().getResources().getIntArray(R.array.avatar_colors));
+        adapter = new ContactListAdapter(avatarRenderer, selectionTracker, this);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        recyclerView.setLayoutManager(layoutManager);
         recyclerView.setAdapter(adapter);
+        sectionHeaders = new SectionHeaderDecoration(requireContext(), ContextCompat.getColor(requireContext(), R.color.purple_500));
+        recyclerView.addItemDecoration(sectionHeaders);
+        fastScrollRail.setColors(ContextCompat.getColor(requireContext(), R.color.teal_700),
+                ContextCompat.getColor(requireContext(), R.color.purple_500));
+        // One jump to the letter's first row instead of flinging there.
+        fastScrollRail.setListener(position -> layoutManager.scrollToPositionWithOffset(position, 0));
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                if (pagingMode) {
+                    pageCache.onVisibleRange(layoutManager.findFirstVisibleItemPosition(), layoutManager.findLastVisibleItemPosition());
+                }
+            }
+        });
+        adapter.submitSlice(displayedContacts);
     }
 
     private void sendFeedbackEmail() {
@@ -323,27 +729,66 @@ public class ContactListFragment extends Fragment implements ContactListAdapter.
         startActivity(Intent.createChooser(shareIntent, "Share using"));
     }
 
+    // Shows every contact right away for an empty query; anything else goes through the search worker.
+    // In paging mode the windowed query is reopened with the filter instead.
     private void filterList(String query) {
-        displayedContactList.clear();
-        if (query == null || query.isEmpty()) {
-            displayedContactList.addAll(fullContactList);
-            if (textViewNotFound != null) {
-                textViewNotFound.setVisibility(View.GONE);
-            }
+        currentQuery = query != null ? query : "";
+        if (pagingMode) {
+            pageSource.open(currentQuery, pageCallback);
+        } else if (currentQuery.isEmpty()) {
+            searchPipeline.cancel();
+            showResults(usageScores != null
+                    ? UsageRanker.withFrequent(contactStore, usageScores, System.currentTimeMillis())
+                    : ContactSlice.all(contactStore));
         } else {
-            String lowerCaseQuery = query.toLowerCase();
-            for (Contact contact : fullContactList) {
-                if ((contact.getName() != null && contact.getName().toLowerCase().contains(lowerCaseQuery)) ||
-                        (contact.getNumber() != null && contact.getNumber().replaceAll("\\s", "").contains(lowerCaseQuery))) {
-                    displayedContactList.add(contact);
-                }
-            }
-            if (textViewNotFound != null) {
-                textViewNotFound.setVisibility(displayedContactList.isEmpty() ? View.VISIBLE : View.GONE);
-            }
+            searchPipeline.searchNow(currentQuery);
+        }
+    }
+
+    private void showResults(ContactSlice results) {
+        displayedContacts = results;
+        final ContactSectionIndex sections = ContactSectionIndex.of(results, sectionKeysFor(results.getStore()));
+        if (textViewNotFound != null) {
+            textViewNotFound.setVisibility(!currentQuery.isEmpty() && results.isEmpty() ? View.VISIBLE : View.GONE);
         }
         if (adapter != null) {
-            adapter.notifyDataSetChanged();
+            // Diffed in the background; a newer slice submitted meanwhile wins over this one.
+            // The headers and the rail switch over together with the rows they describe.
+            adapter.submitSlice(displayedContacts, () -> {
+                applySections(sections);
+                if (!results.isEmpty()) recordFirstListFrame();
+            });
         }
     }
+
+    private void recordFirstListFrame() {
+        if (recyclerView == null) return;
+        PerfMonitor.endLaunchOnNextFrame(recyclerView);
+        if (listOpenedNanos == 0) return;
+        PerfMonitor.endAsyncOnNextFrame(PerfMonitor.Stage.LIST_FIRST_FRAME, listOpenedNanos, recyclerView);
+        listOpenedNanos = 0;
+    }
+
+    // A store that only grew by a chunk keeps the keys of its earlier rows.
+    private void updateSectionKeys() {
+        if (contactStore == sectionKeysStore) return;
+        boolean grew = contactStore.isExtensionOf(sectionKeysStore);
+        rowSectionKeys = ContactSectionIndex.rowKeys(contactStore, grew ? rowSectionKeys : null, grew ? sectionKeysStore.size() : 0);
+        sectionKeysStore = contactStore;
+    }
+
+    // Search results can still refer to the store before the latest change.
+    private byte[] sectionKeysFor(ContactStore store) {
+        return store == sectionKeysStore ? rowSectionKeys : ContactSectionIndex.rowKeys(store, null, 0);
+    }
+
+    private void applySections(ContactSectionIndex sections) {
+        if (sectionHeaders == null || recyclerView == null) return;
+        sectionHeaders.setSections(sections);
+        recyclerView.invalidateItemDecorations();
+        fastScrollRail.setSections(sections);
+        // Keep the rail from covering the row buttons.
+        int railWidth = fastScrollRail.getVisibility() == View.VISIBLE ? fastScrollRail.getLayoutParams().width : 0;
+        recyclerView.setPaddingRelative(recyclerView.getPaddingStart(), recyclerView.getPaddingTop(), railWidth, recyclerView.getPaddingBottom());
+    }
 }
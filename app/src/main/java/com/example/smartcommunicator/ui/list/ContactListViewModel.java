@@ -0,0 +1,13 @@
+package com.example.smartcommunicator.ui.list;
+
+import androidx.lifecycle.ViewModel;
+
+// Holds the list screen state that has to outlive a configuration change.
+public class ContactListViewModel extends ViewModel {
+
+    private final ContactSelectionTracker selectionTracker = new ContactSelectionTracker();
+
+    public ContactSelectionTracker getSelectionTracker() {
+        return selectionTracker;
+    }
+}
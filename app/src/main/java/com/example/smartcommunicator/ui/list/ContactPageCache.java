@@ -0,0 +1,103 @@
+package com.example.smartcommunicator.ui.list;
+
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+
+import com.example.smartcommunicator.data.ContactPageSource;
+import com.example.smartcommunicator.model.ContactStore;
+
+/**
+ * The pages of a {@link ContactPageSource} that are currently in memory. Pages around the
+ * visible range are loaded ahead of the scroll; pages far away from it are dropped again,
+ * so only a handful of pages are ever held, whatever the size of the address book.
+ * Main thread only.
+ */
+public class ContactPageCache {
+
+    private static final int PAGE_SIZE = ContactPageSource.PAGE_SIZE;
+    // Pages next to the visible ones are loaded before they scroll into view.
+    private static final int PREFETCH_PAGES = 1;
+    // Pages further than this from the visible ones are evicted.
+    private static final int KEEP_PAGES = 3;
+
+    public interface Listener {
+        /** Rows [start, start + count) can now be bound. */
+        void onRowsLoaded(int start, int count);
+    }
+
+    private final ContactPageSource source;
+    private final Listener listener;
+    private final SparseArray<ContactStore> pages = new SparseArray<>();
+    private final SparseBooleanArray requested = new SparseBooleanArray();
+    private int count = 0;
+
+    public ContactPageCache(ContactPageSource source, Listener listener) {
+        this.source = source;
+        this.listener = listener;
+    }
+
+    /** Forgets every page, e.g. after the source was reopened with a new count. */
+    public void reset(int newCount) {
+        pages.clear();
+        requested.clear();
+        count = newCount;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /** The page holding the position, or null while it is still loading (the load is requested). */
+    public ContactStore storeFor(int position) {
+        int page = position / PAGE_SIZE;
+        ContactStore store = pages.get(page);
+        if (store == null) {
+            request(page);
+            return null;
+        }
+        // The provider can shrink between the count and reading the last page.
+        return rowFor(position) < store.size() ? store : null;
+    }
+
+    public int rowFor(int position) {
+        return position % PAGE_SIZE;
+    }
+
+    /** Loads the pages around what is on screen and evicts the ones far from it. */
+    public void onVisibleRange(int firstPosition, int lastPosition) {
+        if (firstPosition < 0 || count == 0) return;
+        int firstPage = firstPosition / PAGE_SIZE;
+        int lastPage = Math.max(firstPosition, lastPosition) / PAGE_SIZE;
+        int lastPageOfList = (count - 1) / PAGE_SIZE;
+        for (int page = Math.max(0, firstPage - PREFETCH_PAGES); page <= Math.min(lastPageOfList, lastPage + PREFETCH_PAGES); page++) {
+            if (pages.get(page) == null) request(page);
+        }
+        for (int i = pages.size() - 1; i >= 0; i--) {
+            int page = pages.keyAt(i);
+            if (page < firstPage - KEEP_PAGES || page > lastPage + KEEP_PAGES) {
+                pages.removeAt(i);
+            }
+        }
+    }
+
+    /** Called with what the source read. */
+    public void onPageLoaded(int page, ContactStore rows) {
+        requested.delete(page);
+        pages.put(page, rows);
+        int start = page * PAGE_SIZE;
+        if (start < count) {
+            listener.onRowsLoaded(start, Math.min(PAGE_SIZE, count - start));
+        }
+    }
+
+    /** Lets the pages that failed be requested again by the next bind or scroll. */
+    public void onLoadFailed() {
+        requested.clear();
+    }
+
+    private void request(int page) {
+        if (requested.get(page)) return;
+        requested.put(page, true);
+        source.loadPage(page);
+    }
+}
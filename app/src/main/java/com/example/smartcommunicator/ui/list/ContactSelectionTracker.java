@@ -0,0 +1,119 @@
+package com.example.smartcommunicator.ui.list;
+
+import com.example.smartcommunicator.model.ContactStore;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The multi-select state of the contact list, keyed by lookupKey so every check is a hash lookup
+ * and the selection stays valid while the list is filtered, re-sorted or reloaded.
+ * Lives in {@link ContactListViewModel}, so a rotation keeps the selection.
+ */
+public class ContactSelectionTracker {
+
+    /** The rows as shown, for drag selection. */
+    public interface KeySource {
+        int size();
+        /** The lookupKey shown at the position, or null where the row is not loaded yet. */
+        String keyAt(int position);
+    }
+
+    private final Set<String> selectedKeys = new HashSet<>();
+    private boolean active = false;
+
+    // --- Drag selection: the rows between the anchor and the finger ---
+    private int rangeAnchor = -1;
+    private int rangeEnd = -1;
+    // Keys the current drag selected, so shrinking the range can undo just those.
+    private final Set<String> selectedByDrag = new HashSet<>();
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+        if (!active) {
+            selectedKeys.clear();
+            endRange();
+        }
+    }
+
+    /** Whether the store row is selected. Creates no key String while nothing is selected. */
+    public boolean isSelected(ContactStore store, int row) {
+        return !selectedKeys.isEmpty() && selectedKeys.contains(store.getLookupKey(row));
+    }
+
+    /** @return whether the row is selected afterwards */
+    public boolean toggle(ContactStore store, int row) {
+        String key = store.getLookupKey(row);
+        if (selectedKeys.remove(key)) {
+            return false;
+        }
+        selectedKeys.add(key);
+        return true;
+    }
+
+    /** Selects every given key, usually all rows of the filtered list. */
+    public void selectAll(Collection<String> lookupKeys) {
+        selectedKeys.addAll(lookupKeys);
+    }
+
+    public int getSelectedCount() {
+        return selectedKeys.size();
+    }
+
+    /** The selected lookupKeys. A live view: copy it before handing it to another thread. */
+    public Set<String> getSelectedKeys() {
+        return selectedKeys;
+    }
+
+    public void beginRange(int anchorPosition) {
+        rangeAnchor = anchorPosition;
+        rangeEnd = anchorPosition;
+        selectedByDrag.clear();
+    }
+
+    public boolean isInRange() {
+        return rangeAnchor >= 0;
+    }
+
+    /**
+     * Moves the end of the drag range and selects every row between it and the anchor.
+     * Rows the drag selected earlier but that are now outside the range are unselected again.
+     *
+     * @return the first and last position whose state may have changed, or null if nothing moved
+     */
+    public int[] extendRange(KeySource rows, int endPosition) {
+        if (rangeAnchor < 0 || endPosition == rangeEnd || endPosition < 0 || endPosition >= rows.size()) {
+            return null;
+        }
+        int oldLow = Math.min(rangeAnchor, rangeEnd);
+        int oldHigh = Math.max(rangeAnchor, rangeEnd);
+        int newLow = Math.min(rangeAnchor, endPosition);
+        int newHigh = Math.max(rangeAnchor, endPosition);
+        // Only the rows between the old and the new end need to be looked at.
+        int changedLow = Math.min(oldLow, newLow);
+        int changedHigh = Math.max(oldHigh, newHigh);
+        for (int position = changedLow; position <= changedHigh && position < rows.size(); position++) {
+            String key = rows.keyAt(position);
+            if (key == null) continue;
+            boolean inRange = position >= newLow && position <= newHigh;
+            if (inRange) {
+                if (selectedKeys.add(key)) selectedByDrag.add(key);
+            } else if (selectedByDrag.remove(key)) {
+                selectedKeys.remove(key);
+            }
+        }
+        rangeEnd = endPosition;
+        return new int[]{ changedLow, changedHigh };
+    }
+
+    public void endRange() {
+        rangeAnchor = -1;
+        rangeEnd = -1;
+        selectedByDrag.clear();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.smartcommunicator.ui.list;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Lets the user keep the finger down after the long press that starts multi-select and drag
+ * over more rows to select them all. Once a drag is started the RecyclerView stops scrolling
+ * and every move is turned into a range update until the finger is lifted.
+ */
+public class DragSelectTouchListener implements RecyclerView.OnItemTouchListener {
+
+    public interface RangeListener {
+        void onRangeMoved(int position);
+        void onRangeFinished();
+    }
+
+    private final RangeListener rangeListener;
+    private boolean dragging = false;
+
+    public DragSelectTouchListener(RangeListener rangeListener) {
+        this.rangeListener = rangeListener;
+    }
+
+    /** Called from the long press that started the selection. */
+    public void startDrag() {
+        dragging = true;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(@NonNull RecyclerView recyclerView, @NonNull MotionEvent event) {
+        if (!dragging) return false;
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            // Lifted before moving: a plain long press.
+            finishDrag();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void onTouchEvent(@NonNull RecyclerView recyclerView, @NonNull MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE:
+                View child = recyclerView.findChildViewUnder(event.getX(), event.getY());
+                if (child != null) {
+                    int position = recyclerView.getChildAdapterPosition(child);
+                    if (position != RecyclerView.NO_POSITION) {
+                        rangeListener.onRangeMoved(position);
+                    }
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                finishDrag();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) { }
+
+    private void finishDrag() {
+        if (dragging) {
+            dragging = false;
+            rangeListener.onRangeFinished();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.smartcommunicator.ui.list;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+import com.example.smartcommunicator.model.ContactSectionIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The A to Z rail at the edge of the contact list. Touching or dragging along it jumps straight
+ * to the section under the finger, so reaching "S" in a long list is one gesture, not many flings.
+ * Only letters that have contacts are shown; a letter that occurs in several runs jumps to the first.
+ */
+public class FastScrollRail extends View {
+
+    private static final int MAX_TEXT_SIZE_SP = 12;
+
+    public interface Listener {
+        void onSectionSelected(int position);
+    }
+
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float maxTextSize;
+    private int textColor = Color.GRAY;
+    private int highlightColor = Color.BLACK;
+    private Listener listener;
+    private String[] labels = new String[0];
+    private int[] positions = new int[0];
+    private int touchedIndex = -1;
+
+    public FastScrollRail(Context context) {
+        this(context, null);
+    }
+
+    public FastScrollRail(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        maxTextSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, MAX_TEXT_SIZE_SP,
+                context.getResources().getDisplayMetrics());
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setColors(int textColor, int highlightColor) {
+        this.textColor = textColor;
+        this.highlightColor = highlightColor;
+        invalidate();
+    }
+
+    public void setSections(ContactSectionIndex sections) {
+        List<String> distinctLabels = new ArrayList<>();
+        List<Integer> firstPositions = new ArrayList<>();
+        for (int i = 0; i < sections.getSectionCount(); i++) {
+            if (!distinctLabels.contains(sections.getLabel(i))) {
+                distinctLabels.add(sections.getLabel(i));
+                firstPositions.add(sections.getStart(i));
+            }
+        }
+        labels = distinctLabels.toArray(new String[0]);
+        positions = new int[firstPositions.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = firstPositions.get(i);
+        }
+        touchedIndex = -1;
+        // A single section has nowhere to jump to.
+        setVisibility(labels.length > 1 ? VISIBLE : GONE);
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (labels.length == 0) return;
+        float slot = slotHeight();
+        textPaint.setTextSize(Math.min(maxTextSize, slot * 0.8f));
+        float centerX = getWidth() / 2f;
+        float glyphOffset = -(textPaint.descent() + textPaint.ascent()) / 2f;
+        for (int i = 0; i < labels.length; i++) {
+            textPaint.setColor(i == touchedIndex ? highlightColor : textColor);
+            float centerY = getPaddingTop() + slot * i + slot / 2f;
+            canvas.drawText(labels[i], centerX, centerY + glyphOffset, textPaint);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (labels.length == 0) return false;
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_MOVE:
+                // Keep the list from treating the drag as its own scroll.
+                if (getParent() != null) getParent().requestDisallowInterceptTouchEvent(true);
+                int index = (int) ((event.getY() - getPaddingTop()) / slotHeight());
+                index = Math.max(0, Math.min(labels.length - 1, index));
+                if (index != touchedIndex) {
+                    touchedIndex = index;
+                    invalidate();
+                    if (listener != null) listener.onSectionSelected(positions[index]);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                touchedIndex = -1;
+                invalidate();
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private float slotHeight() {
+        return (getHeight() - getPaddingTop() - getPaddingBottom()) / (float) labels.length;
+    }
+}
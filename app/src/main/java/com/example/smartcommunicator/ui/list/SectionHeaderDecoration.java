@@ -0,0 +1,70 @@
+package com.example.smartcommunicator.ui.list;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.smartcommunicator.model.ContactSectionIndex;
+
+/**
+ * Draws a letter header above the first row of every section. The header is space the decoration
+ * adds on top of that row, so rows keep a single view type and are recycled as before.
+ */
+public class SectionHeaderDecoration extends RecyclerView.ItemDecoration {
+
+    private static final int HEADER_HEIGHT_DP = 28;
+    private static final int TEXT_SIZE_SP = 14;
+    private static final int INSET_DP = 16;
+
+    private final int headerHeight;
+    private final int inset;
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private ContactSectionIndex sections = ContactSectionIndex.EMPTY;
+
+    public SectionHeaderDecoration(Context context, int textColor) {
+        headerHeight = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, HEADER_HEIGHT_DP,
+                context.getResources().getDisplayMetrics()));
+        inset = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, INSET_DP,
+                context.getResources().getDisplayMetrics()));
+        textPaint.setColor(textColor);
+        textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE_SP,
+                context.getResources().getDisplayMetrics()));
+    }
+
+    /** Takes effect once the RecyclerView lays out again, e.g. via invalidateItemDecorations(). */
+    public void setSections(ContactSectionIndex sections) {
+        this.sections = sections;
+    }
+
+    @Override
+    public void getItemOffsets(@NonNull Rect outRect, @NonNull View view, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        int position = parent.getChildAdapterPosition(view);
+        if (position != RecyclerView.NO_POSITION && sections.isSectionStart(position)) {
+            outRect.top = headerHeight;
+        } else {
+            outRect.top = 0;
+        }
+    }
+
+    @Override
+    public void onDraw(@NonNull Canvas canvas, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        // Centre the glyphs vertically in the header.
+        float baselineOffset = (headerHeight - textPaint.descent() - textPaint.ascent()) / 2f;
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            int position = parent.getChildAdapterPosition(child);
+            if (position == RecyclerView.NO_POSITION || !sections.isSectionStart(position)) continue;
+            String label = sections.getLabel(sections.getSectionForPosition(position));
+            float top = child.getTop() + child.getTranslationY() - headerHeight;
+            canvas.drawText(label, parent.getPaddingLeft() + inset, top + baselineOffset, textPaint);
+        }
+    }
+}
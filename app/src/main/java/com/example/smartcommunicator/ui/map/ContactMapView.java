@@ -0,0 +1,337 @@
+package com.example.smartcommunicator.ui.map;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+import android.widget.OverScroller;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.smartcommunicator.geo.MapCluster;
+import com.example.smartcommunicator.geo.MapClusterer;
+import com.example.smartcommunicator.geo.PointQuadtree;
+import com.example.smartcommunicator.perf.PerfMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pannable, zoomable map of pins. The background comes from a {@link TileSource}; the pins are
+ * the clusters a {@link MapClusterer} returns for the tiles on screen, so a frame draws a few
+ * dozen pins however many points there are, and a pan only clusters the tiles scrolling in.
+ *
+ * Positions are kept in world coordinates (see {@link com.example.smartcommunicator.geo.WebMercator})
+ * and the zoom is fractional; pins are clustered at the whole zoom level below it.
+ */
+public class ContactMapView extends View {
+
+    private static final double MIN_ZOOM = 1;
+    private static final double MAX_ZOOM = 20;
+    // How far a tap on a cluster zooms in.
+    private static final int CLUSTER_TAP_ZOOM = 2;
+    private static final int PIN_RADIUS_DP = 7;
+    private static final int CLUSTER_RADIUS_DP = 16;
+    private static final int TOUCH_SLOP_DP = 24;
+
+    public interface Listener {
+        /** A single pin was tapped. @param point its id in the quadtree */
+        void onPointTapped(int point);
+    }
+
+    private final float density;
+    private final float tileSizePx;
+    private final Paint tilePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint emptyTilePaint = new Paint();
+    private final Paint pinPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint pinOutlinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint countPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Rect tileDestination = new Rect();
+    // Reused every frame.
+    private final List<MapCluster> visibleClusters = new ArrayList<>();
+
+    private final GestureDetector gestureDetector;
+    private final ScaleGestureDetector scaleDetector;
+    private final OverScroller scroller;
+    private int lastFlingX;
+    private int lastFlingY;
+
+    private TileSource tileSource;
+    private MapClusterer clusterer;
+    private Listener listener;
+    private double centerX = 0.5;
+    private double centerY = 0.5;
+    private double zoom = 2;
+    // The world the last frame showed; doubles, since a float cannot tell pixels apart past zoom 16.
+    private double visibleLeft;
+    private double visibleTop;
+    private double visibleRight;
+    private double visibleBottom;
+
+    public ContactMapView(Context context) {
+        this(context, null);
+    }
+
+    public ContactMapView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        density = context.getResources().getDisplayMetrics().density;
+        // Tiles are drawn at 256dp, so labels on them stay readable on dense screens.
+        tileSizePx = MapClusterer.TILE_SIZE * density;
+        emptyTilePaint.setColor(Color.LTGRAY);
+        pinPaint.setColor(Color.rgb(0x19, 0x76, 0xD2));
+        pinOutlinePaint.setColor(Color.WHITE);
+        pinOutlinePaint.setStyle(Paint.Style.STROKE);
+        pinOutlinePaint.setStrokeWidth(2 * density);
+        countPaint.setColor(Color.WHITE);
+        countPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        countPaint.setTextAlign(Paint.Align.CENTER);
+        countPaint.setTextSize(12 * density);
+        scroller = new OverScroller(context);
+        gestureDetector = new GestureDetector(context, gestureListener);
+        scaleDetector = new ScaleGestureDetector(context, scaleListener);
+    }
+
+    public void setTileSource(TileSource tileSource) {
+        this.tileSource = tileSource;
+        invalidate();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Shows the points of the tree as pins; null for none. */
+    public void setPoints(@Nullable PointQuadtree tree) {
+        clusterer = tree != null ? new MapClusterer(tree) : null;
+        invalidate();
+    }
+
+    /** Centers the map on a world position at the given zoom. */
+    public void moveTo(double x, double y, double newZoom) {
+        scroller.forceFinished(true);
+        zoom = clampZoom(newZoom);
+        centerX = clamp(x);
+        centerY = clamp(y);
+        invalidate();
+    }
+
+    public double getCenterX() {
+        return centerX;
+    }
+
+    public double getCenterY() {
+        return centerY;
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        long start = PerfMonitor.begin(PerfMonitor.Stage.MAP_DRAW);
+        try {
+            double worldPx = worldSizePx();
+            visibleLeft = centerX - getWidth() / 2.0 / worldPx;
+            visibleTop = centerY - getHeight() / 2.0 / worldPx;
+            visibleRight = centerX + getWidth() / 2.0 / worldPx;
+            visibleBottom = centerY + getHeight() / 2.0 / worldPx;
+            drawTiles(canvas, worldPx);
+            drawPins(canvas, worldPx);
+        } finally {
+            PerfMonitor.end(PerfMonitor.Stage.MAP_DRAW, start);
+        }
+    }
+
+    private void drawTiles(Canvas canvas, double worldPx) {
+        if (tileSource == null) return;
+        int tileZoom = (int) Math.min(Math.floor(zoom), tileSource.getMaxZoom());
+        int tiles = 1 << tileZoom;
+        double tilePx = worldPx / tiles;
+        double left = getWidth() / 2.0 - centerX * worldPx;
+        double top = getHeight() / 2.0 - centerY * worldPx;
+        int fromX = Math.max(0, (int) Math.floor(-left / tilePx));
+        int toX = Math.min(tiles - 1, (int) Math.floor((getWidth() - left) / tilePx));
+        int fromY = Math.max(0, (int) Math.floor(-top / tilePx));
+        int toY = Math.min(tiles - 1, (int) Math.floor((getHeight() - top) / tilePx));
+        for (int y = fromY; y <= toY; y++) {
+            for (int x = fromX; x <= toX; x++) {
+                // Rounding both edges keeps neighbouring tiles from leaving hairline gaps.
+                tileDestination.set((int) Math.round(left + x * tilePx), (int) Math.round(top + y * tilePx),
+                        (int) Math.round(left + (x + 1) * tilePx), (int) Math.round(top + (y + 1) * tilePx));
+                Bitmap tile = tileSource.getTile(tileZoom, x, y);
+                if (tile != null) {
+                    canvas.drawBitmap(tile, null, tileDestination, tilePaint);
+                } else {
+                    canvas.drawRect(tileDestination, emptyTilePaint);
+                }
+            }
+        }
+    }
+
+    private void drawPins(Canvas canvas, double worldPx) {
+        visibleClusters.clear();
+        if (clusterer == null) return;
+        // A pin's circle may reach into the view from a tile just outside it.
+        double margin = CLUSTER_RADIUS_DP * density / worldPx;
+        clusterer.clustersIn(clusterZoom(), visibleLeft - margin, visibleTop - margin,
+                visibleRight + margin, visibleBottom + margin, visibleClusters);
+        float countBaseline = -(countPaint.ascent() + countPaint.descent()) / 2;
+        for (MapCluster cluster : visibleClusters) {
+            float x = screenX(cluster.getX(), worldPx);
+            float y = screenY(cluster.getY(), worldPx);
+            if (cluster.getCount() == 1) {
+                canvas.drawCircle(x, y, PIN_RADIUS_DP * density, pinPaint);
+                canvas.drawCircle(x, y, PIN_RADIUS_DP * density, pinOutlinePaint);
+            } else {
+                float radius = clusterRadius(cluster.getCount());
+                canvas.drawCircle(x, y, radius, pinPaint);
+                canvas.drawCircle(x, y, radius, pinOutlinePaint);
+                canvas.drawText(cluster.getCount() < 1000 ? String.valueOf(cluster.getCount()) : cluster.getCount() / 1000 + "k",
+                        x, y + countBaseline, countPaint);
+            }
+        }
+    }
+
+    // Grows slowly with the count, so a cluster of thousands does not cover its neighbours.
+    private float clusterRadius(int count) {
+        return (float) (CLUSTER_RADIUS_DP * density * (1 + 0.15 * Math.log10(count)));
+    }
+
+    private int clusterZoom() {
+        return (int) Math.min(Math.floor(zoom), MapClusterer.MAX_ZOOM);
+    }
+
+    private double worldSizePx() {
+        return tileSizePx * Math.pow(2, zoom);
+    }
+
+    private float screenX(double x, double worldPx) {
+        return (float) (getWidth() / 2.0 + (x - centerX) * worldPx);
+    }
+
+    private float screenY(double y, double worldPx) {
+        return (float) (getHeight() / 2.0 + (y - centerY) * worldPx);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        boolean handled = scaleDetector.onTouchEvent(event);
+        handled |= gestureDetector.onTouchEvent(event);
+        return handled || super.onTouchEvent(event);
+    }
+
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            double worldPx = worldSizePx();
+            centerX = clamp(centerX - (scroller.getCurrX() - lastFlingX) / worldPx);
+            centerY = clamp(centerY - (scroller.getCurrY() - lastFlingY) / worldPx);
+            lastFlingX = scroller.getCurrX();
+            lastFlingY = scroller.getCurrY();
+            postInvalidateOnAnimation();
+        }
+    }
+
+    /** Zooms by {@code steps} levels, keeping the world point under (focusX, focusY) in place. */
+    private void zoomAround(double steps, float focusX, float focusY) {
+        double oldWorldPx = worldSizePx();
+        double focusWorldX = centerX + (focusX - getWidth() / 2.0) / oldWorldPx;
+        double focusWorldY = centerY + (focusY - getHeight() / 2.0) / oldWorldPx;
+        zoom = clampZoom(zoom + steps);
+        double newWorldPx = worldSizePx();
+        centerX = clamp(focusWorldX - (focusX - getWidth() / 2.0) / newWorldPx);
+        centerY = clamp(focusWorldY - (focusY - getHeight() / 2.0) / newWorldPx);
+        invalidate();
+    }
+
+    /** The pin drawn nearest to the touch, within reach of a finger, or null. */
+    private MapCluster pinAt(float x, float y) {
+        double worldPx = worldSizePx();
+        float reach = TOUCH_SLOP_DP * density;
+        MapCluster nearest = null;
+        float nearestDistance = reach * reach;
+        for (MapCluster cluster : visibleClusters) {
+            float dx = screenX(cluster.getX(), worldPx) - x;
+            float dy = screenY(cluster.getY(), worldPx) - y;
+            float distance = dx * dx + dy * dy;
+            if (distance <= nearestDistance) {
+                nearest = cluster;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    private final GestureDetector.SimpleOnGestureListener gestureListener = new GestureDetector.SimpleOnGestureListener() {
+        @Override
+        public boolean onDown(@NonNull MotionEvent e) {
+            scroller.forceFinished(true);
+            return true;
+        }
+
+        @Override
+        public boolean onScroll(@Nullable MotionEvent e1, @NonNull MotionEvent e2, float distanceX, float distanceY) {
+            double worldPx = worldSizePx();
+            centerX = clamp(centerX + distanceX / worldPx);
+            centerY = clamp(centerY + distanceY / worldPx);
+            invalidate();
+            return true;
+        }
+
+        @Override
+        public boolean onFling(@Nullable MotionEvent e1, @NonNull MotionEvent e2, float velocityX, float velocityY) {
+            lastFlingX = 0;
+            lastFlingY = 0;
+            scroller.fling(0, 0, (int) velocityX, (int) velocityY,
+                    Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            postInvalidateOnAnimation();
+            return true;
+        }
+
+        @Override
+        public boolean onDoubleTap(@NonNull MotionEvent e) {
+            zoomAround(1, e.getX(), e.getY());
+            return true;
+        }
+
+        @Override
+        public boolean onSingleTapConfirmed(@NonNull MotionEvent e) {
+            MapCluster pin = pinAt(e.getX(), e.getY());
+            if (pin == null) return false;
+            if (pin.getCount() > 1) {
+                // Open the cluster up around its centre.
+                moveTo(pin.getX(), pin.getY(), zoom + CLUSTER_TAP_ZOOM);
+            } else if (listener != null) {
+                listener.onPointTapped(pin.getPoint());
+            }
+            return true;
+        }
+    };
+
+    private final ScaleGestureDetector.SimpleOnScaleGestureListener scaleListener = new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+        @Override
+        public boolean onScale(@NonNull ScaleGestureDetector detector) {
+            zoomAround(Math.log(detector.getScaleFactor()) / Math.log(2), detector.getFocusX(), detector.getFocusY());
+            return true;
+        }
+    };
+
+    private static double clampZoom(double value) {
+        return Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, value));
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0, Math.min(1, value));
+    }
+}
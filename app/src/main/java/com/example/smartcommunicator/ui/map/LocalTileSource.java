@@ -0,0 +1,95 @@
+package com.example.smartcommunicator.ui.map;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.LruCache;
+
+import com.example.smartcommunicator.geo.MapClusterer;
+import com.example.smartcommunicator.geo.WebMercator;
+
+import java.util.Locale;
+
+/**
+ * Stand-in tiles drawn on the device: a plain background with a grid and the tile's coordinates,
+ * and lines of latitude and longitude. Needs no network and no API key, so the map, its pins and
+ * its gestures can be used and tested offline; a real tile server can replace it behind
+ * {@link TileSource}. Drawing a tile takes well under a millisecond, and the last few are cached.
+ */
+public class LocalTileSource implements TileSource {
+
+    private static final int MAX_ZOOM = 19;
+    private static final int CACHED_TILES = 48;
+    private static final int GRID_LINES = 4;
+
+    private final LruCache<Long, Bitmap> cache = new LruCache<>(CACHED_TILES);
+    private final Paint gridPaint = new Paint();
+    private final Paint graticulePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final int backgroundColor;
+
+    public LocalTileSource(int backgroundColor, int lineColor, float density) {
+        this.backgroundColor = backgroundColor;
+        gridPaint.setColor(lineColor);
+        gridPaint.setAlpha(60);
+        graticulePaint.setColor(lineColor);
+        graticulePaint.setAlpha(140);
+        graticulePaint.setStrokeWidth(density);
+        labelPaint.setColor(lineColor);
+        labelPaint.setAlpha(160);
+        labelPaint.setTextSize(10 * density);
+    }
+
+    @Override
+    public int getMaxZoom() {
+        return MAX_ZOOM;
+    }
+
+    @Override
+    public Bitmap getTile(int zoom, int x, int y) {
+        long key = ((long) zoom << 58) | ((long) x << 29) | y;
+        Bitmap tile = cache.get(key);
+        if (tile == null) {
+            tile = render(zoom, x, y);
+            cache.put(key, tile);
+        }
+        return tile;
+    }
+
+    private Bitmap render(int zoom, int x, int y) {
+        int size = MapClusterer.TILE_SIZE;
+        // No transparency, so half the memory of ARGB_8888.
+        Bitmap tile = Bitmap.createBitmap(size, size, Bitmap.Config.RGB_565);
+        Canvas canvas = new Canvas(tile);
+        canvas.drawColor(backgroundColor);
+        for (int i = 0; i <= GRID_LINES; i++) {
+            float at = (float) size * i / GRID_LINES;
+            canvas.drawLine(at, 0, at, size, gridPaint);
+            canvas.drawLine(0, at, size, at, gridPaint);
+        }
+        drawGraticule(canvas, zoom, x, y);
+        canvas.drawText(String.format(Locale.ROOT, "%d/%d/%d", zoom, x, y), 4, size - 4, labelPaint);
+        return tile;
+    }
+
+    /** Lines every few degrees, finer as the map zooms in, so panning and zooming are easy to follow. */
+    private void drawGraticule(Canvas canvas, int zoom, int x, int y) {
+        double tiles = 1 << zoom;
+        double step = 90;
+        while (step > 0.001 && step * tiles / 360 > 1) step /= 2;
+        double west = WebMercator.longitude(x / tiles);
+        double east = WebMercator.longitude((x + 1) / tiles);
+        double north = WebMercator.latitude(y / tiles);
+        double south = WebMercator.latitude((y + 1) / tiles);
+        int size = MapClusterer.TILE_SIZE;
+        for (double lon = Math.ceil(west / step) * step; lon < east; lon += step) {
+            float px = (float) ((WebMercator.x(lon) * tiles - x) * size);
+            canvas.drawLine(px, 0, px, size, graticulePaint);
+        }
+        for (double lat = Math.ceil(south / step) * step; lat < north; lat += step) {
+            float py = (float) ((WebMercator.y(lat) * tiles - y) * size);
+            canvas.drawLine(0, py, size, py, graticulePaint);
+        }
+    }
+}
@@ -1,7 +1,147 @@
 package com.example.smartcommunicator.ui.map;
 
+import android.Manifest;
+import android.content.pm.PackageManager;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
+import com.example.smartcommunicator.R;
+import com.example.smartcommunicator.data.ContactLocationLoader;
+import com.example.smartcommunicator.geo.ContactAddress;
+import com.example.smartcommunicator.geo.ContactLocation;
+import com.example.smartcommunicator.geo.PointQuadtree;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The contacts on a map, placed by their postal addresses. The tiles are drawn locally by
+ * {@link LocalTileSource}, so the map works without a network; the pins are clustered by
+ * {@link ContactMapView}. Addresses are geocoded by {@link ContactLocationLoader}, and pins appear
+ * batch by batch while that runs.
+ */
 public class MapFragment extends Fragment {
-    // We will add code here later
+
+    private static final String STATE_CENTER_X = "map_center_x";
+    private static final String STATE_CENTER_Y = "map_center_y";
+    private static final String STATE_ZOOM = "map_zoom";
+
+    private ContactMapView mapView;
+    private TextView textStatus;
+    private ContactLocationLoader locationLoader;
+    private ActivityResultLauncher<String> requestContactPermissionLauncher;
+    // Point i of the map's tree is location i.
+    private List<ContactLocation> locations = Collections.emptyList();
+    // Where the map was, so coming back to this tab does not reset it.
+    private double centerX = 0.5;
+    private double centerY = 0.5;
+    private double zoom = 2;
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        if (savedInstanceState != null) {
+            centerX = savedInstanceState.getDouble(STATE_CENTER_X, centerX);
+            centerY = savedInstanceState.getDouble(STATE_CENTER_Y, centerY);
+            zoom = savedInstanceState.getDouble(STATE_ZOOM, zoom);
+        }
+        locationLoader = ContactLocationLoader.getInstance(requireContext());
+        requestContactPermissionLauncher = registerForActivityResult(
+                new ActivityResultContracts.RequestPermission(),
+                isGranted -> {
+                    if (isGranted) {
+                        loadLocations();
+                    } else {
+                        showStatus("Allow access to contacts to see them on the map");
+                    }
+                });
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        View root = inflater.inflate(R.layout.fragment_map, container, false);
+        mapView = root.findViewById(R.id.contact_map);
+        textStatus = root.findViewById(R.id.text_map_status);
+        float density = getResources().getDisplayMetrics().density;
+        mapView.setTileSource(new LocalTileSource(Color.rgb(0xF2, 0xEF, 0xE9), Color.GRAY, density));
+        mapView.moveTo(centerX, centerY, zoom);
+        mapView.setListener(this::onPointTapped);
+        if (ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.READ_CONTACTS) == PackageManager.PERMISSION_GRANTED) {
+            loadLocations();
+        } else {
+            requestContactPermissionLauncher.launch(Manifest.permission.READ_CONTACTS);
+        }
+        return root;
+    }
+
+    private void loadLocations() {
+        if (mapView == null) return;
+        locationLoader.load(locationCallback);
+    }
+
+    private final ContactLocationLoader.Callback locationCallback = new ContactLocationLoader.Callback() {
+        @Override
+        public void onLocationsChanged(List<ContactLocation> located, PointQuadtree tree, int remaining) {
+            if (mapView == null) return;
+            locations = located;
+            mapView.setPoints(tree);
+            if (remaining > 0) {
+                showStatus("Placing contacts on the map, " + remaining + " addresses to go");
+            } else if (located.isEmpty()) {
+                showStatus("No contact addresses on the map yet");
+            } else {
+                textStatus.setVisibility(View.GONE);
+            }
+        }
+    };
+
+    private void showStatus(String status) {
+        if (textStatus == null) return;
+        textStatus.setText(status);
+        textStatus.setVisibility(View.VISIBLE);
+    }
+
+    private void onPointTapped(int point) {
+        if (point < 0 || point >= locations.size()) return;
+        ContactAddress address = locations.get(point).getAddress();
+        Toast.makeText(getContext(), address.getName() + "\n" + address.getAddress(), Toast.LENGTH_LONG).show();
+    }
+
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        rememberPosition();
+        outState.putDouble(STATE_CENTER_X, centerX);
+        outState.putDouble(STATE_CENTER_Y, centerY);
+        outState.putDouble(STATE_ZOOM, zoom);
+    }
+
+    @Override
+    public void onDestroyView() {
+        rememberPosition();
+        locationLoader.detach(locationCallback);
+        mapView = null;
+        textStatus = null;
+        super.onDestroyView();
+    }
+
+    private void rememberPosition() {
+        if (mapView == null) return;
+        centerX = mapView.getCenterX();
+        centerY = mapView.getCenterY();
+        zoom = mapView.getZoom();
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.smartcommunicator.ui.map;
+
+import android.graphics.Bitmap;
+
+/**
+ * Where the map's background tiles come from, in the usual z/x/y scheme: at zoom z the world is
+ * 2^z by 2^z tiles of {@link com.example.smartcommunicator.geo.MapClusterer#TILE_SIZE} pixels.
+ */
+public interface TileSource {
+
+    /** The highest zoom with tiles; the map zooms further by scaling these. */
+    int getMaxZoom();
+
+    /**
+     * The tile's image, or null if there is none (yet). Called while drawing, so it must not block;
+     * a source that loads tiles elsewhere returns null and invalidates the map when one arrives.
+     */
+    Bitmap getTile(int zoom, int x, int y);
+}
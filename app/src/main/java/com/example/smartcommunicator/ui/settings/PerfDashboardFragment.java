@@ -0,0 +1,69 @@
+package com.example.smartcommunicator.ui.settings;
+
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+
+import com.example.smartcommunicator.R;
+import com.example.smartcommunicator.perf.PerfMonitor;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Shows p50/p95/p99 of every {@link PerfMonitor} stage since the process started or the last reset,
+ * and saves them to a file so runs on different builds or devices can be compared.
+ */
+public class PerfDashboardFragment extends Fragment {
+
+    private TextView textReport;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        View root = inflater.inflate(R.layout.fragment_perf_dashboard, container, false);
+        textReport = root.findViewById(R.id.text_perf_report);
+        root.findViewById(R.id.button_perf_refresh).setOnClickListener(v -> showReport());
+        root.findViewById(R.id.button_perf_reset).setOnClickListener(v -> {
+            PerfMonitor.reset();
+            showReport();
+        });
+        root.findViewById(R.id.button_perf_dump).setOnClickListener(v -> dumpReport());
+        return root;
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        showReport();
+    }
+
+    private void showReport() {
+        textReport.setText(PerfMonitor.report());
+    }
+
+    private void dumpReport() {
+        try {
+            File file = PerfMonitor.dump(requireContext(), versionName());
+            Toast.makeText(getContext(), "Saved to " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Toast.makeText(getContext(), "Could not save the report.", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private String versionName() {
+        try {
+            return requireContext().getPackageManager().getPackageInfo(requireContext().getPackageName(), 0).versionName;
+        } catch (PackageManager.NameNotFoundException e) {
+            return "unknown";
+        }
+    }
+}
@@ -7,6 +7,7 @@ import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatDelegate;
+import androidx.navigation.fragment.NavHostFragment;
 import androidx.preference.ListPreference;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceFragmentCompat;
@@ -15,6 +16,10 @@ import com.example.smartcommunicator.R;
 
 public class SettingsFragment extends PreferenceFragmentCompat {
 
+    // Taps on the version that open the performance screen, like Android's developer options.
+    private static final int PERF_DASHBOARD_TAPS = 7;
+    private int versionTaps = 0;
+
     @Override
     public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
         setPreferencesFromResource(R.xml.root_preferences, rootKey);
@@ -54,6 +59,17 @@ public class SettingsFragment extends PreferenceFragmentCompat {
                 return true;
             });
         }
+
+        Preference versionPreference = findPreference("version_preference");
+        if (versionPreference != null) {
+            versionPreference.setOnPreferenceClickListener(preference -> {
+                if (++versionTaps >= PERF_DASHBOARD_TAPS) {
+                    versionTaps = 0;
+                    NavHostFragment.findNavController(this).navigate(R.id.navigation_perf_dashboard);
+                }
+                return true;
+            });
+        }
     }
 
     private void applyTheme(String themeValue) {
@@ -0,0 +1,50 @@
+package com.example.smartcommunicator.data;
+
+import com.example.smartcommunicator.model.Contact;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ContactRowAggregatorTest {
+
+    @Test
+    public void rowsOfOneContact_foldIntoOne_withoutRepeatedNumbers() {
+        ContactRowAggregator aggregator = new ContactRowAggregator();
+        assertNull(aggregator.addRow("a", "Anna", "+1 555-0100", false, false));
+        assertNull(aggregator.addRow("a", "Anna", "+15550100", false, false));
+        assertNull(aggregator.addRow("a", "Anna", "555 0199", true, false));
+        Contact anna = aggregator.addRow("b", "Ben", "555 0101", false, false);
+        assertEquals("a", anna.getLookupKey());
+        assertEquals(2, anna.getNumberCount());
+        assertEquals(1, anna.getPrimaryNumberIndex());
+        assertEquals("b", aggregator.flush().getLookupKey());
+        assertNull(aggregator.flush());
+    }
+
+    @Test
+    public void rowsMissingAColumn_areSkipped() {
+        ContactRowAggregator aggregator = new ContactRowAggregator();
+        // A number-only contact with no display name, and a phone row without a number.
+        assertNull(aggregator.addRow("n", null, "555 0100", false, false));
+        assertNull(aggregator.addRow("a", "Anna", "555 0100", false, false));
+        assertNull(aggregator.addRow("a", "Anna", null, true, true));
+        assertNull(aggregator.addRow(null, "Ghost", "555 0102", false, false));
+        Contact anna = aggregator.flush();
+        assertEquals("a", anna.getLookupKey());
+        assertEquals(1, anna.getNumberCount());
+        assertNull(aggregator.flush());
+    }
+
+    @Test
+    public void rowTypes_stayWithTheirNumbers() {
+        ContactRowAggregator aggregator = new ContactRowAggregator();
+        aggregator.addRow("a", "Anna", "555 0100", Contact.TYPE_MOBILE, false, false);
+        aggregator.addRow("a", "Anna", "5550100", Contact.TYPE_HOME, false, false);
+        aggregator.addRow("a", "Anna", "555 0199", Contact.TYPE_WORK, false, false);
+        Contact anna = aggregator.addRow("b", "Ben", "555 0101", false, false);
+        assertEquals(Contact.TYPE_MOBILE, anna.getNumberType(0));
+        assertEquals(Contact.TYPE_WORK, anna.getNumberType(1));
+        assertEquals(Contact.TYPE_UNKNOWN, aggregator.flush().getNumberType(0));
+    }
+}
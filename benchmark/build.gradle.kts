@@ -0,0 +1,24 @@
+// JMH benchmarks for :core. Run all of them with
+//   ./gradlew :benchmark:jmh
+// or build a self-contained jar with ./gradlew :benchmark:jmhJar and run
+//   java -jar benchmark/build/libs/benchmark-jmh.jar -prof gc
+// on any machine with a JDK. The gc profiler reports the allocation per operation.
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    jmh(project(":core"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
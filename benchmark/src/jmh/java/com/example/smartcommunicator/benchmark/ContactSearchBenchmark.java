@@ -0,0 +1,61 @@
+package com.example.smartcommunicator.benchmark;
+
+import com.example.smartcommunicator.model.ContactStore;
+import com.example.smartcommunicator.search.ContactSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one search-box query against a prebuilt index, and of the linear filter the index
+ * replaced, for the same query. Queries cover the short-query scan, names, numbers and a miss.
+ * Run with {@code -prof gc} for the bytes allocated per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContactSearchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"a", "ann", "anna sm", "müller", "555", "0132", "zzq"})
+    public String query;
+
+    private ContactStore store;
+    private ContactSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        store = SyntheticContacts.store(size);
+        index = ContactSearchIndex.build(store);
+    }
+
+    @Benchmark
+    public int[] indexedSearch() {
+        return index.searchPositions(query);
+    }
+
+    @Benchmark
+    public int linearFilter() {
+        int count = 0;
+        for (int row = 0; row < store.size(); row++) {
+            if (ContactSearchIndex.matches(store, row, query)) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.smartcommunicator.benchmark;
+
+import com.example.smartcommunicator.model.ContactSectionIndex;
+import com.example.smartcommunicator.model.ContactStore;
+import com.example.smartcommunicator.search.ContactSearchIndex;
+import com.example.smartcommunicator.search.T9MatchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** What a full load costs after the rows are in: the search, dial-pad and section indexes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexBuildBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private ContactStore store;
+
+    @Setup
+    public void setUp() {
+        store = SyntheticContacts.store(size);
+    }
+
+    @Benchmark
+    public ContactSearchIndex searchIndex() {
+        return ContactSearchIndex.build(store);
+    }
+
+    @Benchmark
+    public T9MatchIndex t9Index() {
+        return T9MatchIndex.build(store);
+    }
+
+    @Benchmark
+    public byte[] sectionKeys() {
+        return ContactSectionIndex.rowKeys(store, null, 0);
+    }
+}
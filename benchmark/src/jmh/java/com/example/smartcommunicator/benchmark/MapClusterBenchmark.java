@@ -0,0 +1,113 @@
+package com.example.smartcommunicator.benchmark;
+
+import com.example.smartcommunicator.geo.MapCluster;
+import com.example.smartcommunicator.geo.MapClusterer;
+import com.example.smartcommunicator.geo.PointQuadtree;
+import com.example.smartcommunicator.geo.WebMercator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the map pays per frame: the pins for a phone-sized viewport, on a fresh clusterer (the
+ * first frame at a zoom level) and while panning one tile at a time over cached tiles. Contacts
+ * are crowded into a few cities, the way real addresses are.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapClusterBenchmark {
+
+    private static final double[][] CITIES = {
+            {52.52, 13.40}, {48.86, 2.35}, {51.51, -0.13}, {40.71, -74.01}, {37.77, -122.42}, {35.68, 139.69}
+    };
+    // About a phone screen: 5 by 9 tiles.
+    private static final int VIEW_TILES_X = 5;
+    private static final int VIEW_TILES_Y = 9;
+    private static final int ZOOM = 11;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private double[] xs;
+    private double[] ys;
+    private PointQuadtree tree;
+    private MapClusterer warmClusterer;
+    private final List<MapCluster> out = new ArrayList<>();
+    private int panStep;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        xs = new double[size];
+        ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            double[] city = CITIES[random.nextInt(CITIES.length)];
+            // Most within a few km of the centre, some in the suburbs.
+            double spread = random.nextInt(4) == 0 ? 0.3 : 0.05;
+            xs[i] = WebMercator.x(city[1] + random.nextGaussian() * spread);
+            ys[i] = WebMercator.y(city[0] + random.nextGaussian() * spread);
+        }
+        tree = PointQuadtree.build(xs, ys);
+        warmClusterer = new MapClusterer(tree);
+    }
+
+    @Benchmark
+    public PointQuadtree buildTree() {
+        return PointQuadtree.build(xs, ys);
+    }
+
+    @Benchmark
+    public int firstFrame() {
+        out.clear();
+        new MapClusterer(tree).clustersIn(ZOOM, viewLeft(0), viewTop(), viewLeft(0) + viewWidth(), viewTop() + viewHeight(), out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int panFrame() {
+        // Back and forth over 8 tiles, so after the first pass every frame is served from the cache.
+        panStep = (panStep + 1) % 16;
+        double left = viewLeft(panStep < 8 ? panStep : 16 - panStep);
+        out.clear();
+        warmClusterer.clustersIn(ZOOM, left, viewTop(), left + viewWidth(), viewTop() + viewHeight(), out);
+        return out.size();
+    }
+
+    private static double tile() {
+        return 1.0 / (1 << ZOOM);
+    }
+
+    private static double viewLeft(int tilesPanned) {
+        return WebMercator.x(CITIES[0][1]) - VIEW_TILES_X / 2.0 * tile() + tilesPanned * tile();
+    }
+
+    private static double viewTop() {
+        return WebMercator.y(CITIES[0][0]) - VIEW_TILES_Y / 2.0 * tile();
+    }
+
+    private static double viewWidth() {
+        return VIEW_TILES_X * tile();
+    }
+
+    private static double viewHeight() {
+        return VIEW_TILES_Y * tile();
+    }
+}
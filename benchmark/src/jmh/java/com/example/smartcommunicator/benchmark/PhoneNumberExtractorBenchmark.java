@@ -0,0 +1,55 @@
+package com.example.smartcommunicator.benchmark;
+
+import com.example.smartcommunicator.text.PhoneCandidate;
+import com.example.smartcommunicator.text.PhoneNumberExtractor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the phone number on one scanned card, as the live scanner does for every frame it reads.
+ * Each call takes the next card, so the branches do not settle on a single text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhoneNumberExtractorBenchmark {
+
+    private static final int CARD_COUNT = 256;
+
+    private String[] cards;
+    private PhoneNumberExtractor extractor;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cards = SyntheticCards.texts(CARD_COUNT);
+        extractor = PhoneNumberExtractor.getInstance();
+    }
+
+    @Benchmark
+    public List<PhoneCandidate> extractAll() {
+        next = (next + 1) % CARD_COUNT;
+        return extractor.extractAll(cards[next]);
+    }
+
+    @Benchmark
+    public PhoneCandidate best() {
+        next = (next + 1) % CARD_COUNT;
+        return extractor.best(cards[next]);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.smartcommunicator.benchmark;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Made-up business card texts, the same on every run, laid out the way the recognizer returns
+ * them: a name, a title, a company, then contact lines in some order. Most cards have a phone and
+ * a fax; the other lines hold digits that are not phone numbers (postcodes, suite numbers, dates),
+ * and some cards have the usual recognizer slips, like O for 0 and l for 1.
+ */
+final class SyntheticCards {
+
+    private static final String[] NAMES = {
+            "Jane Doe", "OLIVER BENNETT", "Dr. Priya Natarajan", "Marcus Webb", "Søren Larsen",
+            "Ximena Fernández", "Hiro Tanaka", "Nadia Haddad", "Tomas Novak", "Grace O'Neil"
+    };
+    private static final String[] TITLES = {
+            "Senior Engineer", "Partner", "Account Manager", "Head of Sales", "Chief Executive Officer"
+    };
+    private static final String[] COMPANIES = {
+            "Acme Widgets Inc.", "Bennett & Lowe LLP", "Cambridge Clinic", "Nordlys ApS", "Tanaka Trading Co."
+    };
+    private static final String[] ADDRESSES = {
+            "1 Fleet Street, London EC4Y 1AA", "Suite 200B, 45 Main St", "Vesterbrogade 12, 1620 København V",
+            "PO Box 4471, Springfield 62704", "3-14-2 Shibuya, Tokyo 150-0002"
+    };
+    private static final String[] PHONE_LABELS = { "Tel: ", "T. ", "Phone ", "Mobile ", "M: ", "" };
+    private static final String[] NUMBER_FORMATS = {
+            "(%03d) %03d-%04d", "+1 %03d %03d %04d", "%03d.%03d.%04d", "+44 %03d %03d %04d", "0%03d %03d %04d"
+    };
+
+    private SyntheticCards() { }
+
+    static String[] texts(int count) {
+        Random random = new Random(42);
+        String[] cards = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder card = new StringBuilder();
+            String name = NAMES[random.nextInt(NAMES.length)];
+            card.append(name).append('\n');
+            card.append(TITLES[random.nextInt(TITLES.length)]).append('\n');
+            card.append(COMPANIES[random.nextInt(COMPANIES.length)]).append('\n');
+            if (random.nextBoolean()) card.append(ADDRESSES[random.nextInt(ADDRESSES.length)]).append('\n');
+            String format = NUMBER_FORMATS[random.nextInt(NUMBER_FORMATS.length)];
+            String phone = number(random, format);
+            if (random.nextInt(5) == 0) phone = phone.replace('0', 'O').replace('1', 'l');
+            card.append(PHONE_LABELS[random.nextInt(PHONE_LABELS.length)]).append(phone).append('\n');
+            if (random.nextInt(3) > 0) card.append("Fax: ").append(number(random, format)).append('\n');
+            card.append(name.toLowerCase(Locale.ROOT).replaceAll("[^a-z]+", ".")).append("@example.com\n");
+            if (random.nextInt(4) == 0) card.append("Since 19").append(70 + random.nextInt(30)).append('\n');
+            cards[i] = card.toString();
+        }
+        return cards;
+    }
+
+    private static String number(Random random, String format) {
+        return String.format(Locale.ROOT, format, 200 + random.nextInt(800), random.nextInt(1000), random.nextInt(10000));
+    }
+}
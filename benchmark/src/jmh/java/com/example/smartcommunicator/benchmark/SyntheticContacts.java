@@ -0,0 +1,52 @@
+package com.example.smartcommunicator.benchmark;
+
+import com.example.smartcommunicator.model.ContactStore;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A made-up address book of any size, the same on every run. Names are drawn from common first
+ * and last names, so prefixes and trigrams repeat the way they do in a real list; numbers are in
+ * a few national formats. Rows are sorted by name, as the provider query returns them.
+ */
+final class SyntheticContacts {
+
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Ben", "Carla", "David", "Elena", "Farid", "Grace", "Hiro", "Ines", "Jonas",
+            "Karim", "Lena", "Marco", "Nadia", "Omar", "Priya", "Quinn", "Rosa", "Sam", "Tomas",
+            "Uma", "Victor", "Wen", "Ximena", "Yusuf", "Zoe", "Émile", "Søren", "Zoë", "Ángel"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Müller", "Garcia", "Nguyen", "Kowalski", "Rossi", "Okafor", "Tanaka", "Silva",
+            "Johansson", "Dubois", "Novak", "Khan", "Park", "O'Neil", "Smith-Jones", "van Dijk", "Ivanova",
+            "Haddad", "Larsen", "McAdams", "Chen", "Papadopoulos", "Schmidt", "Fernández", "Ali"
+    };
+    private static final String[] NUMBER_FORMATS = {
+            "+1 %03d %03d %04d", "(%03d) %03d-%04d", "0%03d %03d %04d", "+44 %03d %03d %04d"
+    };
+
+    private SyntheticContacts() { }
+
+    static ContactStore store(int size) {
+        Random random = new Random(42);
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        }
+        Arrays.sort(names, ContactStore.nameOrder());
+        ContactStore.Builder builder = new ContactStore.Builder();
+        for (int i = 0; i < size; i++) {
+            // Most contacts have one number, some two or three.
+            int numberCount = 1 + (random.nextInt(10) >= 7 ? 1 : 0) + (random.nextInt(10) == 0 ? 1 : 0);
+            String[] numbers = new String[numberCount];
+            for (int n = 0; n < numberCount; n++) {
+                numbers[n] = String.format(Locale.ROOT, NUMBER_FORMATS[random.nextInt(NUMBER_FORMATS.length)],
+                        200 + random.nextInt(800), random.nextInt(1000), random.nextInt(10000));
+            }
+            builder.add("lookup-" + i, names[i], numbers, 0);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.smartcommunicator.benchmark;
+
+import com.example.smartcommunicator.model.Contact;
+import com.example.smartcommunicator.search.T9MatchIndex;
+import com.example.smartcommunicator.search.T9Matcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dial-pad matching: a fresh lookup of the whole input, and the same input typed one digit at a
+ * time, where each digit only re-checks the previous hits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class T9MatchBenchmark {
+
+    // The dial pad's suggestion list.
+    private static final int LIMIT = 50;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    // "2", "76484" (smith), "555" and a run of digits from inside a number.
+    @Param({"2", "76484", "555", "0132"})
+    public String digits;
+
+    private T9MatchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = T9MatchIndex.build(SyntheticContacts.store(size));
+    }
+
+    @Benchmark
+    public List<Contact> lookup() {
+        return new T9Matcher(index).match(digits, LIMIT);
+    }
+
+    @Benchmark
+    public List<Contact> typedDigitByDigit() {
+        T9Matcher matcher = new T9Matcher(index);
+        List<Contact> result = null;
+        for (int end = 1; end <= digits.length(); end++) {
+            result = matcher.match(digits.substring(0, end), LIMIT);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,14 @@
+// Plain Java: the contact model, search and text code, with nothing from Android,
+// so it can be unit tested and benchmarked on any JVM.
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
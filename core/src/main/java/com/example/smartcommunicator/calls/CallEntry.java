@@ -0,0 +1,74 @@
+package com.example.smartcommunicator.calls;
+
+/**
+ * One call log row, and the contact its number belongs to if one was found. Immutable.
+ * The type uses the platform's call log values, so {@link #TYPE_INCOMING} and friends match
+ * {@code CallLog.Calls.INCOMING_TYPE} and so on; other types are kept as they are.
+ */
+public final class CallEntry {
+
+    public static final int TYPE_INCOMING = 1;
+    public static final int TYPE_OUTGOING = 2;
+    public static final int TYPE_MISSED = 3;
+
+    private final long id;
+    private final String number;
+    private final int type;
+    private final long dateMs;
+    private final long durationSeconds;
+    // The name the call log itself stored, shown when the contacts are not at hand.
+    private final String cachedName;
+    private final String lookupKey;
+    private final String contactName;
+
+    public CallEntry(long id, String number, int type, long dateMs, long durationSeconds, String cachedName) {
+        this(id, number, type, dateMs, durationSeconds, cachedName, null, null);
+    }
+
+    private CallEntry(long id, String number, int type, long dateMs, long durationSeconds, String cachedName,
+                      String lookupKey, String contactName) {
+        this.id = id;
+        this.number = number;
+        this.type = type;
+        this.dateMs = dateMs;
+        this.durationSeconds = durationSeconds;
+        this.cachedName = cachedName;
+        this.lookupKey = lookupKey;
+        this.contactName = contactName;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public long getDateMs() {
+        return dateMs;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /** The contact's lookupKey, or null if the number is not in the contacts. */
+    public String getLookupKey() {
+        return lookupKey;
+    }
+
+    /** The contact's name, else the name the call log stored, else null. */
+    public String getDisplayName() {
+        if (contactName != null) return contactName;
+        return cachedName != null && !cachedName.isEmpty() ? cachedName : null;
+    }
+
+    public CallEntry withContact(String lookupKey, String contactName) {
+        return new CallEntry(id, number, type, dateMs, durationSeconds, cachedName, lookupKey, contactName);
+    }
+}
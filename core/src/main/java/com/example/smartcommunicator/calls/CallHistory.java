@@ -0,0 +1,110 @@
+package com.example.smartcommunicator.calls;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The most recent calls, newest first, kept between visits so the call log only has to be read
+ * from the highest id seen so far. The call log's ids only grow, so everything above
+ * {@link #getHighWaterId} is new. Deleted calls are found by asking which of the kept ids,
+ * at most {@link #MAX_ENTRIES} of them, still exist; the room they leave is filled from below
+ * {@link #getRefillBelowId}.
+ *
+ * Not thread safe; owned by one worker.
+ */
+public final class CallHistory {
+
+    public static final int MAX_ENTRIES = 200;
+
+    private final ArrayList<CallEntry> entries = new ArrayList<>();
+    private long highWaterId = 0;
+
+    /** The highest call id ever added, or 0. Kept even when that call was deleted since. */
+    public long getHighWaterId() {
+        return highWaterId;
+    }
+
+    /** The lowest kept id, or 0 when empty. */
+    public long getOldestId() {
+        return entries.isEmpty() ? 0 : entries.get(entries.size() - 1).getId();
+    }
+
+    /**
+     * Older calls to fill up with have ids below this: the oldest kept id, or just above the mark
+     * when nothing is kept, since every id up to it was kept or is gone.
+     */
+    public long getRefillBelowId() {
+        return entries.isEmpty() ? highWaterId + 1 : getOldestId();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Puts calls read above {@link #getHighWaterId} in front, dropping the oldest beyond
+     * {@link #MAX_ENTRIES}. Calls at or below the mark are ignored.
+     *
+     * @param newestFirst sorted by id, highest first
+     */
+    public void addNewer(List<CallEntry> newestFirst) {
+        List<CallEntry> added = new ArrayList<>(newestFirst.size());
+        for (CallEntry call : newestFirst) {
+            if (call.getId() > highWaterId) added.add(call);
+        }
+        if (added.isEmpty()) return;
+        highWaterId = added.get(0).getId();
+        entries.addAll(0, added.size() > MAX_ENTRIES ? added.subList(0, MAX_ENTRIES) : added);
+        for (int i = entries.size() - 1; i >= MAX_ENTRIES; i--) entries.remove(i);
+    }
+
+    /**
+     * Appends calls read below {@link #getRefillBelowId}, e.g. after {@link #retain} dropped some,
+     * up to {@link #MAX_ENTRIES} in all. Calls at or above it are ignored.
+     *
+     * @param newestFirst sorted by id, highest first
+     */
+    public void addOlder(List<CallEntry> newestFirst) {
+        long below = getRefillBelowId();
+        for (CallEntry call : newestFirst) {
+            if (entries.size() >= MAX_ENTRIES) break;
+            if (call.getId() < below) {
+                entries.add(call);
+                below = call.getId();
+            }
+        }
+    }
+
+    /**
+     * Drops the kept calls whose ids are not in {@code existingIds}.
+     *
+     * @param existingIds the ids from {@link #getOldestId} to {@link #getHighWaterId} that are still in the call log
+     * @return whether anything was dropped
+     */
+    public boolean retain(long[] existingIds) {
+        long[] sorted = existingIds.clone();
+        Arrays.sort(sorted);
+        boolean changed = false;
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            if (Arrays.binarySearch(sorted, entries.get(i).getId()) < 0) {
+                entries.remove(i);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /** Joins every kept call to the contacts again, e.g. after the contacts changed. */
+    public void resolveAll(PhoneNumberIndex index) {
+        for (int i = 0; i < entries.size(); i++) {
+            entries.set(i, index.resolve(entries.get(i)));
+        }
+    }
+
+    /** A copy of the kept calls, newest first, safe to hand to another thread. */
+    public List<CallEntry> entries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+}
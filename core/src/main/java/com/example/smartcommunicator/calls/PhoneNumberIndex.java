@@ -0,0 +1,92 @@
+package com.example.smartcommunicator.calls;
+
+import com.example.smartcommunicator.model.ContactStore;
+
+import java.util.Arrays;
+
+/**
+ * Finds the contact a phone number belongs to, in memory, so a call log can be joined to the
+ * contacts without a PhoneLookup query per call.
+ *
+ * Numbers are compared by their last {@link #MATCH_DIGITS} digits, ignoring punctuation, so
+ * "+1 (415) 555-0132" finds "415 555 0132" and "+49 151 2345678" finds "0151 2345678".
+ * Shorter numbers, like service codes, only match a number with exactly the same digits.
+ * Each key is a long and the table is one sorted long[], so a lookup creates no objects.
+ * Immutable once built.
+ */
+public final class PhoneNumberIndex {
+
+    static final int MATCH_DIGITS = 10;
+    // Below the key bits: the row. Keys take at most 38 bits, see key().
+    private static final int ROW_BITS = 25;
+    private static final long ROW_MASK = (1L << ROW_BITS) - 1;
+
+    public static final PhoneNumberIndex EMPTY = new PhoneNumberIndex(ContactStore.EMPTY, new long[0]);
+
+    private final ContactStore store;
+    // (key << ROW_BITS) | row, sorted. Equal keys keep the lowest row first.
+    private final long[] entries;
+
+    private PhoneNumberIndex(ContactStore store, long[] entries) {
+        this.store = store;
+        this.entries = entries;
+    }
+
+    public static PhoneNumberIndex of(ContactStore store) {
+        if (store.size() > ROW_MASK) throw new IllegalArgumentException("Too many contacts: " + store.size());
+        int count = 0;
+        for (int row = 0; row < store.size(); row++) count += store.getNumberCount(row);
+        long[] entries = new long[count];
+        int next = 0;
+        for (int row = 0; row < store.size(); row++) {
+            for (int i = 0; i < store.getNumberCount(row); i++) {
+                long key = key(store.getNumber(row, i));
+                if (key >= 0) entries[next++] = (key << ROW_BITS) | row;
+            }
+        }
+        if (next < count) entries = Arrays.copyOf(entries, next);
+        Arrays.sort(entries);
+        return new PhoneNumberIndex(store, entries);
+    }
+
+    public ContactStore getStore() {
+        return store;
+    }
+
+    /** The first store row with this number, or -1. */
+    public int find(CharSequence number) {
+        long key = key(number);
+        if (key < 0) return -1;
+        // Every entry with this key sorts at or after (key << ROW_BITS).
+        int at = Arrays.binarySearch(entries, key << ROW_BITS);
+        if (at < 0) at = -at - 1;
+        if (at < entries.length && entries[at] >>> ROW_BITS == key) return (int) (entries[at] & ROW_MASK);
+        return -1;
+    }
+
+    /** The call with its contact filled in from the store, or cleared if no contact has the number. */
+    public CallEntry resolve(CallEntry call) {
+        int row = find(call.getNumber());
+        if (row < 0) return call.withContact(null, null);
+        return call.withContact(store.getLookupKey(row), store.getName(row));
+    }
+
+    /**
+     * The last {@link #MATCH_DIGITS} digits as a number, times 16, plus how many digits that was;
+     * -1 if there are none. Below 10^10 * 16, so it fits in 38 bits.
+     */
+    static long key(CharSequence number) {
+        if (number == null) return -1;
+        long value = 0;
+        long scale = 1;
+        int digits = 0;
+        for (int i = number.length() - 1; i >= 0 && digits < MATCH_DIGITS; i--) {
+            char c = number.charAt(i);
+            if (c < '0' || c > '9') continue;
+            value += (c - '0') * scale;
+            scale *= 10;
+            digits++;
+        }
+        return digits == 0 ? -1 : value * 16 + digits;
+    }
+}
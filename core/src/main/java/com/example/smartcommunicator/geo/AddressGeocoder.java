@@ -0,0 +1,16 @@
+package com.example.smartcommunicator.geo;
+
+import java.io.IOException;
+
+/**
+ * Turns a postal address into coordinates. The app uses the platform geocoder; tests use a local
+ * fake. Called from several worker threads at once, so implementations must be thread safe.
+ */
+public interface AddressGeocoder {
+
+    /**
+     * @return the address's position, or null if the geocoder does not know it
+     * @throws IOException if it could not be asked, e.g. without a network; the address is tried again next time
+     */
+    GeoPoint geocode(String address) throws IOException;
+}
@@ -0,0 +1,34 @@
+package com.example.smartcommunicator.geo;
+
+/** One postal address of a contact, as the provider stores it. Immutable. */
+public final class ContactAddress {
+
+    private final long id;
+    private final String lookupKey;
+    private final String name;
+    private final String address;
+
+    /** @param id the address row's id, which stays the same when the address is edited */
+    public ContactAddress(long id, String lookupKey, String name, String address) {
+        this.id = id;
+        this.lookupKey = lookupKey;
+        this.name = name;
+        this.address = address;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getLookupKey() {
+        return lookupKey;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.smartcommunicator.geo;
+
+import java.util.List;
+
+/** A contact address and where it is. Immutable. */
+public final class ContactLocation {
+
+    private final ContactAddress address;
+    private final GeoPoint point;
+
+    public ContactLocation(ContactAddress address, GeoPoint point) {
+        this.address = address;
+        this.point = point;
+    }
+
+    public ContactAddress getAddress() {
+        return address;
+    }
+
+    public GeoPoint getPoint() {
+        return point;
+    }
+
+    /** A quadtree over the locations; point i of the tree is location i. */
+    public static PointQuadtree index(List<ContactLocation> locations) {
+        double[] xs = new double[locations.size()];
+        double[] ys = new double[locations.size()];
+        for (int i = 0; i < xs.length; i++) {
+            GeoPoint point = locations.get(i).getPoint();
+            xs[i] = WebMercator.x(point.getLongitude());
+            ys[i] = WebMercator.y(point.getLatitude());
+        }
+        return PointQuadtree.build(xs, ys);
+    }
+}
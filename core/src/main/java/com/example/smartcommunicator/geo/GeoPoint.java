@@ -0,0 +1,26 @@
+package com.example.smartcommunicator.geo;
+
+/** A latitude and longitude in degrees. Immutable. */
+public final class GeoPoint {
+
+    private final double latitude;
+    private final double longitude;
+
+    public GeoPoint(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    @Override
+    public String toString() {
+        return latitude + "," + longitude;
+    }
+}
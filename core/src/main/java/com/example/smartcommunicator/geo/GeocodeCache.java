@@ -0,0 +1,157 @@
+package com.example.smartcommunicator.geo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Geocoding results, keyed by a 64 bit hash of the normalized address, so the same address written
+ * a little differently ("Main St. 12" and "main st 12") is geocoded once. Addresses the geocoder
+ * did not know are kept too, and asked again after {@link #NOT_FOUND_TTL_MS}.
+ *
+ * At most {@link #MAX_ENTRIES} results are kept; the least recently used goes first. The cache also
+ * remembers which address each address row had, so editing an address drops the old result.
+ * Not thread safe; owned by one worker.
+ */
+public final class GeocodeCache {
+
+    public static final int MAX_ENTRIES = 5000;
+    public static final long NOT_FOUND_TTL_MS = 30L * 24 * 60 * 60 * 1000;
+
+    private static final class Result {
+        // NaN when the geocoder did not know the address.
+        final double latitude;
+        final double longitude;
+        final long storedAt;
+
+        Result(double latitude, double longitude, long storedAt) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.storedAt = storedAt;
+        }
+
+        boolean isFound() {
+            return !Double.isNaN(latitude);
+        }
+    }
+
+    // Access order: iteration starts at the least recently used.
+    private final LinkedHashMap<Long, Result> entries = new LinkedHashMap<Long, Result>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Result> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    // Address row id to the key of the address it had.
+    private final Map<Long, Long> keyByAddressId = new HashMap<>();
+
+    /** The cache key: the address lower-cased, with every run of punctuation and spaces made one space, hashed. */
+    public static long key(String address) {
+        String normalized = Normalizer.normalize(address, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        // 64 bit FNV-1a; collisions are unlikely below billions of addresses.
+        long hash = 0xcbf29ce484222325L;
+        boolean pendingSpace = false;
+        boolean started = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                hash = (hash ^ ' ') * 0x100000001b3L;
+                pendingSpace = false;
+            }
+            hash = (hash ^ c) * 0x100000001b3L;
+            started = true;
+        }
+        return hash;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** Whether the address needs no geocoding: it was found, or was not found a short while ago. */
+    public boolean isKnown(long key, long nowMs) {
+        Result entry = entries.get(key);
+        return entry != null && (entry.isFound() || nowMs - entry.storedAt < NOT_FOUND_TTL_MS);
+    }
+
+    /** The stored position, or null if there is none or the address was not found. Counts as a use. */
+    public GeoPoint get(long key) {
+        Result entry = entries.get(key);
+        return entry != null && entry.isFound() ? new GeoPoint(entry.latitude, entry.longitude) : null;
+    }
+
+    /** Stores a result; a null point records that the geocoder did not know the address. */
+    public void put(long key, GeoPoint point, long nowMs) {
+        entries.put(key, point != null
+                ? new Result(point.getLatitude(), point.getLongitude(), nowMs)
+                : new Result(Double.NaN, Double.NaN, nowMs));
+    }
+
+    /**
+     * Records that the address row now has the address with this key. If it had another one
+     * before, that result is dropped, unless another row still has that address.
+     *
+     * @return whether the row's address changed
+     */
+    public boolean assign(long addressId, long key) {
+        Long previous = keyByAddressId.put(addressId, key);
+        if (previous == null || previous == key) return false;
+        if (!keyByAddressId.containsValue(previous)) entries.remove(previous);
+        return true;
+    }
+
+    /** Forgets address rows that are gone. Their results stay until they are evicted. */
+    public void retainAddressIds(Set<Long> addressIds) {
+        keyByAddressId.keySet().retainAll(addressIds);
+    }
+
+    /**
+     * Writes (count, count x (long key, double latitude, double longitude, long storedAt)), least
+     * recently used first, then (count, count x (long addressId, long key)).
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(entries.size());
+        for (Map.Entry<Long, Result> entry : entries.entrySet()) {
+            out.writeLong(entry.getKey());
+            out.writeDouble(entry.getValue().latitude);
+            out.writeDouble(entry.getValue().longitude);
+            out.writeLong(entry.getValue().storedAt);
+        }
+        out.writeInt(keyByAddressId.size());
+        for (Map.Entry<Long, Long> entry : keyByAddressId.entrySet()) {
+            out.writeLong(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    public static GeocodeCache readFrom(DataInput in) throws IOException {
+        GeocodeCache cache = new GeocodeCache();
+        int count = in.readInt();
+        if (count < 0 || count > MAX_ENTRIES) throw new IOException("Bad entry count " + count);
+        for (int i = 0; i < count; i++) {
+            long key = in.readLong();
+            double latitude = in.readDouble();
+            double longitude = in.readDouble();
+            long storedAt = in.readLong();
+            // Reading in stored order restores the least recently used order.
+            cache.entries.put(key, new Result(latitude, longitude, storedAt));
+        }
+        int assigned = in.readInt();
+        if (assigned < 0) throw new IOException("Bad address count " + assigned);
+        for (int i = 0; i < assigned; i++) {
+            long addressId = in.readLong();
+            cache.keyByAddressId.put(addressId, in.readLong());
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.smartcommunicator.geo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+
+/**
+ * Places contact addresses on the map. Addresses in the {@link GeocodeCache} are placed at once;
+ * the rest are geocoded in batches of {@link #BATCH_SIZE}, with at most {@code concurrency}
+ * requests in flight, and each address is asked once however many contacts share it. After every
+ * batch the listener gets everything placed so far, so the map fills in as results come and the
+ * cache can be saved.
+ *
+ * Geocoders are rate limited, so a pause can be set between batches. {@link #run} blocks; call it
+ * on a worker. The cache is only touched from that thread.
+ */
+public final class GeocodePipeline {
+
+    public static final int BATCH_SIZE = 20;
+
+    public interface Listener {
+        /**
+         * Called on the running thread once for the cached addresses and then after every batch.
+         *
+         * @param located every address placed so far, in input order
+         * @param remaining how many distinct addresses are still to be geocoded
+         */
+        void onProgress(List<ContactLocation> located, int remaining);
+    }
+
+    private final AddressGeocoder geocoder;
+    private final GeocodeCache cache;
+    private final int concurrency;
+    private final long batchIntervalMs;
+    private final LongSupplier clock;
+    private volatile boolean cancelled;
+
+    public GeocodePipeline(AddressGeocoder geocoder, GeocodeCache cache, int concurrency, long batchIntervalMs, LongSupplier clock) {
+        if (concurrency < 1) throw new IllegalArgumentException("concurrency " + concurrency);
+        this.geocoder = geocoder;
+        this.cache = cache;
+        this.concurrency = concurrency;
+        this.batchIntervalMs = batchIntervalMs;
+        this.clock = clock;
+    }
+
+    /** Stops a running {@link #run} after the batch in flight; what was geocoded stays cached. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @param addresses every contact address; rows not among them are forgotten by the cache
+     * @return every address that could be placed, in input order
+     */
+    public List<ContactLocation> run(List<ContactAddress> addresses, Listener listener) throws InterruptedException {
+        long[] keys = new long[addresses.size()];
+        Set<Long> addressIds = new HashSet<>();
+        // Distinct addresses to ask for, by key, with the text of the first row that has it.
+        Map<Long, String> pending = new LinkedHashMap<>();
+        long now = clock.getAsLong();
+        for (int i = 0; i < keys.length; i++) {
+            ContactAddress address = addresses.get(i);
+            keys[i] = GeocodeCache.key(address.getAddress());
+            addressIds.add(address.getId());
+            cache.assign(address.getId(), keys[i]);
+        }
+        // Only after every row is assigned, or a changed address could drop a result another row still uses.
+        for (int i = 0; i < keys.length; i++) {
+            if (!cache.isKnown(keys[i], now) && !pending.containsKey(keys[i])) {
+                pending.put(keys[i], addresses.get(i).getAddress());
+            }
+        }
+        cache.retainAddressIds(addressIds);
+        listener.onProgress(located(addresses, keys), pending.size());
+        if (pending.isEmpty()) return located(addresses, keys);
+
+        List<Long> queue = new ArrayList<>(pending.keySet());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, queue.size()));
+        try {
+            for (int from = 0; from < queue.size() && !cancelled; from += BATCH_SIZE) {
+                if (from > 0 && batchIntervalMs > 0) Thread.sleep(batchIntervalMs);
+                List<Long> batch = queue.subList(from, Math.min(queue.size(), from + BATCH_SIZE));
+                List<Future<GeoPoint>> results = new ArrayList<>(batch.size());
+                for (Long key : batch) {
+                    final String text = pending.get(key);
+                    results.add(executor.submit(() -> geocoder.geocode(text)));
+                }
+                long answeredAt = clock.getAsLong();
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        cache.put(batch.get(i), results.get(i).get(), answeredAt);
+                    } catch (ExecutionException e) {
+                        // Not stored, so it is asked again next run.
+                        if (!(e.getCause() instanceof IOException)) e.printStackTrace();
+                    }
+                }
+                listener.onProgress(located(addresses, keys), Math.max(0, queue.size() - from - batch.size()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return located(addresses, keys);
+    }
+
+    private List<ContactLocation> located(List<ContactAddress> addresses, long[] keys) {
+        List<ContactLocation> located = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            GeoPoint point = cache.get(keys[i]);
+            if (point != null) located.add(new ContactLocation(addresses.get(i), point));
+        }
+        return located;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.smartcommunicator.geo;
+
+/** One pin on the map: a single point, or several drawn as one with their count. Immutable. */
+public final class MapCluster {
+
+    private final double x;
+    private final double y;
+    private final int count;
+    private final int point;
+
+    MapCluster(double x, double y, int count, int point) {
+        this.x = x;
+        this.y = y;
+        this.count = count;
+        this.point = point;
+    }
+
+    /** The centroid, in world coordinates. */
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /** The id of the point if this is a single one, else -1. */
+    public int getPoint() {
+        return point;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.smartcommunicator.geo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups the points of a {@link PointQuadtree} into pins for a map viewport. Each map tile is cut
+ * into a grid of {@link #CELL_SIZE} pixel cells and the points of a cell become one pin at their
+ * centroid. A cell is a quadtree node two levels below the tile's, so most cells cost one node
+ * lookup, whatever the number of points.
+ *
+ * The pins are worked out per tile and kept, so panning only computes the tiles that scroll
+ * into view and zooming back finds the earlier level still there; at most
+ * {@link #MAX_CACHED_TILES} tiles are kept, the least recently shown dropped first.
+ * Not thread safe; the map uses it from the main thread.
+ */
+public final class MapClusterer {
+
+    public static final int TILE_SIZE = 256;
+    // Four cells a side per tile, so one node level for each factor of two.
+    private static final int CELL_SHIFT = 2;
+    public static final int CELL_SIZE = TILE_SIZE >> CELL_SHIFT;
+    public static final int MAX_ZOOM = PointQuadtree.MAX_DEPTH - CELL_SHIFT;
+    static final int MAX_CACHED_TILES = 512;
+
+    private final PointQuadtree tree;
+    private final Map<Long, List<MapCluster>> tiles = new LinkedHashMap<Long, List<MapCluster>>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<MapCluster>> eldest) {
+            return size() > MAX_CACHED_TILES;
+        }
+    };
+    private int computedTiles;
+
+    public MapClusterer(PointQuadtree tree) {
+        this.tree = tree;
+    }
+
+    public PointQuadtree getTree() {
+        return tree;
+    }
+
+    /**
+     * Adds the pins of every tile the viewport touches at {@code zoom} to {@code out}. Pins a
+     * little outside the viewport are included, so pins at the edge do not pop in.
+     */
+    public void clustersIn(int zoom, double minX, double minY, double maxX, double maxY, List<MapCluster> out) {
+        zoom = Math.max(0, Math.min(MAX_ZOOM, zoom));
+        int fromX = PointQuadtree.cell(minX, zoom);
+        int toX = PointQuadtree.cell(maxX, zoom);
+        int fromY = PointQuadtree.cell(minY, zoom);
+        int toY = PointQuadtree.cell(maxY, zoom);
+        for (int ty = fromY; ty <= toY; ty++) {
+            for (int tx = fromX; tx <= toX; tx++) {
+                out.addAll(tile(zoom, tx, ty));
+            }
+        }
+    }
+
+    /** How many tiles were computed rather than found, for tests. */
+    int getComputedTiles() {
+        return computedTiles;
+    }
+
+    private List<MapCluster> tile(int zoom, int tx, int ty) {
+        // 5 bits of zoom, and x and y below 2^22 each.
+        long key = ((long) zoom << 58) | ((long) tx << 29) | ty;
+        List<MapCluster> clusters = tiles.get(key);
+        if (clusters == null) {
+            clusters = computeTile(zoom, tx, ty);
+            tiles.put(key, clusters);
+            computedTiles++;
+        }
+        return clusters;
+    }
+
+    private List<MapCluster> computeTile(int zoom, int tx, int ty) {
+        int node = tree.nodeAt(zoom, tx, ty);
+        if (node < 0) return Collections.emptyList();
+        List<MapCluster> clusters = new ArrayList<>();
+        collect(node, zoom, tx, ty, clusters);
+        return clusters;
+    }
+
+    private void collect(int node, int zoom, int tx, int ty, List<MapCluster> out) {
+        int cellDepth = zoom + CELL_SHIFT;
+        if (tree.depth(node) == cellDepth) {
+            int count = tree.count(node);
+            out.add(new MapCluster(tree.centroidX(node), tree.centroidY(node), count, count == 1 ? tree.point(node, 0) : -1));
+        } else if (tree.isLeaf(node)) {
+            bucketLeaf(node, zoom, tx, ty, out);
+        } else {
+            // Internal nodes are only reached at or below the tile's depth, so they lie inside it.
+            for (int q = 0; q < 4; q++) {
+                int child = tree.child(node, q);
+                if (child >= 0) collect(child, zoom, tx, ty, out);
+            }
+        }
+    }
+
+    /** Groups a leaf's few points by cell. The leaf may be larger than the tile; points outside it are skipped. */
+    private void bucketLeaf(int node, int zoom, int tx, int ty, List<MapCluster> out) {
+        int cellDepth = zoom + CELL_SHIFT;
+        int count = tree.count(node);
+        long[] cells = new long[count];
+        double[] sumX = new double[count];
+        double[] sumY = new double[count];
+        int[] counts = new int[count];
+        int[] firstPoint = new int[count];
+        int groups = 0;
+        for (int i = 0; i < count; i++) {
+            int point = tree.point(node, i);
+            int cx = PointQuadtree.cell(tree.getX(point), cellDepth);
+            int cy = PointQuadtree.cell(tree.getY(point), cellDepth);
+            if (cx >> CELL_SHIFT != tx || cy >> CELL_SHIFT != ty) continue;
+            long cell = ((long) cx << 32) | cy;
+            int group = 0;
+            while (group < groups && cells[group] != cell) group++;
+            if (group == groups) {
+                cells[groups] = cell;
+                firstPoint[groups] = point;
+                groups++;
+            }
+            sumX[group] += tree.getX(point);
+            sumY[group] += tree.getY(point);
+            counts[group]++;
+        }
+        for (int group = 0; group < groups; group++) {
+            int groupCount = counts[group];
+            out.add(new MapCluster(sumX[group] / groupCount, sumY[group] / groupCount, groupCount,
+                    groupCount == 1 ? firstPoint[group] : -1));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.smartcommunicator.geo;
+
+import java.util.Arrays;
+
+/**
+ * A region quadtree over points in the unit square (see {@link WebMercator}). Node at depth d
+ * covers one cell of a 2^d by 2^d grid, the same cell as map tile (d, x, y), and knows how many
+ * points are in it and their centroid. So the points under a tile or a cluster cell are counted
+ * without visiting them, however many there are.
+ *
+ * A node is split when it holds more than {@link #LEAF_CAPACITY} points, down to
+ * {@link #MAX_DEPTH}, where points at the same address stay together. The points of every subtree
+ * sit next to each other in one array, and the nodes are flat arrays too. Immutable once built.
+ */
+public final class PointQuadtree {
+
+    static final int LEAF_CAPACITY = 16;
+    // Cells are a few metres wide here.
+    public static final int MAX_DEPTH = 24;
+
+    private final double[] xs;
+    private final double[] ys;
+    // Point ids, each subtree's contiguous.
+    private final int[] order;
+
+    private int nodeCount;
+    // Four per node, by quadrant (y * 2 + x); -1 for an empty quadrant. All -1 for a leaf.
+    private int[] children;
+    private int[] start;
+    private int[] end;
+    private byte[] depth;
+    private double[] sumX;
+    private double[] sumY;
+
+    /** @param xs and @param ys world coordinates; a point's id is its index */
+    public static PointQuadtree build(double[] xs, double[] ys) {
+        if (xs.length != ys.length) throw new IllegalArgumentException("xs and ys differ in length");
+        return new PointQuadtree(xs.clone(), ys.clone());
+    }
+
+    private PointQuadtree(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+        order = new int[xs.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        int capacity = Math.max(1, xs.length / LEAF_CAPACITY * 2);
+        children = new int[capacity * 4];
+        start = new int[capacity];
+        end = new int[capacity];
+        depth = new byte[capacity];
+        sumX = new double[capacity];
+        sumY = new double[capacity];
+        if (xs.length > 0) buildNode(0, 0, 0, 0, xs.length, new int[xs.length]);
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public double getX(int point) {
+        return xs[point];
+    }
+
+    public double getY(int point) {
+        return ys[point];
+    }
+
+    /**
+     * The node covering cell (cx, cy) at depth d: the node of exactly that cell, or a leaf
+     * above it that holds the cell's points among others, or -1 if the cell has no points.
+     */
+    public int nodeAt(int d, int cx, int cy) {
+        if (nodeCount == 0) return -1;
+        int node = 0;
+        while (depth[node] < d) {
+            if (isLeaf(node)) return node;
+            int shift = d - depth[node] - 1;
+            int quadrant = ((cy >> shift) & 1) * 2 + ((cx >> shift) & 1);
+            node = children[node * 4 + quadrant];
+            if (node < 0) return -1;
+        }
+        return node;
+    }
+
+    public boolean isLeaf(int node) {
+        int base = node * 4;
+        return children[base] < 0 && children[base + 1] < 0 && children[base + 2] < 0 && children[base + 3] < 0;
+    }
+
+    /** The node in quadrant (y * 2 + x) of this one, or -1. */
+    public int child(int node, int quadrant) {
+        return children[node * 4 + quadrant];
+    }
+
+    public int depth(int node) {
+        return depth[node];
+    }
+
+    public int count(int node) {
+        return end[node] - start[node];
+    }
+
+    public double centroidX(int node) {
+        return sumX[node] / count(node);
+    }
+
+    public double centroidY(int node) {
+        return sumY[node] / count(node);
+    }
+
+    /** The id of the {@code i}th point under the node. */
+    public int point(int node, int i) {
+        return order[start[node] + i];
+    }
+
+    /** The column of the cell holding {@code x} at depth d. */
+    public static int cell(double x, int d) {
+        int cells = 1 << d;
+        return Math.max(0, Math.min(cells - 1, (int) (x * cells)));
+    }
+
+    private int buildNode(int d, int cx, int cy, int from, int to, int[] scratch) {
+        int node = newNode(d, from, to);
+        double x = 0;
+        double y = 0;
+        for (int i = from; i < to; i++) {
+            x += xs[order[i]];
+            y += ys[order[i]];
+        }
+        sumX[node] = x;
+        sumY[node] = y;
+        if (to - from <= LEAF_CAPACITY || d == MAX_DEPTH) return node;
+
+        // Counting sort of the range by quadrant.
+        int[] quadrantStart = new int[5];
+        for (int i = from; i < to; i++) quadrantStart[quadrantOf(order[i], d, cx, cy) + 1]++;
+        for (int q = 1; q <= 4; q++) quadrantStart[q] += quadrantStart[q - 1];
+        int[] next = quadrantStart.clone();
+        for (int i = from; i < to; i++) {
+            scratch[from + next[quadrantOf(order[i], d, cx, cy)]++] = order[i];
+        }
+        System.arraycopy(scratch, from, order, from, to - from);
+
+        for (int q = 0; q < 4; q++) {
+            int childFrom = from + quadrantStart[q];
+            int childTo = from + quadrantStart[q + 1];
+            if (childFrom == childTo) continue;
+            int child = buildNode(d + 1, cx * 2 + (q & 1), cy * 2 + (q >> 1), childFrom, childTo, scratch);
+            children[node * 4 + q] = child;
+        }
+        return node;
+    }
+
+    private int quadrantOf(int point, int d, int cx, int cy) {
+        return (cell(ys[point], d + 1) - cy * 2) * 2 + (cell(xs[point], d + 1) - cx * 2);
+    }
+
+    private int newNode(int d, int from, int to) {
+        if (nodeCount == start.length) {
+            int capacity = nodeCount * 2;
+            children = Arrays.copyOf(children, capacity * 4);
+            start = Arrays.copyOf(start, capacity);
+            end = Arrays.copyOf(end, capacity);
+            depth = Arrays.copyOf(depth, capacity);
+            sumX = Arrays.copyOf(sumX, capacity);
+            sumY = Arrays.copyOf(sumY, capacity);
+        }
+        int node = nodeCount++;
+        Arrays.fill(children, node * 4, node * 4 + 4, -1);
+        start[node] = from;
+        end[node] = to;
+        depth[node] = (byte) d;
+        return node;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.smartcommunicator.geo;
+
+/**
+ * The projection map tiles use. The world is the unit square: x grows east from longitude -180,
+ * y grows south from about latitude 85.05, where the projection is cut off so the world is square.
+ * At zoom z it is 2^z tiles wide.
+ */
+public final class WebMercator {
+
+    public static final double MAX_LATITUDE = 85.05112878;
+
+    private WebMercator() { }
+
+    public static double x(double longitude) {
+        return clamp((longitude + 180) / 360);
+    }
+
+    public static double y(double latitude) {
+        double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude))));
+        return clamp(0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI));
+    }
+
+    public static double longitude(double x) {
+        return x * 360 - 180;
+    }
+
+    public static double latitude(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0, Math.min(1, value));
+    }
+}
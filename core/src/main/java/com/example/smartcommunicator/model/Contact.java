@@ -0,0 +1,101 @@
+package com.example.smartcommunicator.model;
+
+import java.util.Arrays;
+import java.util.Objects; // We need to import this for the new methods
+
+public class Contact {
+    // --- Number types: the platform's Phone.TYPE_* values, so they go to the provider as they are ---
+    public static final int TYPE_UNKNOWN = -1;
+    public static final int TYPE_HOME = 1;
+    public static final int TYPE_MOBILE = 2;
+    public static final int TYPE_WORK = 3;
+    public static final int TYPE_FAX_WORK = 4;
+    public static final int TYPE_FAX_HOME = 5;
+    public static final int TYPE_PAGER = 6;
+    public static final int TYPE_OTHER = 7;
+    public static final int TYPE_CAR = 9;
+
+    // --- UPDATED: These fields are now final and we have a lookupKey ---
+    private final String lookupKey; // This is the permanent ID from the phone's database
+    private final String name;
+    // --- One Contact per person: all of their numbers, with the primary one marked ---
+    private final String[] numbers;
+    private final int primaryNumberIndex;
+    // One per number, or null when the source did not say (the list does not keep them).
+    private final int[] numberTypes;
+
+    // --- UPDATED: The constructor now accepts the lookupKey ---
+    public Contact(String lookupKey, String name, String number) {
+        this(lookupKey, name, new String[]{ number }, 0);
+    }
+
+    public Contact(String lookupKey, String name, String[] numbers, int primaryNumberIndex) {
+        this(lookupKey, name, numbers, primaryNumberIndex, null);
+    }
+
+    /** @param numberTypes a {@code TYPE_*} per number, or null if they are not known */
+    public Contact(String lookupKey, String name, String[] numbers, int primaryNumberIndex, int[] numberTypes) {
+        this.lookupKey = lookupKey;
+        this.name = name;
+        this.numbers = numbers;
+        this.primaryNumberIndex = primaryNumberIndex;
+        this.numberTypes = numberTypes;
+    }
+
+    // --- NEW: Getter for the unique lookupKey ---
+    public String getLookupKey() {
+        return lookupKey;
+    }
+
+    // --- The old getters are still here, but they are now for final fields ---
+    public String getName() {
+        return name;
+    }
+
+    /** The primary number, or the first one if none is marked primary. */
+    public String getNumber() {
+        return numbers.length > 0 ? numbers[primaryNumberIndex] : null;
+    }
+
+    public int getNumberCount() {
+        return numbers.length;
+    }
+
+    public String getNumber(int index) {
+        return numbers[index];
+    }
+
+    public int getPrimaryNumberIndex() {
+        return primaryNumberIndex;
+    }
+
+    /** The number's {@code TYPE_*}, or {@link #TYPE_UNKNOWN}. */
+    public int getNumberType(int index) {
+        return numberTypes != null && index < numberTypes.length ? numberTypes[index] : TYPE_UNKNOWN;
+    }
+
+    /** Whether both show the same name and numbers, e.g. to decide if a list row needs rebinding. */
+    public boolean hasSameContent(Contact other) {
+        return Objects.equals(name, other.name)
+                && primaryNumberIndex == other.primaryNumberIndex
+                && Arrays.equals(numbers, other.numbers);
+    }
+
+    // --- DELETED: We have removed the setter methods (setName, setNumber) ---
+    // A contact's data should be read-only within the app.
+
+    // --- NEW: We need equals() and hashCode() for List.removeAll() to work correctly ---
+    // This ensures Java can identify contacts by their unique lookupKey.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Contact contact = (Contact) o;
+        return Objects.equals(lookupKey, contact.lookupKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lookupKey);
+    }
+}
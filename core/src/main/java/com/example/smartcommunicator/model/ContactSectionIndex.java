@@ -0,0 +1,128 @@
+package com.example.smartcommunicator.model;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Where each letter starts in a name-sorted list, for the fast-scroll rail and the section headers.
+ * The letter of every store row is worked out once, while loading ({@link #rowKeys}); the index of a
+ * filtered slice is then a single pass over its rows that never looks at a name again.
+ * A section is a run of rows with the same letter; a slice's pinned rows come first, as their own
+ * section. Immutable.
+ */
+public final class ContactSectionIndex {
+
+    public static final ContactSectionIndex EMPTY = new ContactSectionIndex(new String[0], new int[0]);
+
+    /** The label of a slice's pinned rows. */
+    public static final String PINNED_LABEL = "\u2605";
+
+    private static final String OTHER_LABEL = "#";
+    // Never a row key, which is 0 to 26.
+    private static final byte PINNED_KEY = -1;
+
+    private final String[] labels;
+    // First position of every section, ascending.
+    private final int[] starts;
+
+    private ContactSectionIndex(String[] labels, int[] starts) {
+        this.labels = labels;
+        this.starts = starts;
+    }
+
+    /**
+     * The section key of every store row: 1 to 26 for A to Z, ignoring case and accents, 0 for
+     * anything else. Rows before {@code knownRows} are taken from {@code known} unchanged, so a
+     * store that only grew at the end is not walked again.
+     *
+     * @return an array holding at least {@code store.size()} keys; may be {@code known} itself
+     */
+    public static byte[] rowKeys(ContactStore store, byte[] known, int knownRows) {
+        byte[] keys = known;
+        if (keys == null || keys.length < store.size()) {
+            keys = new byte[Math.max(store.size(), keys != null ? keys.length * 2 : 0)];
+            if (known != null) System.arraycopy(known, 0, keys, 0, Math.min(knownRows, known.length));
+        }
+        for (int row = Math.max(0, knownRows); row < store.size(); row++) {
+            keys[row] = keyOf(store.firstNameCodePoint(row));
+        }
+        return keys;
+    }
+
+    /** The sections of a slice, from the keys {@link #rowKeys} computed for its store. */
+    public static ContactSectionIndex of(ContactSlice slice, byte[] rowKeys) {
+        int[] starts = new int[28];
+        byte[] sectionKeys = new byte[28];
+        int count = 0;
+        int pinned = Math.min(slice.getPinnedCount(), slice.size());
+        if (pinned > 0) {
+            sectionKeys[count++] = PINNED_KEY;
+        }
+        for (int position = pinned; position < slice.size(); position++) {
+            byte key = rowKeys[slice.rowAt(position)];
+            if (count == 0 || sectionKeys[count - 1] != key) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    sectionKeys = Arrays.copyOf(sectionKeys, count * 2);
+                }
+                starts[count] = position;
+                sectionKeys[count++] = key;
+            }
+        }
+        String[] labels = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (sectionKeys[i] == PINNED_KEY) labels[i] = PINNED_LABEL;
+            else labels[i] = sectionKeys[i] == 0 ? OTHER_LABEL : String.valueOf((char) ('A' + sectionKeys[i] - 1));
+        }
+        return new ContactSectionIndex(labels, Arrays.copyOf(starts, count));
+    }
+
+    /** From a provider's address book index: a title and a row count per section. */
+    public static ContactSectionIndex fromCounts(String[] titles, int[] counts) {
+        if (titles == null || counts == null || titles.length != counts.length) return EMPTY;
+        String[] labels = new String[titles.length];
+        int[] starts = new int[titles.length];
+        int count = 0;
+        int position = 0;
+        for (int i = 0; i < titles.length; i++) {
+            if (counts[i] <= 0) continue;
+            labels[count] = titles[i];
+            starts[count++] = position;
+            position += counts[i];
+        }
+        return new ContactSectionIndex(Arrays.copyOf(labels, count), Arrays.copyOf(starts, count));
+    }
+
+    public int getSectionCount() {
+        return labels.length;
+    }
+
+    public String getLabel(int section) {
+        return labels[section];
+    }
+
+    public int getStart(int section) {
+        return starts[section];
+    }
+
+    /** The section the position belongs to, or -1 before the first one. */
+    public int getSectionForPosition(int position) {
+        int index = Arrays.binarySearch(starts, position);
+        return index >= 0 ? index : -(index + 1) - 1;
+    }
+
+    public boolean isSectionStart(int position) {
+        return Arrays.binarySearch(starts, position) >= 0;
+    }
+
+    private static byte keyOf(int codePoint) {
+        if (codePoint < 0) return 0;
+        int c = Character.toUpperCase(codePoint);
+        if (c > 0x7F && Character.isLetter(c)) {
+            // "É" files under "E": decompose and keep the base letter.
+            String decomposed = Normalizer.normalize(new String(Character.toChars(c)), Normalizer.Form.NFD);
+            c = Character.toUpperCase(decomposed.charAt(0));
+        }
+        return c >= 'A' && c <= 'Z' ? (byte) (c - 'A' + 1) : 0;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.smartcommunicator.model;
+
+/**
+ * Some rows of a {@link ContactStore} in display order, e.g. the results of a search.
+ * Only the row indices are kept, so a filtered list costs one int per match.
+ * The first {@link #getPinnedCount} rows may be pinned above the name order, e.g. the contacts
+ * used most; a pinned row can appear again further down. The rows after the pinned ones are in
+ * store order.
+ */
+public final class ContactSlice {
+
+    public static final ContactSlice EMPTY = new ContactSlice(ContactStore.EMPTY, null, 0);
+
+    private final ContactStore store;
+    // Null means every row of the store, in store order.
+    private final int[] rows;
+    private final int pinnedCount;
+
+    private ContactSlice(ContactStore store, int[] rows, int pinnedCount) {
+        this.store = store;
+        this.rows = rows;
+        this.pinnedCount = pinnedCount;
+    }
+
+    public static ContactSlice all(ContactStore store) {
+        return new ContactSlice(store, null, 0);
+    }
+
+    /** The given rows of the store. The array must not be modified afterwards. */
+    public static ContactSlice of(ContactStore store, int[] rows) {
+        return new ContactSlice(store, rows, 0);
+    }
+
+    /** Like {@link #of(ContactStore, int[])}, with the first {@code pinnedCount} rows pinned. */
+    public static ContactSlice of(ContactStore store, int[] rows, int pinnedCount) {
+        return new ContactSlice(store, rows, pinnedCount);
+    }
+
+    public ContactStore getStore() {
+        return store;
+    }
+
+    public int size() {
+        return rows != null ? rows.length : store.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int getPinnedCount() {
+        return pinnedCount;
+    }
+
+    /** The store row shown at the given position. */
+    public int rowAt(int position) {
+        return rows != null ? rows[position] : position;
+    }
+
+    /**
+     * Every position showing the row, ascending; two when a pinned row is also listed below.
+     * A look at the pinned few, then a binary search, since the rest are in store order.
+     */
+    public int[] positionsOf(int row) {
+        int first = -1;
+        for (int position = 0; position < pinnedCount; position++) {
+            if (rowAt(position) == row) {
+                first = position;
+                break;
+            }
+        }
+        int low = pinnedCount, high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (rowAt(middle) < row) low = middle + 1;
+            else high = middle;
+        }
+        int listed = low < size() && rowAt(low) == row ? low : -1;
+        if (first < 0) return listed < 0 ? new int[0] : new int[]{listed};
+        return listed < 0 ? new int[]{first} : new int[]{first, listed};
+    }
+
+    public String getLookupKey(int position) {
+        return store.getLookupKey(rowAt(position));
+    }
+
+    public Contact getContact(int position) {
+        return store.toContact(rowAt(position));
+    }
+}
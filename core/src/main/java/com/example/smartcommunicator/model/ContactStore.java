@@ -0,0 +1,454 @@
+package com.example.smartcommunicator.model;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The contact list in columnar form, so address books with 100k entries do not cost a
+ * {@link Contact} and its Strings per row. Every column is packed into a few arrays:
+ * <ul>
+ *   <li>lookupKeys and numbers: all characters in one char[], plus an int[] of start offsets,</li>
+ *   <li>names: split at spaces into pieces; each distinct piece ("Maria", "Smith") is stored once
+ *       and a name is a run of piece ids.</li>
+ * </ul>
+ * Rows are read by index, so the list can bind a row straight from the arrays. {@link #toContact}
+ * creates a Contact only where a whole one is needed, e.g. to call it.
+ *
+ * A store is immutable and can be shared between threads. Stores built one after another by the
+ * same {@link Builder} share their arrays, so appending a chunk does not copy the rows before it.
+ * Rows are kept in {@link #nameOrder}, the order the provider's queries return them in.
+ */
+public final class ContactStore {
+
+    public static final ContactStore EMPTY = new Builder().build();
+
+    private static final char PIECE_SEPARATOR = ' ';
+
+    /**
+     * The order of every name-sorted list: the default locale's collation, ignoring case and
+     * accents, as the provider sorts with COLLATE LOCALIZED. So "Émile" files with the E's, and a
+     * merged row lands where a fresh query would put it. A null name sorts as empty.
+     */
+    public static Comparator<String> nameOrder() {
+        Collator collator = Collator.getInstance();
+        collator.setStrength(Collator.PRIMARY);
+        return (a, b) -> collator.compare(a != null ? a : "", b != null ? b : "");
+    }
+
+    private final int size;
+    // Row i's lookupKey is keyChars[keyStarts[i] .. keyStarts[i + 1]).
+    private final char[] keyChars;
+    private final int[] keyStarts;
+    // Piece p is pieceChars[pieceStarts[p] .. pieceStarts[p + 1]).
+    private final char[] pieceChars;
+    private final int[] pieceStarts;
+    // Row i's name is the pieces namePieces[nameStarts[i] .. nameStarts[i + 1]) joined by spaces; none for a null name.
+    private final int[] namePieces;
+    private final int[] nameStarts;
+    // Number n is numberChars[numberStarts[n] .. numberStarts[n + 1]); row i owns numbers contactNumberStarts[i] .. contactNumberStarts[i + 1].
+    private final char[] numberChars;
+    private final int[] numberStarts;
+    private final int[] contactNumberStarts;
+    private final short[] primaryNumbers;
+    // Shared by every store one builder hands out; those only ever extend each other.
+    private final Object lineage;
+
+    private ContactStore(Builder builder) {
+        size = builder.size;
+        lineage = builder.lineage;
+        keyChars = builder.keyChars;
+        keyStarts = builder.keyStarts;
+        pieceChars = builder.pieceChars;
+        pieceStarts = builder.pieceStarts;
+        namePieces = builder.namePieces;
+        nameStarts = builder.nameStarts;
+        numberChars = builder.numberChars;
+        numberStarts = builder.numberStarts;
+        contactNumberStarts = builder.contactNumberStarts;
+        primaryNumbers = builder.primaryNumbers;
+    }
+
+    public static ContactStore of(List<Contact> contacts) {
+        Builder builder = new Builder();
+        for (Contact contact : contacts) {
+            builder.add(contact);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether this store holds all of {@code earlier}'s rows unchanged, followed by any rows added
+     * since. True for stores handed out one after another by the same {@link Builder}.
+     */
+    public boolean isExtensionOf(ContactStore earlier) {
+        return earlier != null && earlier.lineage == lineage && earlier.size <= size;
+    }
+
+    // --- lookupKey ---
+
+    public String getLookupKey(int row) {
+        return new String(keyChars, keyStarts[row], keyStarts[row + 1] - keyStarts[row]);
+    }
+
+    /** The same value as {@code getLookupKey(row).hashCode()}, without creating the String. */
+    public int lookupKeyHash(int row) {
+        int hash = 0;
+        for (int i = keyStarts[row]; i < keyStarts[row + 1]; i++) {
+            hash = 31 * hash + keyChars[i];
+        }
+        return hash;
+    }
+
+    public boolean hasLookupKey(int row, String lookupKey) {
+        int start = keyStarts[row];
+        int length = keyStarts[row + 1] - start;
+        if (lookupKey == null || lookupKey.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (keyChars[start + i] != lookupKey.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    public boolean hasSameLookupKey(int row, ContactStore other, int otherRow) {
+        return regionEquals(keyChars, keyStarts[row], keyStarts[row + 1],
+                other.keyChars, other.keyStarts[otherRow], other.keyStarts[otherRow + 1]);
+    }
+
+    // --- name ---
+
+    public String getName(int row) {
+        if (nameStarts[row] == nameStarts[row + 1]) return null;
+        char[] name = new char[nameLength(row)];
+        copyName(row, name);
+        return new String(name);
+    }
+
+    public int nameLength(int row) {
+        int start = nameStarts[row];
+        int end = nameStarts[row + 1];
+        if (start == end) return 0;
+        int length = end - start - 1;
+        for (int i = start; i < end; i++) {
+            length += pieceLength(namePieces[i]);
+        }
+        return length;
+    }
+
+    /**
+     * Copies the name into {@code destination}, which must hold at least {@link #nameLength} chars.
+     * Lets a row be bound without creating a String.
+     *
+     * @return the number of chars copied
+     */
+    public int copyName(int row, char[] destination) {
+        int length = 0;
+        for (int i = nameStarts[row]; i < nameStarts[row + 1]; i++) {
+            if (i > nameStarts[row]) destination[length++] = PIECE_SEPARATOR;
+            int piece = namePieces[i];
+            int pieceLength = pieceLength(piece);
+            System.arraycopy(pieceChars, pieceStarts[piece], destination, length, pieceLength);
+            length += pieceLength;
+        }
+        return length;
+    }
+
+    /** The first code point of the name, or -1 for a null or empty name. */
+    public int firstNameCodePoint(int row) {
+        if (nameLength(row) == 0) return -1;
+        int piece = namePieces[nameStarts[row]];
+        if (pieceLength(piece) == 0) return PIECE_SEPARATOR;
+        return Character.codePointAt(pieceChars, pieceStarts[piece], pieceStarts[piece + 1]);
+    }
+
+    // --- numbers ---
+
+    public int getNumberCount(int row) {
+        return contactNumberStarts[row + 1] - contactNumberStarts[row];
+    }
+
+    public String getNumber(int row, int index) {
+        int number = contactNumberStarts[row] + index;
+        return new String(numberChars, numberStarts[number], numberStarts[number + 1] - numberStarts[number]);
+    }
+
+    public int getPrimaryNumberIndex(int row) {
+        return primaryNumbers[row];
+    }
+
+    /** The primary number, or null if the contact has none. */
+    public String getPrimaryNumber(int row) {
+        return getNumberCount(row) > 0 ? getNumber(row, getPrimaryNumberIndex(row)) : null;
+    }
+
+    // --- whole rows ---
+
+    public Contact toContact(int row) {
+        String[] numbers = new String[getNumberCount(row)];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = getNumber(row, i);
+        }
+        return new Contact(getLookupKey(row), getName(row), numbers, getPrimaryNumberIndex(row));
+    }
+
+    /** Same as {@link Contact#hasSameContent}, for two rows that may live in different stores. */
+    public boolean hasSameContent(int row, ContactStore other, int otherRow) {
+        if (primaryNumbers[row] != other.primaryNumbers[otherRow]) return false;
+        int count = getNumberCount(row);
+        if (count != other.getNumberCount(otherRow)) return false;
+        for (int i = 0; i < count; i++) {
+            int a = contactNumberStarts[row] + i;
+            int b = other.contactNumberStarts[otherRow] + i;
+            if (!regionEquals(numberChars, numberStarts[a], numberStarts[a + 1],
+                    other.numberChars, other.numberStarts[b], other.numberStarts[b + 1])) return false;
+        }
+        // Splitting at spaces is deterministic, so equal names have equal pieces.
+        int pieces = nameStarts[row + 1] - nameStarts[row];
+        if (pieces != other.nameStarts[otherRow + 1] - other.nameStarts[otherRow]) return false;
+        for (int i = 0; i < pieces; i++) {
+            int a = namePieces[nameStarts[row] + i];
+            int b = other.namePieces[other.nameStarts[otherRow] + i];
+            if (pieceChars == other.pieceChars && a == b) continue;
+            if (!regionEquals(pieceChars, pieceStarts[a], pieceStarts[a + 1],
+                    other.pieceChars, other.pieceStarts[b], other.pieceStarts[b + 1])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a new store without the rows whose lookupKey is in {@code removedKeys} and with
+     * {@code added} merged in. Both this store and the result are kept in {@link #nameOrder}.
+     */
+    public ContactStore withChanges(Collection<String> removedKeys, List<Contact> added) {
+        // Hashes first, so most rows are ruled out without creating their key.
+        int[] removedHashes = new int[removedKeys.size()];
+        int h = 0;
+        for (String key : removedKeys) removedHashes[h++] = key.hashCode();
+        Arrays.sort(removedHashes);
+
+        Comparator<String> order = nameOrder();
+        List<Contact> sorted = new ArrayList<>(added);
+        sorted.sort((a, b) -> order.compare(a.getName(), b.getName()));
+        // Where each added contact goes: before the first row that sorts after it. A binary search
+        // each, so only a few names are created; removing rows does not move these places.
+        int[] insertAt = new int[sorted.size()];
+        int low = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            String name = sorted.get(i).getName();
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (order.compare(getName(middle), name) <= 0) low = middle + 1;
+                else high = middle;
+            }
+            insertAt[i] = low;
+        }
+
+        Builder builder = new Builder(this);
+        int next = 0;
+        for (int row = 0; row < size; row++) {
+            while (next < sorted.size() && insertAt[next] <= row) {
+                builder.add(sorted.get(next++));
+            }
+            if (removedHashes.length > 0 && Arrays.binarySearch(removedHashes, lookupKeyHash(row)) >= 0
+                    && removedKeys.contains(getLookupKey(row))) {
+                continue;
+            }
+            builder.copyRow(this, row);
+        }
+        while (next < sorted.size()) {
+            builder.add(sorted.get(next++));
+        }
+        return builder.build();
+    }
+
+    private int pieceLength(int piece) {
+        return pieceStarts[piece + 1] - pieceStarts[piece];
+    }
+
+    private static boolean regionEquals(char[] a, int aStart, int aEnd, char[] b, int bStart, int bEnd) {
+        if (aEnd - aStart != bEnd - bStart) return false;
+        for (int i = 0; i < aEnd - aStart; i++) {
+            if (a[aStart + i] != b[bStart + i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Appends rows and hands out stores over what was added so far. Only ever writes past the
+     * rows of the stores it already built, so those stay valid while it keeps appending.
+     * Not thread safe; a built store may be read on any thread.
+     */
+    public static final class Builder {
+        private final Object lineage = new Object();
+        private int size = 0;
+        private char[] keyChars = new char[256];
+        private int keyLength = 0;
+        private int[] keyStarts = new int[17];
+        private char[] pieceChars = new char[256];
+        private int pieceLength = 0;
+        private int[] pieceStarts = new int[17];
+        private int pieceCount = 0;
+        private int[] namePieces = new int[32];
+        private int namePieceCount = 0;
+        private int[] nameStarts = new int[17];
+        private char[] numberChars = new char[256];
+        private int numberLength = 0;
+        private int[] numberStarts = new int[17];
+        private int numberCount = 0;
+        private int[] contactNumberStarts = new int[17];
+        private short[] primaryNumbers = new short[16];
+        // Built on first use, so a builder seeded from a store only pays for it when new pieces arrive.
+        private Map<String, Integer> pieceIds;
+
+        public Builder() { }
+
+        // Starts from a copy of the store's pieces, so its rows can be copied by piece id.
+        private Builder(ContactStore base) {
+            pieceCount = countPieces(base);
+            pieceLength = base.pieceStarts[pieceCount];
+            pieceChars = Arrays.copyOf(base.pieceChars, Math.max(pieceLength, 16));
+            pieceStarts = Arrays.copyOf(base.pieceStarts, pieceCount + 17);
+        }
+
+        // The piece table can be longer than what the base uses, when its builder went on after it.
+        private static int countPieces(ContactStore base) {
+            int highest = -1;
+            for (int i = 0; i < base.nameStarts[base.size]; i++) {
+                highest = Math.max(highest, base.namePieces[i]);
+            }
+            return highest + 1;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public Builder add(Contact contact) {
+            String[] numbers = new String[contact.getNumberCount()];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = contact.getNumber(i);
+            }
+            return add(contact.getLookupKey(), contact.getName(), numbers, contact.getPrimaryNumberIndex());
+        }
+
+        /** Adds one row. A null lookupKey or number is stored as empty. */
+        public Builder add(String lookupKey, String name, String[] numbers, int primaryNumberIndex) {
+            ensureRowCapacity();
+            appendKey(lookupKey != null ? lookupKey : "");
+            if (name != null) {
+                int start = 0;
+                while (true) {
+                    int end = name.indexOf(PIECE_SEPARATOR, start);
+                    appendNamePiece(pieceId(end < 0 ? name.substring(start) : name.substring(start, end)));
+                    if (end < 0) break;
+                    start = end + 1;
+                }
+            }
+            nameStarts[size + 1] = namePieceCount;
+            for (String number : numbers) {
+                appendNumber(number != null ? number : "");
+            }
+            contactNumberStarts[size + 1] = numberCount;
+            primaryNumbers[size] = (short) primaryNumberIndex;
+            size++;
+            return this;
+        }
+
+        // Copies a row of the store this builder was seeded from; piece ids mean the same in both.
+        private void copyRow(ContactStore store, int row) {
+            ensureRowCapacity();
+            keyChars = ensure(keyChars, keyLength + store.keyStarts[row + 1] - store.keyStarts[row]);
+            for (int i = store.keyStarts[row]; i < store.keyStarts[row + 1]; i++) {
+                keyChars[keyLength++] = store.keyChars[i];
+            }
+            keyStarts[size + 1] = keyLength;
+            for (int i = store.nameStarts[row]; i < store.nameStarts[row + 1]; i++) {
+                appendNamePiece(store.namePieces[i]);
+            }
+            nameStarts[size + 1] = namePieceCount;
+            for (int n = store.contactNumberStarts[row]; n < store.contactNumberStarts[row + 1]; n++) {
+                int length = store.numberStarts[n + 1] - store.numberStarts[n];
+                numberChars = ensure(numberChars, numberLength + length);
+                System.arraycopy(store.numberChars, store.numberStarts[n], numberChars, numberLength, length);
+                numberLength += length;
+                numberStarts = ensure(numberStarts, numberCount + 2);
+                numberStarts[++numberCount] = numberLength;
+            }
+            contactNumberStarts[size + 1] = numberCount;
+            primaryNumbers[size] = store.primaryNumbers[row];
+            size++;
+        }
+
+        /** A store over every row added so far. Cheap: the arrays are shared, not copied. */
+        public ContactStore build() {
+            return new ContactStore(this);
+        }
+
+        private void ensureRowCapacity() {
+            if (size + 2 > keyStarts.length) {
+                int capacity = keyStarts.length * 2;
+                keyStarts = Arrays.copyOf(keyStarts, capacity);
+                nameStarts = Arrays.copyOf(nameStarts, capacity);
+                contactNumberStarts = Arrays.copyOf(contactNumberStarts, capacity);
+                primaryNumbers = Arrays.copyOf(primaryNumbers, capacity);
+            }
+        }
+
+        private void appendKey(String key) {
+            keyChars = ensure(keyChars, keyLength + key.length());
+            key.getChars(0, key.length(), keyChars, keyLength);
+            keyLength += key.length();
+            keyStarts[size + 1] = keyLength;
+        }
+
+        private void appendNumber(String number) {
+            numberChars = ensure(numberChars, numberLength + number.length());
+            number.getChars(0, number.length(), numberChars, numberLength);
+            numberLength += number.length();
+            numberStarts = ensure(numberStarts, numberCount + 2);
+            numberStarts[++numberCount] = numberLength;
+        }
+
+        private void appendNamePiece(int piece) {
+            namePieces = ensure(namePieces, namePieceCount + 1);
+            namePieces[namePieceCount++] = piece;
+        }
+
+        private int pieceId(String piece) {
+            if (pieceIds == null) {
+                pieceIds = new HashMap<>(Math.max(16, pieceCount * 2));
+                for (int p = 0; p < pieceCount; p++) {
+                    pieceIds.put(new String(pieceChars, pieceStarts[p], pieceStarts[p + 1] - pieceStarts[p]), p);
+                }
+            }
+            Integer id = pieceIds.get(piece);
+            if (id != null) return id;
+            pieceChars = ensure(pieceChars, pieceLength + piece.length());
+            piece.getChars(0, piece.length(), pieceChars, pieceLength);
+            pieceLength += piece.length();
+            pieceStarts = ensure(pieceStarts, pieceCount + 2);
+            pieceStarts[++pieceCount] = pieceLength;
+            pieceIds.put(piece, pieceCount - 1);
+            return pieceCount - 1;
+        }
+
+        // Growing always copies, so stores built earlier keep the array they were given.
+        private static char[] ensure(char[] array, int needed) {
+            return needed <= array.length ? array : Arrays.copyOf(array, Math.max(needed, array.length * 2));
+        }
+
+        private static int[] ensure(int[] array, int needed) {
+            return needed <= array.length ? array : Arrays.copyOf(array, Math.max(needed, array.length * 2));
+        }
+    }
+}
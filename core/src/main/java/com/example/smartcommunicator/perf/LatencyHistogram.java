@@ -0,0 +1,95 @@
+package com.example.smartcommunicator.perf;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in log-linear buckets: each power of two is split into 16 buckets, so any
+ * reported percentile is within 1/16 (6.25%) of the true value, from a nanosecond up to years.
+ * Recording is a few atomic adds with no allocation or lock, so it can sit on hot paths and be
+ * called from any thread. Memory is fixed at under 8 KB, however many values are recorded.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Enough for any positive long.
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getMeanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : totalNanos.get() / n;
+    }
+
+    /**
+     * The duration that {@code fraction} of the recorded values do not exceed, e.g. 0.95 for p95,
+     * rounded up to its bucket's end. 0 if nothing was recorded. Values recorded while this runs
+     * may or may not be counted.
+     */
+    public long getPercentileNanos(double fraction) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(bucketEnd(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    /** Forgets everything recorded so far, e.g. before comparing a new run. */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) counts.set(i, 0);
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    // Values below 16 get a bucket each; above, the top 5 bits pick the power of two and the sub-bucket.
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /** The largest value that falls in the bucket. */
+    static long bucketEnd(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long start = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        long end = start + (1L << shift) - 1;
+        // The top bucket would run past Long.MAX_VALUE.
+        return end < start ? Long.MAX_VALUE : end;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.smartcommunicator.search;
+
+import com.example.smartcommunicator.model.ContactSlice;
+import com.example.smartcommunicator.model.ContactStore;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A prebuilt search index over a {@link ContactStore}. Names are lowercased and numbers
+ * stripped of whitespace once, at build time, and every 3-character piece (trigram) of
+ * either field points to the rows that contain it. All numbers of a contact are searched. A query of 3 or more characters
+ * only has to look at the rows shared by all of its trigrams instead of the whole store.
+ *
+ * The matching rule is the same as the old linear filter: the lowercased name contains the
+ * lowercased query, or one of the whitespace-free numbers contains it. Results keep store order.
+ * The prepared text is packed into two char arrays, like the store itself.
+ * The index is immutable, so it can be built on one thread and queried from another.
+ */
+public final class ContactSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] NO_POSITIONS = new int[0];
+    // Joins a contact's numbers; it never occurs in a query, so no match can span two numbers.
+    private static final char NUMBER_SEPARATOR = '\u0000';
+
+    private final ContactStore store;
+    // Row i's prepared name is names[nameStarts[i] .. nameStarts[i + 1]), likewise for numbers.
+    private final char[] names;
+    private final int[] nameStarts;
+    private final char[] numbers;
+    private final int[] numberStarts;
+    private final Map<Long, int[]> postings;
+
+    private ContactSearchIndex(ContactStore store, char[] names, int[] nameStarts, char[] numbers, int[] numberStarts,
+                               Map<Long, int[]> postings) {
+        this.store = store;
+        this.names = names;
+        this.nameStarts = nameStarts;
+        this.numbers = numbers;
+        this.numberStarts = numberStarts;
+        this.postings = postings;
+    }
+
+    public static ContactSearchIndex build(ContactStore store) {
+        int count = store.size();
+        StringBuilder names = new StringBuilder(count * 12);
+        StringBuilder numbers = new StringBuilder(count * 12);
+        int[] nameStarts = new int[count + 1];
+        int[] numberStarts = new int[count + 1];
+        Map<Long, PostingBuilder> builders = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = store.getName(i);
+            names.append(name != null ? name.toLowerCase() : "");
+            nameStarts[i + 1] = names.length();
+            appendJoinedNumbers(store, i, numbers);
+            numberStarts[i + 1] = numbers.length();
+            addGrams(names, nameStarts[i], nameStarts[i + 1], i, builders);
+            addGrams(numbers, numberStarts[i], numberStarts[i + 1], i, builders);
+        }
+        Map<Long, int[]> postings = new HashMap<>(builders.size() * 2);
+        for (Map.Entry<Long, PostingBuilder> entry : builders.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return new ContactSearchIndex(store, toChars(names), nameStarts, toChars(numbers), numberStarts, postings);
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    /** Returns the matching rows in store order. An empty query matches everything. */
+    public ContactSlice search(String query) {
+        if (query == null || query.isEmpty()) {
+            return ContactSlice.all(store);
+        }
+        return ContactSlice.of(store, searchPositions(query.toLowerCase()));
+    }
+
+    /** The store rows of every contact matching an already lowercased, non-empty query. */
+    public int[] searchPositions(String lowerCaseQuery) {
+        if (lowerCaseQuery.length() < GRAM_LENGTH) {
+            // Too short for a trigram; a scan over the prepared text is still allocation free.
+            int[] positions = new int[store.size()];
+            int count = 0;
+            for (int i = 0; i < positions.length; i++) {
+                if (matchesAt(i, lowerCaseQuery)) positions[count++] = i;
+            }
+            return Arrays.copyOf(positions, count);
+        }
+        // Every trigram matched, but not necessarily next to each other.
+        return refine(candidates(lowerCaseQuery), lowerCaseQuery);
+    }
+
+    /**
+     * Narrows earlier results to the ones that also match a longer query. Any contact matching
+     * "smit" was already among the results for "smi", so there is no need to look further.
+     */
+    public int[] refine(int[] previousPositions, String lowerCaseQuery) {
+        int[] positions = new int[previousPositions.length];
+        int count = 0;
+        for (int position : previousPositions) {
+            if (matchesAt(position, lowerCaseQuery)) positions[count++] = position;
+        }
+        return count == positions.length ? positions : Arrays.copyOf(positions, count);
+    }
+
+    /** Whether the row would be found by the query. Used where no index has been built yet. */
+    public static boolean matches(ContactStore store, int row, String lowerCaseQuery) {
+        String name = store.getName(row);
+        if (name != null && name.toLowerCase().contains(lowerCaseQuery)) return true;
+        for (int i = 0; i < store.getNumberCount(row); i++) {
+            if (stripWhitespace(store.getNumber(row, i)).contains(lowerCaseQuery)) return true;
+        }
+        return false;
+    }
+
+    private static void appendJoinedNumbers(ContactStore store, int row, StringBuilder out) {
+        for (int i = 0; i < store.getNumberCount(row); i++) {
+            if (i > 0) out.append(NUMBER_SEPARATOR);
+            String number = store.getNumber(row, i);
+            for (int c = 0; c < number.length(); c++) {
+                if (!Character.isWhitespace(number.charAt(c))) out.append(number.charAt(c));
+            }
+        }
+    }
+
+    private static char[] toChars(StringBuilder builder) {
+        char[] chars = new char[builder.length()];
+        builder.getChars(0, chars.length, chars, 0);
+        return chars;
+    }
+
+    /** The number without spaces, tabs or line breaks, built without a regex. */
+    public static String stripWhitespace(String number) {
+        int length = number.length();
+        int i = 0;
+        while (i < length && !Character.isWhitespace(number.charAt(i))) i++;
+        if (i == length) return number;
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(number, 0, i);
+        for (; i < length; i++) {
+            char c = number.charAt(i);
+            if (!Character.isWhitespace(c)) builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    private boolean matchesAt(int position, String lowerCaseQuery) {
+        return contains(names, nameStarts[position], nameStarts[position + 1], lowerCaseQuery)
+                || contains(numbers, numberStarts[position], numberStarts[position + 1], lowerCaseQuery);
+    }
+
+    // String.contains() over a range of a char array.
+    private static boolean contains(char[] text, int start, int end, String query) {
+        int last = end - query.length();
+        char first = query.charAt(0);
+        for (int i = start; i <= last; i++) {
+            if (text[i] != first) continue;
+            int j = 1;
+            while (j < query.length() && text[i + j] == query.charAt(j)) j++;
+            if (j == query.length()) return true;
+        }
+        return false;
+    }
+
+    // Intersects the posting lists of every trigram in the query, starting with the shortest one.
+    private int[] candidates(String query) {
+        int gramCount = query.length() - GRAM_LENGTH + 1;
+        int[][] lists = new int[gramCount][];
+        for (int i = 0; i < gramCount; i++) {
+            int[] list = postings.get(gram(query, i));
+            if (list == null) return NO_POSITIONS;
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] current = lists[0];
+        for (int i = 1; i < lists.length && current.length > 0; i++) {
+            current = intersect(current, lists[i]);
+        }
+        return current;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static void addGrams(CharSequence text, int start, int end, int position, Map<Long, PostingBuilder> builders) {
+        for (int i = start; i + GRAM_LENGTH <= end; i++) {
+            Long key = gram(text, i);
+            PostingBuilder builder = builders.get(key);
+            if (builder == null) {
+                builder = new PostingBuilder();
+                builders.put(key, builder);
+            }
+            builder.add(position);
+        }
+    }
+
+    // Three UTF-16 chars packed into one long.
+    private static long gram(CharSequence text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /** A growable, sorted, duplicate-free int list. Positions are always added in increasing order. */
+    private static final class PostingBuilder {
+        private int[] values = new int[4];
+        private int size = 0;
+
+        void add(int position) {
+            if (size > 0 && values[size - 1] == position) return;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
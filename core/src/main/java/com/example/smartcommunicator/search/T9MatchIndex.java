@@ -0,0 +1,253 @@
+package com.example.smartcommunicator.search;
+
+import com.example.smartcommunicator.model.ContactStore;
+
+import java.util.Arrays;
+
+/**
+ * Dial-pad (T9) lookup over a {@link ContactStore}. Every name is turned into keypad digits
+ * once ("John Smith" becomes 564676484) and all of a contact's numbers into their plain digits.
+ *
+ * Two sorted tables answer a digit query with a binary search instead of a scan:
+ * <ul>
+ *   <li>names: one entry per word start, so "76484" finds Smith and "5646" finds John,</li>
+ *   <li>numbers: one entry per suffix, so any run of digits inside a number is found
+ *       (a suffix array, which answers the same queries as a suffix trie in far less memory).</li>
+ * </ul>
+ * The index is immutable; use a {@link T9Matcher} to narrow results while the user types.
+ */
+public final class T9MatchIndex {
+
+    // Where a hit was found. Lower values rank higher.
+    static final int KIND_NAME_START = 0;
+    static final int KIND_WORD_START = 1;
+    static final int KIND_NUMBER = 2;
+
+    private static final char[] KEYPAD = "22233344455566677778889999".toCharArray();
+    // Separates a contact's numbers in its digit string, so no match runs from one number into the next.
+    private static final char NUMBER_SEPARATOR = '|';
+
+    final ContactStore store;
+    final String[] nameDigits;
+    final String[] numberDigits;
+
+    // Each entry packs (contact position << 16 | offset into the digit string), sorted by the digits from there on.
+    private final long[] nameEntries;
+    private final long[] numberEntries;
+
+    private T9MatchIndex(ContactStore store, String[] nameDigits, String[] numberDigits, long[] nameEntries, long[] numberEntries) {
+        this.store = store;
+        this.nameDigits = nameDigits;
+        this.numberDigits = numberDigits;
+        this.nameEntries = nameEntries;
+        this.numberEntries = numberEntries;
+    }
+
+    public static T9MatchIndex build(ContactStore store) {
+        String[] nameDigits = new String[store.size()];
+        String[] numberDigits = new String[store.size()];
+        LongList nameEntries = new LongList();
+        LongList numberEntries = new LongList();
+        for (int i = 0; i < store.size(); i++) {
+            nameDigits[i] = toKeypadDigits(store.getName(i), i, nameEntries);
+            numberDigits[i] = joinedNumberDigits(store, i);
+            for (int offset = 0; offset < numberDigits[i].length() && offset <= 0xFFFF; offset++) {
+                if (numberDigits[i].charAt(offset) != NUMBER_SEPARATOR) {
+                    numberEntries.add(pack(i, offset));
+                }
+            }
+        }
+        return new T9MatchIndex(store, nameDigits, numberDigits,
+                sortEntries(nameEntries.toArray(), nameDigits), sortEntries(numberEntries.toArray(), numberDigits));
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    /** The digits typed on a dial pad, dropping '+', spaces, dashes and the like. */
+    public static String digitsOnly(String text) {
+        if (text == null) return "";
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    private static String joinedNumberDigits(ContactStore store, int row) {
+        if (store.getNumberCount(row) == 1) return digitsOnly(store.getNumber(row, 0));
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < store.getNumberCount(row); i++) {
+            if (i > 0) builder.append(NUMBER_SEPARATOR);
+            builder.append(digitsOnly(store.getNumber(row, i)));
+        }
+        return builder.toString();
+    }
+
+    /** Collects every hit for the digits into the list. */
+    void findHits(String digits, LongList hits) {
+        collect(nameEntries, nameDigits, digits, hits, true);
+        collect(numberEntries, numberDigits, digits, hits, false);
+    }
+
+    /** Whether the digits still match at the place an earlier, shorter query matched. */
+    boolean stillMatches(long hit, String digits) {
+        int position = positionOf(hit);
+        String source = kindOf(hit) == KIND_NUMBER ? numberDigits[position] : nameDigits[position];
+        return source.startsWith(digits, offsetOf(hit));
+    }
+
+    // Hits are packed as (kind << 48 | contact position << 16 | offset).
+    static long hit(int kind, int position, int offset) {
+        return ((long) kind << 48) | pack(position, offset);
+    }
+
+    static int kindOf(long hit) {
+        return (int) (hit >>> 48);
+    }
+
+    static int positionOf(long hit) {
+        return (int) ((hit >>> 16) & 0xFFFFFFFFL);
+    }
+
+    static int offsetOf(long hit) {
+        return (int) (hit & 0xFFFF);
+    }
+
+    private void collect(long[] entries, String[] sources, String digits, LongList hits, boolean isName) {
+        int index = lowerBound(entries, sources, digits);
+        for (; index < entries.length; index++) {
+            long entry = entries[index];
+            int position = (int) (entry >>> 16);
+            int offset = (int) (entry & 0xFFFF);
+            if (!sources[position].startsWith(digits, offset)) break;
+            int kind = isName ? (offset == 0 ? KIND_NAME_START : KIND_WORD_START) : KIND_NUMBER;
+            hits.add(hit(kind, position, offset));
+        }
+    }
+
+    // The first entry whose digits are not smaller than the query.
+    private static int lowerBound(long[] entries, String[] sources, String digits) {
+        int low = 0, high = entries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long entry = entries[middle];
+            if (compare(sources[(int) (entry >>> 16)], (int) (entry & 0xFFFF), digits, 0) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(String a, int aOffset, String b, int bOffset) {
+        int aLength = a.length() - aOffset;
+        int bLength = b.length() - bOffset;
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            int difference = a.charAt(aOffset + i) - b.charAt(bOffset + i);
+            if (difference != 0) return difference;
+        }
+        return aLength - bLength;
+    }
+
+    // A bottom-up merge sort on the packed entries themselves, so nothing is boxed. Short runs are
+    // insertion sorted first, since most neighbouring suffixes differ in their first digits.
+    private static long[] sortEntries(long[] entries, String[] sources) {
+        final int run = 16;
+        for (int from = 0; from < entries.length; from += run) {
+            int to = Math.min(entries.length, from + run);
+            for (int i = from + 1; i < to; i++) {
+                long entry = entries[i];
+                int j = i - 1;
+                while (j >= from && compareEntries(entries[j], entry, sources) > 0) {
+                    entries[j + 1] = entries[j];
+                    j--;
+                }
+                entries[j + 1] = entry;
+            }
+        }
+        long[] source = entries;
+        long[] target = new long[entries.length];
+        for (int width = run; width < entries.length; width *= 2) {
+            for (int from = 0; from < entries.length; from += 2 * width) {
+                int middle = Math.min(entries.length, from + width);
+                int to = Math.min(entries.length, from + 2 * width);
+                int left = from, right = middle, out = from;
+                while (left < middle && right < to) {
+                    target[out++] = compareEntries(source[left], source[right], sources) <= 0 ? source[left++] : source[right++];
+                }
+                System.arraycopy(source, left, target, out, middle - left);
+                System.arraycopy(source, right, target, out + middle - left, to - right);
+            }
+            long[] swap = source;
+            source = target;
+            target = swap;
+        }
+        return source;
+    }
+
+    private static int compareEntries(long x, long y, String[] sources) {
+        return compare(sources[(int) (x >>> 16)], (int) (x & 0xFFFF), sources[(int) (y >>> 16)], (int) (y & 0xFFFF));
+    }
+
+    // Maps letters to their keypad digit, keeps digits and drops everything else,
+    // recording where each word starts in the resulting digit string.
+    private static String toKeypadDigits(String name, int position, LongList wordStarts) {
+        if (name == null) return "";
+        StringBuilder builder = new StringBuilder(name.length());
+        boolean atWordStart = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            char digit;
+            if (c >= 'a' && c <= 'z') {
+                digit = KEYPAD[c - 'a'];
+            } else if (c >= '0' && c <= '9') {
+                digit = c;
+            } else {
+                atWordStart = true;
+                continue;
+            }
+            if (atWordStart && builder.length() <= 0xFFFF) {
+                wordStarts.add(pack(position, builder.length()));
+                atWordStart = false;
+            }
+            builder.append(digit);
+        }
+        return builder.toString();
+    }
+
+    private static long pack(int position, int offset) {
+        return ((long) position << 16) | offset;
+    }
+
+    /** A growable long array, so building and narrowing do not box every entry. */
+    static final class LongList {
+        private long[] values = new long[16];
+        private int size = 0;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        long get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
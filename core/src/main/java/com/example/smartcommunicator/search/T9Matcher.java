@@ -0,0 +1,88 @@
+package com.example.smartcommunicator.search;
+
+import com.example.smartcommunicator.model.Contact;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matches what is being typed into a dial pad against a {@link T9MatchIndex}.
+ * When a digit is added, only the previous hits are re-checked instead of searching the
+ * index again; any other edit starts a fresh lookup. Not thread safe: one matcher per input field.
+ */
+public final class T9Matcher {
+
+    private final T9MatchIndex index;
+    private String lastDigits = "";
+    private T9MatchIndex.LongList hits = new T9MatchIndex.LongList();
+
+    public T9Matcher(T9MatchIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Returns up to {@code limit} contacts for the typed text, best first: names that start with
+     * the digits, then names with a word that starts with them, then numbers that contain them.
+     */
+    public List<Contact> match(String typed, int limit) {
+        String digits = T9MatchIndex.digitsOnly(typed);
+        if (digits.isEmpty()) {
+            lastDigits = "";
+            hits.clear();
+            return new ArrayList<>();
+        }
+        if (!lastDigits.isEmpty() && digits.startsWith(lastDigits)) {
+            T9MatchIndex.LongList narrowed = new T9MatchIndex.LongList();
+            for (int i = 0; i < hits.size(); i++) {
+                if (index.stillMatches(hits.get(i), digits)) narrowed.add(hits.get(i));
+            }
+            hits = narrowed;
+        } else {
+            hits.clear();
+            index.findHits(digits, hits);
+        }
+        lastDigits = digits;
+        return rank(limit);
+    }
+
+    private List<Contact> rank(int limit) {
+        // The packed hits order by kind first, then by list position, which is exactly the ranking.
+        // Only the best few are shown, so they are taken off a heap instead of sorting every hit.
+        long[] heap = hits.toArray();
+        int size = heap.length;
+        for (int i = size / 2 - 1; i >= 0; i--) siftDown(heap, i, size);
+        int[] picked = new int[Math.min(limit, size)];
+        List<Contact> result = new ArrayList<>(picked.length);
+        while (size > 0 && result.size() < limit) {
+            int position = T9MatchIndex.positionOf(heap[0]);
+            heap[0] = heap[--size];
+            siftDown(heap, 0, size);
+            // A contact can be hit more than once; its best hit came first.
+            if (!contains(picked, result.size(), position)) {
+                picked[result.size()] = position;
+                result.add(index.store.toContact(position));
+            }
+        }
+        return result;
+    }
+
+    private static void siftDown(long[] heap, int at, int size) {
+        long value = heap[at];
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= value) break;
+            heap[at] = heap[child];
+            at = child;
+        }
+        heap[at] = value;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+}
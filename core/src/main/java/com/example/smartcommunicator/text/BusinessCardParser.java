@@ -0,0 +1,134 @@
+package com.example.smartcommunicator.text;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Pulls a name and a phone number out of a business card's OCR text.
+ * The number is the best candidate of {@link PhoneNumberExtractor}. The name is the first line that
+ * reads like one: two to four capitalised words and nothing else, which leaves out company names,
+ * job titles, addresses and contact details. A name printed in capitals is given title case.
+ *
+ * Plain Java, with no state between calls.
+ */
+public final class BusinessCardParser {
+
+    private static final int MIN_NAME_WORDS = 2;
+    private static final int MAX_NAME_WORDS = 4;
+    private static final Pattern FIELD_SEPARATORS = Pattern.compile("[|,\u2022\u00b7]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // A line with one of these words is a company or a job, not a person.
+    private static final String[] NOT_NAME_WORDS = {
+            "inc", "llc", "llp", "ltd", "gmbh", "corp", "co", "company", "group", "bakery", "clinic", "services",
+            "manager", "engineer", "director", "directrice", "president", "ceo", "cto", "cfo", "founder", "partner",
+            "designer", "consultant", "sales", "marketing", "senior", "junior", "head", "lead", "officer",
+            "account", "customer", "service", "support", "street", "st", "road", "rd", "avenue", "ave", "suite"
+    };
+
+    /** A card's name and number; either may be missing. Immutable. */
+    public static final class Card {
+        private final String name;
+        private final PhoneCandidate phone;
+
+        Card(String name, PhoneCandidate phone) {
+            this.name = name;
+            this.phone = phone;
+        }
+
+        /** The person's name, or "" if no line looked like one. */
+        public String getName() {
+            return name;
+        }
+
+        /** The number, or null if the card has none. */
+        public String getNumber() {
+            return phone != null ? phone.getNumber() : null;
+        }
+
+        /** How sure the extractor is of the number, or 0 without one. */
+        public float getNumberConfidence() {
+            return phone != null ? phone.getConfidence() : 0f;
+        }
+    }
+
+    private final PhoneNumberExtractor extractor;
+
+    public BusinessCardParser(PhoneNumberExtractor extractor) {
+        this.extractor = extractor;
+    }
+
+    public Card parse(String text) {
+        return new Card(findName(text), extractor.best(text));
+    }
+
+    static String findName(String text) {
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) lineEnd = text.length();
+            // "Lena Park | Designer": a line can hold several fields.
+            for (String field : FIELD_SEPARATORS.split(text.substring(lineStart, lineEnd))) {
+                String name = asName(field.trim());
+                if (name != null) return name;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return "";
+    }
+
+    /** The line as a name, or null if it does not look like one. */
+    private static String asName(String line) {
+        if (line.isEmpty()) return null;
+        String[] words = WHITESPACE.split(line);
+        if (words.length < MIN_NAME_WORDS || words.length > MAX_NAME_WORDS) return null;
+        StringBuilder name = new StringBuilder(line.length());
+        for (String word : words) {
+            if (!isNameWord(word) || isNotNameWord(word)) return null;
+            if (name.length() > 0) name.append(' ');
+            appendTitleCase(word, name);
+        }
+        return name.toString();
+    }
+
+    // "Natarajan", "O'Neil", "Smith-Jones", "Dr."; a capital first, letters after.
+    private static boolean isNameWord(String word) {
+        if (!Character.isUpperCase(word.charAt(0))) return false;
+        for (int i = 1; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (!Character.isLetter(c) && c != '-' && c != '\'' && !(c == '.' && i == word.length() - 1)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isNotNameWord(String word) {
+        String lower = word.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".")) lower = lower.substring(0, lower.length() - 1);
+        for (String notName : NOT_NAME_WORDS) {
+            if (notName.equals(lower)) return true;
+        }
+        return false;
+    }
+
+    // Leaves mixed case alone ("McAdams"); only an all-capitals word is lowered after its first letter.
+    private static void appendTitleCase(String word, StringBuilder out) {
+        boolean allCaps = true;
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isLowerCase(word.charAt(i))) {
+                allCaps = false;
+                break;
+            }
+        }
+        if (!allCaps || word.length() == 1) {
+            out.append(word);
+            return;
+        }
+        boolean wordStart = true;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            out.append(wordStart ? c : Character.toLowerCase(c));
+            // "SMITH-JONES" becomes "Smith-Jones".
+            wordStart = c == '-' || c == '\'';
+        }
+    }
+}
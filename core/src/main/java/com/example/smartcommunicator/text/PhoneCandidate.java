@@ -0,0 +1,52 @@
+package com.example.smartcommunicator.text;
+
+/**
+ * A phone number found in recognized text, with how sure the extractor is that it is one.
+ * Immutable.
+ */
+public final class PhoneCandidate {
+
+    private final String number;
+    private final float confidence;
+    private final int start;
+    private final int end;
+    private final int confusions;
+
+    PhoneCandidate(String number, float confidence, int start, int end, int confusions) {
+        this.number = number;
+        this.confidence = confidence;
+        this.start = start;
+        this.end = end;
+        this.confusions = confusions;
+    }
+
+    /** The digits, with a leading '+' if the text had one; letters misread for digits are corrected. */
+    public String getNumber() {
+        return number;
+    }
+
+    /** From 0 to 1. */
+    public float getConfidence() {
+        return confidence;
+    }
+
+    /** Where the number starts in the text. */
+    public int getStart() {
+        return start;
+    }
+
+    /** Where the number ends in the text, exclusive. */
+    public int getEnd() {
+        return end;
+    }
+
+    /** How many of the digits were read as look-alike letters, like 'O' for '0'. */
+    public int getConfusions() {
+        return confusions;
+    }
+
+    @Override
+    public String toString() {
+        return number + " (" + confidence + ")";
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.smartcommunicator.text;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the phone numbers in OCR text, such as a business card read by the camera.
+ * The text is walked once: every run of digits and the punctuation numbers are written with
+ * becomes a candidate, and each candidate is scored on what real numbers look like: its length,
+ * how its digits are grouped, whether its prefix is plausible, the label in front of it ("Tel",
+ * "Fax") and how many letters had to be read as digits. OCR often returns 'O' for '0' or 'l' for
+ * '1'; such letters are taken as digits when they sit in a number, at a cost to the score.
+ *
+ * Plain Java, with no state between calls, so one instance can be shared by any number of threads.
+ */
+public final class PhoneNumberExtractor {
+
+    // E.164 caps a number at 15 digits; anything under 7 is an extension, a year, a postcode.
+    public static final int MIN_DIGITS = 7;
+    public static final int MAX_DIGITS = 15;
+    // best() returns nothing less likely than this.
+    public static final float MIN_CONFIDENCE = 0.45f;
+
+    // Longest run read in one go; a longer one is cut there and the rest read as a new run.
+    private static final int MAX_RUN_DIGITS = 48;
+    private static final int MAX_RUN_GROUPS = 24;
+    private static final float BASE_SCORE = 0.3f;
+    // How far back a label like "Tel:" may be from its number.
+    private static final int MAX_LABEL_GAP = 4;
+    private static final int MAX_LABEL_LENGTH = 10;
+
+    private static final String[] PHONE_LABELS = {
+            "tel", "telephone", "phone", "ph", "mobile", "mob", "cell", "call", "direct", "office", "t", "m", "p", "c"
+    };
+    private static final String[] FAX_LABELS = {"fax", "f"};
+
+    private static final PhoneNumberExtractor INSTANCE = new PhoneNumberExtractor();
+
+    public static PhoneNumberExtractor getInstance() {
+        return INSTANCE;
+    }
+
+    /** Every candidate in the text, most likely first; a number found twice is listed once. */
+    public List<PhoneCandidate> extractAll(CharSequence text) {
+        List<PhoneCandidate> candidates = new ArrayList<>();
+        scan(text, candidates);
+        Collections.sort(candidates, (a, b) -> Float.compare(b.getConfidence(), a.getConfidence()));
+        // Sorted, so the first of a number is its best reading.
+        for (int i = candidates.size() - 1; i > 0; i--) {
+            String number = candidates.get(i).getNumber();
+            for (int j = 0; j < i; j++) {
+                if (candidates.get(j).getNumber().equals(number)) {
+                    candidates.remove(i);
+                    break;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /** The most likely candidate, or null if none reaches {@link #MIN_CONFIDENCE}. */
+    public PhoneCandidate best(CharSequence text) {
+        List<PhoneCandidate> candidates = new ArrayList<>();
+        scan(text, candidates);
+        PhoneCandidate best = null;
+        for (PhoneCandidate candidate : candidates) {
+            if (best == null || candidate.getConfidence() > best.getConfidence()) best = candidate;
+        }
+        return best != null && best.getConfidence() >= MIN_CONFIDENCE ? best : null;
+    }
+
+    private void scan(CharSequence text, List<PhoneCandidate> out) {
+        Run run = new Run();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (startsRun(text, i)) {
+                i = run.read(text, i);
+                run.emit(text, out);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static boolean startsRun(CharSequence text, int i) {
+        char c = text.charAt(i);
+        if (isDigit(c)) return true;
+        boolean digitNext = i + 1 < text.length() && isDigit(text.charAt(i + 1));
+        if (c == '+' || c == '(') return digitNext;
+        // "O55 0132" is a number; the "l" of "Tel5" is not.
+        return digitNext && lookAlikeDigit(c) != 0 && (i == 0 || !Character.isLetter(text.charAt(i - 1)));
+    }
+
+    /** The state of one run of number characters; reused for every run of a scan. */
+    private static final class Run {
+        final char[] digits = new char[MAX_RUN_DIGITS];
+        final boolean[] confused = new boolean[MAX_RUN_DIGITS];
+        // Per group: its first digit, and where it starts and ends in the text.
+        final int[] groupFirstDigit = new int[MAX_RUN_GROUPS + 1];
+        final int[] groupStart = new int[MAX_RUN_GROUPS];
+        final int[] groupEnd = new int[MAX_RUN_GROUPS];
+        int digitCount;
+        int groupCount;
+        int start;
+        boolean plus;
+        int openParens;
+        int closeParens;
+
+        /** Reads the run starting at {@code from}; returns where the next run may start. */
+        int read(CharSequence text, int from) {
+            digitCount = 0;
+            groupCount = 0;
+            start = from;
+            plus = false;
+            openParens = 0;
+            closeParens = 0;
+            boolean inGroup = false;
+            int separators = 0;
+            char previous = 0;
+            int i = from;
+            for (; i < text.length(); i++) {
+                char c = text.charAt(i);
+                char digit = isDigit(c) ? c : 0;
+                if (digit == 0 && lookAlikeDigit(c) != 0) {
+                    char next = i + 1 < text.length() ? text.charAt(i + 1) : ' ';
+                    boolean nextIsWordLetter = Character.isLetter(next) && lookAlikeDigit(next) == 0;
+                    // "Ol23": a look-alike may also be followed by another one before the digits.
+                    boolean digitAhead = isDigit(next) || (lookAlikeDigit(next) != 0
+                            && i + 2 < text.length() && isDigit(text.charAt(i + 2)));
+                    if ((inGroup || digitAhead) && !nextIsWordLetter) digit = lookAlikeDigit(c);
+                }
+                if (digit != 0) {
+                    if (digitCount == MAX_RUN_DIGITS || (!inGroup && groupCount == MAX_RUN_GROUPS)) break;
+                    if (!inGroup) {
+                        groupFirstDigit[groupCount] = digitCount;
+                        groupStart[groupCount] = i;
+                        groupCount++;
+                        inGroup = true;
+                    }
+                    confused[digitCount] = !isDigit(c);
+                    digits[digitCount++] = digit;
+                    groupEnd[groupCount - 1] = i + 1;
+                    separators = 0;
+                } else if (c == '+' && digitCount == 0 && !plus) {
+                    plus = true;
+                } else if (isSeparator(c)) {
+                    // Two spaces in a row, or a long stretch of punctuation, is a gap between fields.
+                    if (Character.isWhitespace(c) && Character.isWhitespace(previous)) break;
+                    if (++separators > 3) break;
+                    // A bracket opens the area code; once a whole number is read it opens an aside, like "(24/7)".
+                    if (c == '(' && digitCount >= MIN_DIGITS) break;
+                    if (c == '(') openParens++;
+                    if (c == ')') closeParens++;
+                    inGroup = false;
+                } else {
+                    break;
+                }
+                previous = c;
+            }
+            groupFirstDigit[groupCount] = digitCount;
+            return Math.max(i, from + 1);
+        }
+
+        /** Adds the candidates of the run just read. */
+        void emit(CharSequence text, List<PhoneCandidate> out) {
+            if (digitCount < MIN_DIGITS) return;
+            float labelScore = labelScore(text, start);
+            if (digitCount <= MAX_DIGITS) {
+                out.add(candidate(0, groupCount, plus, labelScore + parenScore()));
+                return;
+            }
+            // Too long for one number: likely several written next to each other. Cut at group
+            // boundaries into pieces of national length.
+            int group = 0;
+            while (group < groupCount) {
+                int end = group;
+                int count = 0;
+                while (end < groupCount && count < 10 && count + groupLength(end) <= MAX_DIGITS) {
+                    count += groupLength(end++);
+                }
+                if (end == group) {
+                    group++;
+                    continue;
+                }
+                if (count >= MIN_DIGITS) {
+                    out.add(candidate(group, end, plus && group == 0, group == 0 ? labelScore : 0f));
+                }
+                group = end;
+            }
+        }
+
+        private int groupLength(int group) {
+            return groupFirstDigit[group + 1] - groupFirstDigit[group];
+        }
+
+        private float parenScore() {
+            if (openParens == 0 && closeParens == 0) return 0f;
+            return openParens == closeParens ? 0.05f : -0.05f;
+        }
+
+        private PhoneCandidate candidate(int firstGroup, int endGroup, boolean withPlus, float contextScore) {
+            int from = groupFirstDigit[firstGroup];
+            int to = groupFirstDigit[endGroup];
+            int length = to - from;
+            int confusions = 0;
+            for (int d = from; d < to; d++) {
+                if (confused[d]) confusions++;
+            }
+
+            float score = BASE_SCORE + contextScore;
+            score += lengthScore(from, length, withPlus);
+            score += groupingScore(firstGroup, endGroup, withPlus, length);
+            score += prefixScore(from, length, withPlus);
+            score -= 0.12f * confusions;
+            score = Math.max(0f, Math.min(1f, score));
+
+            String number = withPlus ? "+" + new String(digits, from, length) : new String(digits, from, length);
+            // The first piece of a run also takes its leading '+' or '('.
+            int textStart = firstGroup == 0 ? start : groupStart[firstGroup];
+            return new PhoneCandidate(number, score, textStart, groupEnd[endGroup - 1], confusions);
+        }
+
+        private float lengthScore(int from, int length, boolean withPlus) {
+            if (withPlus) return length >= 8 ? 0.15f : -0.1f;
+            if (length == 10) return 0.2f;
+            if (length == 11) return digits[from] == '1' || digits[from] == '0' ? 0.15f : 0f;
+            if (length >= 12) {
+                // "00" dials out of the country, like '+'.
+                return digits[from] == '0' && digits[from + 1] == '0' ? 0.1f : -0.15f;
+            }
+            // Short: a local number, but also a postcode or a date.
+            return -0.05f;
+        }
+
+        private float groupingScore(int firstGroup, int endGroup, boolean withPlus, int length) {
+            int groups = endGroup - firstGroup;
+            if (groups == 1) {
+                // One solid block is common for mobiles, but so is an account number.
+                return length == 10 || length == 11 ? 0.05f : -0.05f;
+            }
+            float score = 0.2f;
+            boolean pairs = false;
+            for (int g = firstGroup; g < endGroup; g++) {
+                int size = groupLength(g);
+                // A country code or trunk prefix may stand alone; any other group is 2 to 4 digits.
+                boolean leading = g == firstGroup && (withPlus || digits[groupFirstDigit[g]] == '0' || digits[groupFirstDigit[g]] == '1');
+                if (size > 5 || (size == 1 && !leading)) {
+                    score -= 0.15f;
+                } else if (size == 5) {
+                    score -= 0.05f;
+                }
+                pairs |= size == 2;
+            }
+            // Pairs make up whole numbers in some countries ("01 23 45 67 89"), but in a short run
+            // they are more often a date.
+            if (pairs && length < 10 && !withPlus) score -= 0.1f;
+            if (groupLength(endGroup - 1) < 2) score -= 0.1f;
+            return score;
+        }
+
+        private float prefixScore(int from, int length, boolean withPlus) {
+            float score = 0f;
+            if (withPlus) {
+                // There is no country code starting with 0.
+                score += digits[from] == '0' ? -0.3f : 0.05f;
+            }
+            // North American numbers: neither the area code nor the exchange starts with 0 or 1.
+            int national = -1;
+            if (length == 10 && !withPlus) national = from;
+            if (length == 11 && digits[from] == '1') national = from + 1;
+            if (national >= 0 && digits[national] != '0') {
+                score += digits[national] >= '2' && digits[national + 3] >= '2' ? 0.1f : -0.1f;
+            }
+            boolean allSame = true;
+            for (int d = from + 1; d < from + length; d++) {
+                if (digits[d] != digits[from]) {
+                    allSame = false;
+                    break;
+                }
+            }
+            if (allSame) score -= 0.3f;
+            return score;
+        }
+    }
+
+    /** Up for "Tel:", "Mobile", "T." in front of the number, down for "Fax". */
+    static float labelScore(CharSequence text, int runStart) {
+        int i = runStart - 1;
+        int gap = 0;
+        while (i >= 0 && gap < MAX_LABEL_GAP && !Character.isLetterOrDigit(text.charAt(i)) && text.charAt(i) != '\n') {
+            i--;
+            gap++;
+        }
+        int end = i + 1;
+        while (i >= 0 && end - i <= MAX_LABEL_LENGTH && Character.isLetter(text.charAt(i))) {
+            i--;
+        }
+        int start = i + 1;
+        if (start == end || (i >= 0 && Character.isLetter(text.charAt(i)))) return 0f;
+        if (matchesAny(text, start, end, FAX_LABELS)) return -0.25f;
+        if (matchesAny(text, start, end, PHONE_LABELS)) return 0.15f;
+        return 0f;
+    }
+
+    private static boolean matchesAny(CharSequence text, int start, int end, String[] labels) {
+        for (String label : labels) {
+            if (label.length() != end - start) continue;
+            boolean match = true;
+            for (int k = 0; k < label.length(); k++) {
+                if (Character.toLowerCase(text.charAt(start + k)) != label.charAt(k)) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match) return true;
+        }
+        return false;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '-' || c == '.' || c == '(' || c == ')'
+                || c == '\u00a0' || c == '\u2010' || c == '\u2013';
+    }
+
+    /** The digit OCR commonly mistakes this letter for, or 0. */
+    static char lookAlikeDigit(char c) {
+        switch (c) {
+            case 'O':
+            case 'o':
+            case 'Q':
+            case 'D':
+                return '0';
+            case 'l':
+            case 'I':
+            case '|':
+                return '1';
+            case 'Z':
+            case 'z':
+                return '2';
+            case 'S':
+            case 's':
+                return '5';
+            case 'B':
+                return '8';
+            default:
+                return 0;
+        }
+    }
+}
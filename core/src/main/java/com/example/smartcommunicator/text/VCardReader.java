@@ -0,0 +1,294 @@
+package com.example.smartcommunicator.text;
+
+import com.example.smartcommunicator.model.Contact;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads contacts from a vCard stream (versions 2.1, 3.0 and 4.0) one card at a time, so a file
+ * with tens of thousands of cards is parsed in the memory of one. Only the name and the phone
+ * numbers are kept. A property line longer than {@link #MAX_LINE_LENGTH} is cut there while the
+ * rest of it is skipped, which keeps embedded photos from being buffered.
+ *
+ * Understands folded lines, quoted-printable values with their soft line breaks, and backslash
+ * escapes. Wrap the source in a buffered reader; this reads it one char at a time.
+ *
+ * The kind of each number (TEL;TYPE=CELL and so on) goes on the contact as a {@code Contact.TYPE_*}.
+ */
+public final class VCardReader implements Closeable {
+
+    public static final int MAX_LINE_LENGTH = 8 * 1024;
+
+    private final Reader in;
+    private final StringBuilder line = new StringBuilder(256);
+    // One char of lookahead, to tell a folded line from the next property; -2 when none is held.
+    private int lookahead = -2;
+
+    public VCardReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * The next card with a name or a number, or null at the end of the stream.
+     * The contact's lookupKey is null, since it is not in the provider yet.
+     */
+    public Contact next() throws IOException {
+        boolean inCard = false;
+        String formattedName = null;
+        String structuredName = null;
+        List<String> numbers = new ArrayList<>();
+        List<Integer> types = new ArrayList<>();
+        int primary = -1;
+        while (readLogicalLine()) {
+            int colon = valueStart(line);
+            if (colon < 0) continue;
+            String params = line.substring(0, colon);
+            String name = propertyName(params);
+            if (!inCard) {
+                inCard = name.equals("BEGIN") && line.substring(colon + 1).trim().equalsIgnoreCase("VCARD");
+                continue;
+            }
+            switch (name) {
+                case "END":
+                    if (formattedName == null || formattedName.isEmpty()) formattedName = structuredName;
+                    if ((formattedName == null || formattedName.isEmpty()) && numbers.isEmpty()) {
+                        inCard = false;
+                        continue;
+                    }
+                    int[] numberTypes = new int[types.size()];
+                    for (int i = 0; i < numberTypes.length; i++) numberTypes[i] = types.get(i);
+                    return new Contact(null, formattedName != null ? formattedName : "",
+                            numbers.toArray(new String[0]), Math.max(0, primary), numberTypes);
+                case "FN":
+                    formattedName = unescape(decode(params, colon)).trim();
+                    break;
+                case "N":
+                    structuredName = joinNameParts(decode(params, colon));
+                    break;
+                case "TEL":
+                    String number = unescape(decode(params, colon)).trim();
+                    if (number.startsWith("tel:")) number = number.substring(4);
+                    if (number.isEmpty()) break;
+                    if (primary < 0 && isPreferred(params)) primary = numbers.size();
+                    numbers.add(number);
+                    types.add(numberType(params));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads one property into {@link #line}, joining folded lines and quoted-printable soft breaks.
+     * @return false at the end of the stream
+     */
+    private boolean readLogicalLine() throws IOException {
+        line.setLength(0);
+        boolean any = false;
+        while (true) {
+            int c = read();
+            if (c == -1) return any;
+            any = true;
+            if (c == '\r') continue;
+            if (c != '\n') {
+                if (line.length() < MAX_LINE_LENGTH) line.append((char) c);
+                continue;
+            }
+            int next = peek();
+            if (next == ' ' || next == '\t') {
+                // A folded line: the leading white space is not part of the value.
+                read();
+                continue;
+            }
+            if (line.length() > 0 && line.charAt(line.length() - 1) == '=' && isQuotedPrintable(line)) {
+                // A soft line break: the value goes on, unindented, on the next line.
+                line.setLength(line.length() - 1);
+                continue;
+            }
+            return true;
+        }
+    }
+
+    private int read() throws IOException {
+        if (lookahead != -2) {
+            int c = lookahead;
+            lookahead = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private int peek() throws IOException {
+        if (lookahead == -2) lookahead = in.read();
+        return lookahead;
+    }
+
+    // The first ':' outside a quoted parameter value.
+    private static int valueStart(CharSequence property) {
+        boolean quoted = false;
+        for (int i = 0; i < property.length(); i++) {
+            char c = property.charAt(i);
+            if (c == '"') quoted = !quoted;
+            else if (c == ':' && !quoted) return i;
+        }
+        return -1;
+    }
+
+    // "item1.TEL;TYPE=CELL" is TEL.
+    private static String propertyName(String params) {
+        int end = params.indexOf(';');
+        String name = end < 0 ? params : params.substring(0, end);
+        int group = name.lastIndexOf('.');
+        if (group >= 0) name = name.substring(group + 1);
+        return name.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean isQuotedPrintable(CharSequence property) {
+        int colon = valueStart(property);
+        if (colon < 0) return false;
+        return property.subSequence(0, colon).toString().toUpperCase(Locale.ROOT).contains("QUOTED-PRINTABLE");
+    }
+
+    // "TEL;TYPE=CELL,PREF", "TEL;PREF=1" and the 2.1 form "TEL;CELL;PREF".
+    private static boolean isPreferred(String params) {
+        String upper = params.toUpperCase(Locale.ROOT);
+        for (String param : upper.split(";")) {
+            if (param.equals("PREF") || param.startsWith("PREF=")) return true;
+            if (param.startsWith("TYPE=")) {
+                for (String type : param.substring(5).replace("\"", "").split(",")) {
+                    if (type.equals("PREF")) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // "TEL;TYPE=WORK,FAX", "TEL;TYPE=\"cell\"" and the 2.1 form "TEL;HOME;FAX"; TYPE_OTHER for VOICE or none.
+    private static int numberType(String params) {
+        boolean home = false;
+        boolean work = false;
+        boolean fax = false;
+        for (String param : params.toUpperCase(Locale.ROOT).split(";")) {
+            String values = param.startsWith("TYPE=") ? param.substring(5) : param;
+            if (values.indexOf('=') >= 0) continue;
+            for (String type : values.replace("\"", "").split(",")) {
+                switch (type.trim()) {
+                    case "CELL":
+                        return Contact.TYPE_MOBILE;
+                    case "PAGER":
+                        return Contact.TYPE_PAGER;
+                    case "CAR":
+                        return Contact.TYPE_CAR;
+                    case "HOME":
+                        home = true;
+                        break;
+                    case "WORK":
+                        work = true;
+                        break;
+                    case "FAX":
+                        fax = true;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        if (fax) return work || !home ? Contact.TYPE_FAX_WORK : Contact.TYPE_FAX_HOME;
+        if (work) return Contact.TYPE_WORK;
+        return home ? Contact.TYPE_HOME : Contact.TYPE_OTHER;
+    }
+
+    /** The raw value of the property in {@link #line}, decoded if it is quoted-printable. */
+    private String decode(String params, int colon) {
+        String value = line.substring(colon + 1);
+        String upper = params.toUpperCase(Locale.ROOT);
+        if (!upper.contains("QUOTED-PRINTABLE")) return value;
+        Charset charset = StandardCharsets.UTF_8;
+        int charsetAt = upper.indexOf("CHARSET=");
+        if (charsetAt >= 0) {
+            int end = upper.indexOf(';', charsetAt);
+            String charsetName = params.substring(charsetAt + 8, end < 0 ? params.length() : end).replace("\"", "");
+            try {
+                charset = Charset.forName(charsetName);
+            } catch (IllegalArgumentException e) {
+                // Unknown charset: UTF-8 is the best guess.
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '=' && i + 2 < value.length()) {
+                int high = Character.digit(value.charAt(i + 1), 16);
+                int low = Character.digit(value.charAt(i + 2), 16);
+                if (high >= 0 && low >= 0) {
+                    bytes.write(high * 16 + low);
+                    i += 2;
+                    continue;
+                }
+            }
+            bytes.write(c);
+        }
+        return new String(bytes.toByteArray(), charset);
+    }
+
+    // N is "Family;Given;Middle;Prefix;Suffix"; shown as "Prefix Given Middle Family Suffix".
+    private static String joinNameParts(String value) {
+        List<String> parts = splitUnescaped(value, ';');
+        int[] order = {3, 1, 2, 0, 4};
+        StringBuilder name = new StringBuilder();
+        for (int index : order) {
+            if (index >= parts.size()) continue;
+            String part = unescape(parts.get(index)).trim();
+            if (part.isEmpty()) continue;
+            if (name.length() > 0) name.append(' ');
+            name.append(part);
+        }
+        return name.toString();
+    }
+
+    private static List<String> splitUnescaped(String value, char separator) {
+        List<String> parts = new ArrayList<>(5);
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == separator) {
+                parts.add(value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(value.substring(start));
+        return parts;
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                out.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
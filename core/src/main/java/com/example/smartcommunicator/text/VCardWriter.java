@@ -0,0 +1,119 @@
+package com.example.smartcommunicator.text;
+
+import com.example.smartcommunicator.model.Contact;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes contacts as vCard 3.0, one card per {@link #write} call, straight to the underlying
+ * writer: nothing is kept between cards, so exporting a large address book needs no more memory
+ * than its biggest contact. Lines are folded at 75 octets of UTF-8 and end in CRLF, as RFC 2426 asks.
+ */
+public final class VCardWriter implements Flushable, Closeable {
+
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(128);
+
+    public VCardWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void write(Contact contact) throws IOException {
+        writeLine("BEGIN:VCARD");
+        writeLine("VERSION:3.0");
+        String name = escape(contact.getName());
+        writeLine("FN:" + name);
+        // The provider keeps one display name; it goes in N as the given name, which 3.0 requires.
+        writeLine("N:;" + name + ";;;");
+        for (int i = 0; i < contact.getNumberCount(); i++) {
+            String type = telType(contact.getNumberType(i));
+            if (i == contact.getPrimaryNumberIndex()) type += ",PREF";
+            writeLine("TEL;TYPE=" + type + ":" + escape(contact.getNumber(i)));
+        }
+        writeLine("END:VCARD");
+    }
+
+    // The reverse of VCardReader's mapping; anything it does not name is a plain voice number.
+    private static String telType(int type) {
+        switch (type) {
+            case Contact.TYPE_MOBILE:
+                return "CELL";
+            case Contact.TYPE_HOME:
+                return "HOME";
+            case Contact.TYPE_WORK:
+                return "WORK";
+            case Contact.TYPE_FAX_WORK:
+                return "WORK,FAX";
+            case Contact.TYPE_FAX_HOME:
+                return "HOME,FAX";
+            case Contact.TYPE_PAGER:
+                return "PAGER";
+            case Contact.TYPE_CAR:
+                return "CAR";
+            default:
+                return "VOICE";
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeLine(String content) throws IOException {
+        line.setLength(0);
+        int octets = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            // A surrogate pair is written whole, so a fold never splits a character.
+            int length = Character.isHighSurrogate(c) && i + 1 < content.length() ? 2 : 1;
+            int size = length == 2 ? 4 : utf8Length(c);
+            if (octets + size > MAX_LINE_OCTETS) {
+                line.append("\r\n ");
+                octets = 1;
+            }
+            line.append(content, i, i + length);
+            octets += size;
+            i += length - 1;
+        }
+        line.append("\r\n");
+        out.append(line);
+    }
+
+    private static int utf8Length(char c) {
+        if (c < 0x80) return 1;
+        if (c < 0x800) return 2;
+        return 3;
+    }
+
+    static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '\\') replacement = "\\\\";
+            else if (c == ';') replacement = "\\;";
+            else if (c == ',') replacement = "\\,";
+            else if (c == '\n') replacement = "\\n";
+            else if (c == '\r') replacement = "";
+            else replacement = null;
+            if (replacement == null) {
+                if (escaped != null) escaped.append(c);
+                continue;
+            }
+            if (escaped == null) escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            escaped.append(replacement);
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.smartcommunicator.usage;
+
+import com.example.smartcommunicator.model.ContactSlice;
+import com.example.smartcommunicator.model.ContactStore;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Puts the most used contacts first. The full list gets a "frequent" head: the top contacts,
+ * pinned above the A to Z list, where they also stay. In search results the used matches are moved
+ * up, best first, and the rest keep name order. Both pass over the rows once and match them by
+ * lookupKey hash, so no String is created per row.
+ */
+public final class UsageRanker {
+
+    public static final int PINNED_LIMIT = 5;
+    // One use about two weeks ago still counts as frequent; one use two months ago does not.
+    static final double MIN_FREQUENT_SCORE = 0.5;
+    // A search boost fades out slower, after about seven weeks for a single use.
+    static final double MIN_BOOST_SCORE = 0.1;
+
+    private UsageRanker() { }
+
+    /** Every row of the store in store order, headed by up to {@link #PINNED_LIMIT} frequent contacts. */
+    public static ContactSlice withFrequent(ContactStore store, UsageScores scores, long nowMs) {
+        List<String> top = scores.top(PINNED_LIMIT, MIN_FREQUENT_SCORE, nowMs);
+        if (top.isEmpty()) return ContactSlice.all(store);
+        KeyTable table = new KeyTable(top);
+        int[] pinnedRows = new int[top.size()];
+        Arrays.fill(pinnedRows, -1);
+        for (int row = 0; row < store.size(); row++) {
+            int rank = table.indexOf(store, row);
+            if (rank >= 0 && pinnedRows[rank] < 0) pinnedRows[rank] = row;
+        }
+        // A used contact may have been deleted since.
+        int pinned = 0;
+        for (int row : pinnedRows) {
+            if (row >= 0) pinnedRows[pinned++] = row;
+        }
+        if (pinned == 0) return ContactSlice.all(store);
+        int[] rows = new int[pinned + store.size()];
+        System.arraycopy(pinnedRows, 0, rows, 0, pinned);
+        for (int row = 0; row < store.size(); row++) {
+            rows[pinned + row] = row;
+        }
+        return ContactSlice.of(store, rows, pinned);
+    }
+
+    /**
+     * The matching rows with up to {@link #PINNED_LIMIT} used contacts moved to the front, highest
+     * score first. The positions are store rows in store order, as the search index returns them.
+     */
+    public static ContactSlice boost(ContactStore store, int[] positions, UsageScores scores, long nowMs) {
+        List<String> used = scores.top(UsageScores.MAX_ENTRIES, MIN_BOOST_SCORE, nowMs);
+        if (used.isEmpty() || positions.length == 0) return ContactSlice.of(store, positions);
+        KeyTable table = new KeyTable(used);
+        // Ranks into the used list, which is already sorted by score.
+        int[] boosted = new int[Math.min(PINNED_LIMIT, positions.length)];
+        int[] boostedRanks = new int[boosted.length];
+        int count = 0;
+        for (int position : positions) {
+            int rank = table.indexOf(store, position);
+            if (rank < 0) continue;
+            // Insertion into a list of at most PINNED_LIMIT, keeping the best ranks.
+            int at = count;
+            while (at > 0 && boostedRanks[at - 1] > rank) at--;
+            if (at >= boosted.length) continue;
+            int end = Math.min(count, boosted.length - 1);
+            System.arraycopy(boosted, at, boosted, at + 1, end - at);
+            System.arraycopy(boostedRanks, at, boostedRanks, at + 1, end - at);
+            boosted[at] = position;
+            boostedRanks[at] = rank;
+            count = Math.min(count + 1, boosted.length);
+        }
+        if (count == 0) return ContactSlice.of(store, positions);
+        int[] rows = new int[positions.length];
+        System.arraycopy(boosted, 0, rows, 0, count);
+        int next = count;
+        for (int position : positions) {
+            if (!contains(boosted, count, position)) rows[next++] = position;
+        }
+        return ContactSlice.of(store, rows, count);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    /** A few lookupKeys, found by the hash the store can compute without creating a String. */
+    private static final class KeyTable {
+        private final String[] keys;
+        private final int[] hashes;
+        private final int[] order;
+
+        KeyTable(List<String> keyList) {
+            keys = keyList.toArray(new String[0]);
+            long[] packed = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                packed[i] = ((long) keys[i].hashCode() << 32) | i;
+            }
+            Arrays.sort(packed);
+            hashes = new int[keys.length];
+            order = new int[keys.length];
+            for (int i = 0; i < packed.length; i++) {
+                hashes[i] = (int) (packed[i] >> 32);
+                order[i] = (int) packed[i];
+            }
+        }
+
+        /** The position of the row's lookupKey in the list, or -1. */
+        int indexOf(ContactStore store, int row) {
+            int hash = store.lookupKeyHash(row);
+            int at = Arrays.binarySearch(hashes, hash);
+            if (at < 0) return -1;
+            // Equal hashes sit next to each other; step back to the first one.
+            while (at > 0 && hashes[at - 1] == hash) at--;
+            for (; at < hashes.length && hashes[at] == hash; at++) {
+                if (store.hasLookupKey(row, keys[order[at]])) return order[at];
+            }
+            return -1;
+        }
+    }
+}
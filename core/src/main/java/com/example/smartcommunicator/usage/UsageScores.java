@@ -0,0 +1,131 @@
+package com.example.smartcommunicator.usage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How often and how recently each contact was called or messaged, keyed by lookupKey.
+ * Every use adds 1 to the contact's score and the score halves every {@link #HALF_LIFE_MS}, so a
+ * contact used daily last month ranks below one used a few times this week.
+ *
+ * Only the score at the last use and the time of that use are kept; the decay is applied when a
+ * score is read. Recording is a single map update. Not thread safe; hand a {@link #copy} to
+ * another thread.
+ */
+public final class UsageScores {
+
+    public static final long HALF_LIFE_MS = 14L * 24 * 60 * 60 * 1000;
+    // Contacts beyond this many are dropped, least used first, when the scores are written.
+    public static final int MAX_ENTRIES = 256;
+
+    private static final class Entry {
+        double score;
+        long usedAt;
+
+        Entry(double score, long usedAt) {
+            this.score = score;
+            this.usedAt = usedAt;
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    public UsageScores() {
+        entries = new HashMap<>();
+    }
+
+    private UsageScores(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /** Counts one call or message to the contact. */
+    public void record(String lookupKey, long nowMs) {
+        if (lookupKey == null) return;
+        Entry entry = entries.get(lookupKey);
+        if (entry == null) {
+            entries.put(lookupKey, new Entry(1, nowMs));
+        } else {
+            entry.score = decayed(entry, nowMs) + 1;
+            entry.usedAt = Math.max(entry.usedAt, nowMs);
+        }
+    }
+
+    /** The contact's score at {@code nowMs}, or 0 if it was never used. */
+    public double score(String lookupKey, long nowMs) {
+        Entry entry = entries.get(lookupKey);
+        return entry != null ? decayed(entry, nowMs) : 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /** The lookupKeys scoring at least {@code minScore}, highest first, at most {@code limit} of them. */
+    public List<String> top(int limit, double minScore, long nowMs) {
+        List<Map.Entry<String, Entry>> ranked = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (decayed(entry.getValue(), nowMs) >= minScore) ranked.add(entry);
+        }
+        // Decay scales every score by the same factor, so the order at nowMs needs no pow per comparison.
+        Collections.sort(ranked, (a, b) -> Double.compare(rankKey(b.getValue()), rankKey(a.getValue())));
+        List<String> keys = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            keys.add(ranked.get(i).getKey());
+        }
+        return keys;
+    }
+
+    public UsageScores copy() {
+        Map<String, Entry> copied = new HashMap<>(entries.size() * 2);
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            copied.put(entry.getKey(), new Entry(entry.getValue().score, entry.getValue().usedAt));
+        }
+        return new UsageScores(copied);
+    }
+
+    /** Writes the {@link #MAX_ENTRIES} highest scores as (count, count x (UTF key, double score, long usedAt)). */
+    public void writeTo(DataOutput out) throws IOException {
+        List<String> kept = top(MAX_ENTRIES, 0, 0);
+        out.writeInt(kept.size());
+        for (String key : kept) {
+            Entry entry = entries.get(key);
+            out.writeUTF(key);
+            out.writeDouble(entry.score);
+            out.writeLong(entry.usedAt);
+        }
+    }
+
+    public static UsageScores readFrom(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > MAX_ENTRIES) throw new IOException("Bad entry count " + count);
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            double score = in.readDouble();
+            long usedAt = in.readLong();
+            if (!(score > 0)) throw new IOException("Bad score " + score);
+            entries.put(key, new Entry(score, usedAt));
+        }
+        return new UsageScores(entries);
+    }
+
+    private static double decayed(Entry entry, long nowMs) {
+        long age = Math.max(0, nowMs - entry.usedAt);
+        return entry.score * Math.pow(0.5, (double) age / HALF_LIFE_MS);
+    }
+
+    // log2 of the score carried back to time 0: orders entries the same as their decayed scores at any time.
+    private static double rankKey(Entry entry) {
+        return Math.log(entry.score) / Math.log(2) + (double) entry.usedAt / HALF_LIFE_MS;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.smartcommunicator.calls;
+
+import com.example.smartcommunicator.model.ContactStore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CallHistoryTest {
+
+    private static CallEntry call(long id) {
+        return new CallEntry(id, "555 01" + id, CallEntry.TYPE_OUTGOING, id * 1000, 10, null);
+    }
+
+    /** Calls from {@code highest} down to {@code lowest}. */
+    private static List<CallEntry> calls(long highest, long lowest) {
+        List<CallEntry> calls = new ArrayList<>();
+        for (long id = highest; id >= lowest; id--) calls.add(call(id));
+        return calls;
+    }
+
+    private static String ids(CallHistory history) {
+        StringBuilder ids = new StringBuilder();
+        for (CallEntry call : history.entries()) {
+            if (ids.length() > 0) ids.append(',');
+            ids.append(call.getId());
+        }
+        return ids.toString();
+    }
+
+    @Test
+    public void newerCalls_goInFront_andRaiseTheMark() {
+        CallHistory history = new CallHistory();
+        assertEquals(0, history.getHighWaterId());
+        history.addNewer(calls(3, 1));
+        history.addNewer(calls(5, 2));
+        assertEquals("5,4,3,2,1", ids(history));
+        assertEquals(5, history.getHighWaterId());
+        assertEquals(1, history.getOldestId());
+
+        history.addNewer(new ArrayList<>());
+        assertEquals(5, history.getHighWaterId());
+    }
+
+    @Test
+    public void keepsOnlyTheNewestCalls() {
+        CallHistory history = new CallHistory();
+        history.addNewer(calls(150, 1));
+        history.addNewer(calls(400, 151));
+        assertEquals(CallHistory.MAX_ENTRIES, history.size());
+        assertEquals(400, history.entries().get(0).getId());
+        assertEquals(201, history.getOldestId());
+    }
+
+    @Test
+    public void retain_dropsDeletedCalls_butKeepsTheMark() {
+        CallHistory history = new CallHistory();
+        history.addNewer(calls(5, 1));
+        assertFalse(history.retain(new long[]{5, 4, 3, 2, 1}));
+        assertTrue(history.retain(new long[]{4, 1, 2}));
+        assertEquals("4,2,1", ids(history));
+        assertEquals(5, history.getHighWaterId());
+
+        // A cleared call log: nothing older comes back, only calls made since.
+        assertTrue(history.retain(new long[0]));
+        history.addNewer(calls(6, 1));
+        assertEquals("6", ids(history));
+    }
+
+    @Test
+    public void addOlder_fillsUpBelowTheOldestCall() {
+        CallHistory history = new CallHistory();
+        history.addNewer(calls(400, 201));
+        assertTrue(history.retain(new long[]{400, 399, 201}));
+        assertEquals(201, history.getRefillBelowId());
+        // Calls at or above the oldest kept one are already known.
+        List<CallEntry> older = calls(205, 1);
+        history.addOlder(older);
+        assertEquals(CallHistory.MAX_ENTRIES, history.size());
+        assertEquals("400,399,201,200", ids(history).substring(0, 15));
+        assertEquals(4, history.getOldestId());
+        assertEquals(400, history.getHighWaterId());
+    }
+
+    @Test
+    public void addOlder_afterEverythingKeptWasDeleted_startsBelowTheMark() {
+        CallHistory history = new CallHistory();
+        history.addNewer(calls(10, 6));
+        assertTrue(history.retain(new long[0]));
+        assertEquals(11, history.getRefillBelowId());
+        history.addOlder(calls(3, 1));
+        assertEquals("3,2,1", ids(history));
+        assertEquals(10, history.getHighWaterId());
+    }
+
+    @Test
+    public void resolveAll_joinsTheCallsToTheCurrentContacts() {
+        CallHistory history = new CallHistory();
+        history.addNewer(calls(2, 1));
+        ContactStore store = new ContactStore.Builder().add("k", "Kim", new String[]{"(555) 012"}, 0).build();
+        history.resolveAll(PhoneNumberIndex.of(store));
+        List<CallEntry> entries = history.entries();
+        assertEquals("k", entries.get(0).getLookupKey());
+        assertNull(entries.get(1).getLookupKey());
+
+        history.resolveAll(PhoneNumberIndex.EMPTY);
+        assertNull(history.entries().get(0).getDisplayName());
+        assertEquals(Arrays.asList(2L, 1L), Arrays.asList(history.entries().get(0).getId(), history.entries().get(1).getId()));
+    }
+}
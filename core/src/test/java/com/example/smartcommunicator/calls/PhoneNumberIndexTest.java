@@ -0,0 +1,61 @@
+package com.example.smartcommunicator.calls;
+
+import com.example.smartcommunicator.model.ContactStore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PhoneNumberIndexTest {
+
+    private static PhoneNumberIndex index() {
+        return PhoneNumberIndex.of(new ContactStore.Builder()
+                .add("anna", "Anna", new String[]{"+1 (415) 555-0132", "112"}, 0)
+                .add("ben", "Ben", new String[]{"0151 2345678"}, 0)
+                .add("carla", "Carla", new String[]{"415.555.0132"}, 0)
+                .build());
+    }
+
+    @Test
+    public void matchesTheLastTenDigits_ignoringFormatting() {
+        PhoneNumberIndex index = index();
+        assertEquals(0, index.find("4155550132"));
+        assertEquals(0, index.find("+14155550132"));
+        assertEquals(1, index.find("+49 151 2345678"));
+        assertEquals(1, index.find("01512345678"));
+    }
+
+    @Test
+    public void sharedNumber_findsTheFirstRow() {
+        assertEquals(0, index().find("(415) 555 0132"));
+    }
+
+    @Test
+    public void shortNumbers_matchOnlyTheSameDigits() {
+        PhoneNumberIndex index = index();
+        assertEquals(0, index.find("112"));
+        assertEquals(-1, index.find("12"));
+        assertEquals(-1, index.find("5550132"));
+    }
+
+    @Test
+    public void unknownOrEmptyNumbers_findNothing() {
+        PhoneNumberIndex index = index();
+        assertEquals(-1, index.find("+44 20 7946 0958"));
+        assertEquals(-1, index.find(""));
+        assertEquals(-1, index.find(null));
+        assertEquals(-1, PhoneNumberIndex.EMPTY.find("4155550132"));
+    }
+
+    @Test
+    public void resolve_fillsInTheContact_orFallsBackToTheCachedName() {
+        PhoneNumberIndex index = index();
+        CallEntry known = index.resolve(new CallEntry(1, "01512345678", CallEntry.TYPE_INCOMING, 0, 30, "Old name"));
+        assertEquals("ben", known.getLookupKey());
+        assertEquals("Ben", known.getDisplayName());
+
+        CallEntry stranger = index.resolve(new CallEntry(2, "999", CallEntry.TYPE_MISSED, 0, 0, "Old name"));
+        assertNull(stranger.getLookupKey());
+        assertEquals("Old name", stranger.getDisplayName());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.smartcommunicator.geo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local stand-in for a geocoding service. Every address gets a made-up position derived from its
+ * text; addresses containing "nowhere" are not found and ones containing "offline" fail. It records
+ * what it was asked and the most requests it saw at once, and can take a while per request.
+ */
+final class FakeGeocoder implements AddressGeocoder {
+
+    private final long delayMs;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    final List<String> asked = Collections.synchronizedList(new ArrayList<>());
+    final Set<String> offline = Collections.synchronizedSet(new HashSet<>());
+
+    FakeGeocoder(long delayMs) {
+        this.delayMs = delayMs;
+    }
+
+    @Override
+    public GeoPoint geocode(String address) throws IOException {
+        asked.add(address);
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        try {
+            if (delayMs > 0) Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        if (address.contains("offline") || offline.contains(address)) throw new IOException("No network");
+        if (address.contains("nowhere")) return null;
+        return positionOf(address);
+    }
+
+    static GeoPoint positionOf(String address) {
+        int hash = address.hashCode();
+        return new GeoPoint((hash % 8000) / 100.0, ((hash >> 8) % 17000) / 100.0);
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.smartcommunicator.geo;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class GeocodeCacheTest {
+
+    @Test
+    public void key_ignoresCaseSpacingAndPunctuation() {
+        long key = GeocodeCache.key("Hauptstraße 12, 10115 Berlin");
+        assertEquals(key, GeocodeCache.key("  hauptstraße 12 10115   BERLIN."));
+        assertEquals(key, GeocodeCache.key("Hauptstraße 12\n10115 Berlin"));
+        assertNotEquals(key, GeocodeCache.key("Hauptstraße 21, 10115 Berlin"));
+        assertNotEquals(GeocodeCache.key("12 3 Main"), GeocodeCache.key("123 Main"));
+    }
+
+    @Test
+    public void notFound_isRememberedForAWhile() {
+        GeocodeCache cache = new GeocodeCache();
+        cache.put(1, null, 0);
+        assertTrue(cache.isKnown(1, GeocodeCache.NOT_FOUND_TTL_MS - 1));
+        assertFalse(cache.isKnown(1, GeocodeCache.NOT_FOUND_TTL_MS));
+        assertNull(cache.get(1));
+
+        cache.put(2, new GeoPoint(1, 2), 0);
+        assertTrue(cache.isKnown(2, Long.MAX_VALUE));
+        assertEquals(2, cache.get(2).getLongitude(), 0);
+    }
+
+    @Test
+    public void leastRecentlyUsed_isEvictedFirst() {
+        GeocodeCache cache = new GeocodeCache();
+        for (long key = 0; key < GeocodeCache.MAX_ENTRIES; key++) cache.put(key, new GeoPoint(0, 0), 0);
+        // Used again, so key 1 is now the eldest.
+        assertNotNull(cache.get(0));
+        cache.put(-1, new GeoPoint(0, 0), 0);
+        assertEquals(GeocodeCache.MAX_ENTRIES, cache.size());
+        assertTrue(cache.isKnown(0, 0));
+        assertFalse(cache.isKnown(1, 0));
+        assertTrue(cache.isKnown(-1, 0));
+    }
+
+    @Test
+    public void changedAddress_dropsTheOldResult_unlessAnotherRowHasIt() {
+        GeocodeCache cache = new GeocodeCache();
+        cache.put(10, new GeoPoint(1, 1), 0);
+        cache.put(20, new GeoPoint(2, 2), 0);
+        assertFalse(cache.assign(1, 10));
+        assertFalse(cache.assign(2, 20));
+        assertFalse(cache.assign(3, 20));
+        assertFalse(cache.assign(1, 10));
+
+        assertTrue(cache.assign(1, 11));
+        assertFalse(cache.isKnown(10, 0));
+        assertTrue(cache.assign(2, 21));
+        assertTrue("row 3 still lives there", cache.isKnown(20, 0));
+    }
+
+    @Test
+    public void roundTrips_keepingTheEvictionOrder() throws IOException {
+        GeocodeCache cache = new GeocodeCache();
+        cache.put(1, new GeoPoint(52.5, 13.4), 100);
+        cache.put(2, null, 200);
+        cache.put(3, new GeoPoint(-33.9, 151.2), 300);
+        cache.get(1);
+        cache.assign(7, 3);
+        cache.assign(8, 1);
+        cache.retainAddressIds(Collections.singleton(7L));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        cache.writeTo(new DataOutputStream(bytes));
+        GeocodeCache read = GeocodeCache.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(3, read.size());
+        assertEquals(13.4, read.get(1).getLongitude(), 0);
+        assertNull(read.get(2));
+        assertTrue(read.isKnown(2, 200));
+
+        // Row 7 is still known to have address 3; row 8 was forgotten, so it counts as new.
+        assertTrue(read.assign(7, 4));
+        assertFalse(read.isKnown(3, 0));
+        assertFalse(read.assign(8, 5));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.smartcommunicator.geo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class GeocodePipelineTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    private static List<ContactAddress> addresses(int count) {
+        List<ContactAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            addresses.add(new ContactAddress(i, "key" + i, "Name " + i, i + " Main Street, Springfield"));
+        }
+        return addresses;
+    }
+
+    private GeocodePipeline pipeline(FakeGeocoder geocoder, GeocodeCache cache, int concurrency) {
+        return new GeocodePipeline(geocoder, cache, concurrency, 0, now::get);
+    }
+
+    @Test
+    public void geocodesInBatches_withBoundedConcurrency() throws InterruptedException {
+        FakeGeocoder geocoder = new FakeGeocoder(5);
+        List<Integer> remaining = new ArrayList<>();
+        List<Integer> placed = new ArrayList<>();
+        List<ContactLocation> located = pipeline(geocoder, new GeocodeCache(), 3).run(addresses(45), (so, left) -> {
+            remaining.add(left);
+            placed.add(so.size());
+        });
+        assertEquals(45, located.size());
+        assertEquals(45, geocoder.asked.size());
+        assertTrue(geocoder.getMaxInFlight() <= 3);
+        assertTrue(geocoder.getMaxInFlight() > 1);
+        // Once for the cache, then after each of the three batches.
+        assertEquals(Arrays.asList(45, 25, 5, 0), remaining);
+        assertEquals(Arrays.asList(0, 20, 40, 45), placed);
+        // Input order.
+        assertEquals("key7", located.get(7).getAddress().getLookupKey());
+        assertEquals(FakeGeocoder.positionOf("7 Main Street, Springfield").getLatitude(), located.get(7).getPoint().getLatitude(), 0);
+    }
+
+    @Test
+    public void secondRun_comesFromTheCache() throws InterruptedException {
+        GeocodeCache cache = new GeocodeCache();
+        pipeline(new FakeGeocoder(0), cache, 4).run(addresses(30), (so, left) -> { });
+
+        FakeGeocoder geocoder = new FakeGeocoder(0);
+        List<Integer> calls = new ArrayList<>();
+        List<ContactLocation> located = pipeline(geocoder, cache, 4).run(addresses(30), (so, left) -> calls.add(so.size()));
+        assertTrue(geocoder.asked.isEmpty());
+        assertEquals(30, located.size());
+        assertEquals(Arrays.asList(30), calls);
+    }
+
+    @Test
+    public void sharedAddress_isAskedOnce() throws InterruptedException {
+        FakeGeocoder geocoder = new FakeGeocoder(0);
+        List<ContactAddress> addresses = Arrays.asList(
+                new ContactAddress(1, "a", "Ann", "1 Elm Road, Leeds"),
+                new ContactAddress(2, "b", "Bob", "1 ELM ROAD,  LEEDS"),
+                new ContactAddress(3, "c", "Cal", "2 Elm Road, Leeds"));
+        List<ContactLocation> located = pipeline(geocoder, new GeocodeCache(), 2).run(addresses, (so, left) -> { });
+        assertEquals(2, geocoder.asked.size());
+        assertEquals(3, located.size());
+        assertEquals(located.get(0).getPoint().getLatitude(), located.get(1).getPoint().getLatitude(), 0);
+    }
+
+    @Test
+    public void editedAddress_isGeocodedAgain() throws InterruptedException {
+        GeocodeCache cache = new GeocodeCache();
+        List<ContactAddress> before = Arrays.asList(new ContactAddress(1, "a", "Ann", "1 Elm Road, Leeds"));
+        pipeline(new FakeGeocoder(0), cache, 1).run(before, (so, left) -> { });
+
+        FakeGeocoder geocoder = new FakeGeocoder(0);
+        List<ContactAddress> after = Arrays.asList(new ContactAddress(1, "a", "Ann", "9 Oak Lane, York"));
+        List<ContactLocation> located = pipeline(geocoder, cache, 1).run(after, (so, left) -> { });
+        assertEquals(Arrays.asList("9 Oak Lane, York"), geocoder.asked);
+        assertEquals(FakeGeocoder.positionOf("9 Oak Lane, York").getLongitude(), located.get(0).getPoint().getLongitude(), 0);
+        assertFalse("the old address is dropped", cache.isKnown(GeocodeCache.key("1 Elm Road, Leeds"), now.get()));
+    }
+
+    @Test
+    public void unknownAddresses_areNotAskedAgainSoon_butFailuresAre() throws InterruptedException {
+        GeocodeCache cache = new GeocodeCache();
+        List<ContactAddress> addresses = Arrays.asList(
+                new ContactAddress(1, "a", "Ann", "nowhere 1"),
+                new ContactAddress(2, "b", "Bob", "3 Elm Road"));
+        FakeGeocoder first = new FakeGeocoder(0);
+        first.offline.add("3 Elm Road");
+        assertEquals(0, pipeline(first, cache, 2).run(addresses, (so, left) -> { }).size());
+
+        FakeGeocoder second = new FakeGeocoder(0);
+        assertEquals(1, pipeline(second, cache, 2).run(addresses, (so, left) -> { }).size());
+        assertEquals(Arrays.asList("3 Elm Road"), second.asked);
+
+        now.addAndGet(GeocodeCache.NOT_FOUND_TTL_MS);
+        FakeGeocoder later = new FakeGeocoder(0);
+        pipeline(later, cache, 2).run(addresses, (so, left) -> { });
+        assertEquals(Arrays.asList("nowhere 1"), later.asked);
+    }
+
+    @Test
+    public void cancel_stopsAfterTheBatchInFlight() throws InterruptedException {
+        FakeGeocoder geocoder = new FakeGeocoder(0);
+        GeocodeCache cache = new GeocodeCache();
+        GeocodePipeline pipeline = pipeline(geocoder, cache, 2);
+        List<ContactLocation> located = pipeline.run(addresses(100), (so, left) -> {
+            if (so.size() >= GeocodePipeline.BATCH_SIZE) pipeline.cancel();
+        });
+        assertEquals(GeocodePipeline.BATCH_SIZE, located.size());
+        assertEquals(GeocodePipeline.BATCH_SIZE, cache.size());
+    }
+}
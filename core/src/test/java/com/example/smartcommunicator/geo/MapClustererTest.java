@@ -0,0 +1,131 @@
+package com.example.smartcommunicator.geo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MapClustererTest {
+
+    private static PointQuadtree randomPoints(int count) {
+        Random random = new Random(7);
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            // Two dense towns and some points spread around.
+            if (i % 3 == 0) {
+                xs[i] = 0.3 + random.nextGaussian() * 0.001;
+                ys[i] = 0.4 + random.nextGaussian() * 0.001;
+            } else if (i % 3 == 1) {
+                xs[i] = 0.7 + random.nextGaussian() * 0.0001;
+                ys[i] = 0.2 + random.nextGaussian() * 0.0001;
+            } else {
+                xs[i] = random.nextDouble();
+                ys[i] = random.nextDouble();
+            }
+        }
+        return PointQuadtree.build(xs, ys);
+    }
+
+    private static int total(List<MapCluster> clusters) {
+        int total = 0;
+        for (MapCluster cluster : clusters) total += cluster.getCount();
+        return total;
+    }
+
+    @Test
+    public void everyPointIsInExactlyOnePin_atEveryZoom() {
+        PointQuadtree tree = randomPoints(5000);
+        MapClusterer clusterer = new MapClusterer(tree);
+        for (int zoom = 0; zoom <= 9; zoom++) {
+            List<MapCluster> clusters = new ArrayList<>();
+            clusterer.clustersIn(zoom, 0, 0, 1, 1, clusters);
+            assertEquals(5000, total(clusters));
+            for (MapCluster cluster : clusters) {
+                assertEquals(cluster.getCount() == 1, cluster.getPoint() >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void zoomingIn_splitsPinsApart() {
+        MapClusterer clusterer = new MapClusterer(randomPoints(3000));
+        int previous = 0;
+        for (int zoom = 0; zoom <= 8; zoom++) {
+            List<MapCluster> clusters = new ArrayList<>();
+            clusterer.clustersIn(zoom, 0, 0, 1, 1, clusters);
+            assertTrue("zoom " + zoom, clusters.size() >= previous);
+            previous = clusters.size();
+        }
+        List<MapCluster> world = new ArrayList<>();
+        clusterer.clustersIn(0, 0, 0, 1, 1, world);
+        assertTrue(world.size() <= 16);
+    }
+
+    @Test
+    public void pinsSitAtTheCentroidOfTheirPoints() {
+        PointQuadtree tree = PointQuadtree.build(new double[]{0.1, 0.11, 0.9}, new double[]{0.1, 0.12, 0.9});
+        List<MapCluster> clusters = new ArrayList<>();
+        new MapClusterer(tree).clustersIn(0, 0, 0, 1, 1, clusters);
+        assertEquals(2, clusters.size());
+        MapCluster pair = clusters.get(0).getCount() == 2 ? clusters.get(0) : clusters.get(1);
+        assertEquals(0.105, pair.getX(), 1e-9);
+        assertEquals(0.11, pair.getY(), 1e-9);
+        MapCluster single = clusters.get(0).getCount() == 1 ? clusters.get(0) : clusters.get(1);
+        assertEquals(2, single.getPoint());
+    }
+
+    @Test
+    public void viewportQuery_onlyReturnsTilesItTouches() {
+        MapClusterer clusterer = new MapClusterer(randomPoints(3000));
+        List<MapCluster> clusters = new ArrayList<>();
+        int zoom = 6;
+        clusterer.clustersIn(zoom, 0.29, 0.39, 0.31, 0.41, clusters);
+        double tile = 1.0 / (1 << zoom);
+        for (MapCluster cluster : clusters) {
+            assertTrue(cluster.getX() >= Math.floor(0.29 / tile) * tile && cluster.getX() < (Math.floor(0.31 / tile) + 1) * tile);
+            assertTrue(cluster.getY() >= Math.floor(0.39 / tile) * tile && cluster.getY() < (Math.floor(0.41 / tile) + 1) * tile);
+        }
+        assertTrue(total(clusters) >= 1000);
+    }
+
+    @Test
+    public void panning_onlyComputesTheTilesThatScrollIntoView() {
+        MapClusterer clusterer = new MapClusterer(randomPoints(3000));
+        int zoom = 10;
+        double tile = 1.0 / (1 << zoom);
+        List<MapCluster> clusters = new ArrayList<>();
+        // A 4 x 3 tile viewport.
+        clusterer.clustersIn(zoom, 100 * tile, 200 * tile, 103.5 * tile, 202.5 * tile, clusters);
+        assertEquals(12, clusterer.getComputedTiles());
+        // One tile to the right: one new column of three.
+        clusterer.clustersIn(zoom, 101 * tile, 200 * tile, 104.5 * tile, 202.5 * tile, clusters);
+        assertEquals(15, clusterer.getComputedTiles());
+        // And back, all cached.
+        clusterer.clustersIn(zoom, 100 * tile, 200 * tile, 103.5 * tile, 202.5 * tile, clusters);
+        assertEquals(15, clusterer.getComputedTiles());
+    }
+
+    @Test
+    public void samePlace_staysOnePin_atTheDeepestZoom() {
+        double[] xs = new double[100];
+        double[] ys = new double[100];
+        Arrays.fill(xs, 0.5);
+        Arrays.fill(ys, 0.25);
+        List<MapCluster> clusters = new ArrayList<>();
+        new MapClusterer(PointQuadtree.build(xs, ys)).clustersIn(MapClusterer.MAX_ZOOM, 0.5 - 1e-7, 0.25 - 1e-7, 0.5 + 1e-7, 0.25 + 1e-7, clusters);
+        assertEquals(1, clusters.size());
+        assertEquals(100, clusters.get(0).getCount());
+    }
+
+    @Test
+    public void emptyTree_hasNoPins() {
+        List<MapCluster> clusters = new ArrayList<>();
+        new MapClusterer(PointQuadtree.build(new double[0], new double[0])).clustersIn(3, 0, 0, 1, 1, clusters);
+        assertTrue(clusters.isEmpty());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.smartcommunicator.geo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WebMercatorTest {
+
+    @Test
+    public void roundTrips() {
+        assertEquals(0.5, WebMercator.x(0), 1e-12);
+        assertEquals(0.5, WebMercator.y(0), 1e-12);
+        assertEquals(13.405, WebMercator.longitude(WebMercator.x(13.405)), 1e-9);
+        assertEquals(52.52, WebMercator.latitude(WebMercator.y(52.52)), 1e-9);
+        assertEquals(-33.87, WebMercator.latitude(WebMercator.y(-33.87)), 1e-9);
+    }
+
+    @Test
+    public void poles_areCutOff() {
+        assertEquals(0, WebMercator.y(90), 1e-9);
+        assertEquals(1, WebMercator.y(-90), 1e-9);
+        assertEquals(1, WebMercator.x(180), 1e-12);
+    }
+}
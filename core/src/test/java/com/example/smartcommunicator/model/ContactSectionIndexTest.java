@@ -0,0 +1,60 @@
+package com.example.smartcommunicator.model;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ContactSectionIndexTest {
+
+    private static ContactStore store(String... names) {
+        ContactStore.Builder builder = new ContactStore.Builder();
+        for (int i = 0; i < names.length; i++) builder.add("k" + i, names[i], new String[]{"555 0100"}, 0);
+        return builder.build();
+    }
+
+    private static String labels(ContactSectionIndex index) {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < index.getSectionCount(); i++) {
+            labels.append(index.getLabel(i)).append('@').append(index.getStart(i)).append(' ');
+        }
+        return labels.toString().trim();
+    }
+
+    @Test
+    public void sectionsStartWhereTheLetterChanges_ignoringCaseAndAccents() {
+        ContactStore store = store("anna", "Ava", "Ben", "Émile", "eva", "Zoë", "9 Lives");
+        ContactSectionIndex index = ContactSectionIndex.of(ContactSlice.all(store), ContactSectionIndex.rowKeys(store, null, 0));
+        assertEquals("A@0 B@2 E@3 Z@5 #@6", labels(index));
+        assertEquals(2, index.getSectionForPosition(4));
+        assertTrue(index.isSectionStart(3));
+        assertFalse(index.isSectionStart(4));
+    }
+
+    @Test
+    public void filteredSlice_regroupsItsRows_withPinnedRowsFirst() {
+        ContactStore store = store("Anna", "Ava", "Ben", "Carla");
+        byte[] keys = ContactSectionIndex.rowKeys(store, null, 0);
+        // Carla pinned, then Ava and Carla again in name order.
+        ContactSectionIndex index = ContactSectionIndex.of(ContactSlice.of(store, new int[]{3, 1, 3}, 1), keys);
+        assertEquals(ContactSectionIndex.PINNED_LABEL + "@0 A@1 C@2", labels(index));
+    }
+
+    @Test
+    public void rowKeys_onlyWorkOutTheNewRows() {
+        ContactStore first = store("Anna");
+        byte[] keys = ContactSectionIndex.rowKeys(first, null, 0);
+        ContactStore grown = first.withChanges(Collections.emptySet(),
+                Collections.singletonList(new Contact("k1", "Ben", "555")));
+        byte[] grownKeys = ContactSectionIndex.rowKeys(grown, keys, first.size());
+        assertEquals("A@0 B@1", labels(ContactSectionIndex.of(ContactSlice.all(grown), grownKeys)));
+    }
+
+    @Test
+    public void fromCounts_skipsEmptySections() {
+        ContactSectionIndex index = ContactSectionIndex.fromCounts(new String[]{"A", "B", "C", "D"}, new int[]{2, 0, 3, 1});
+        assertEquals("A@0 C@2 D@5", labels(index));
+        assertEquals(0, ContactSectionIndex.fromCounts(new String[]{"A"}, new int[]{1, 2}).getSectionCount());
+    }
+}
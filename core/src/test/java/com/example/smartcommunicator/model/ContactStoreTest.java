@@ -0,0 +1,72 @@
+package com.example.smartcommunicator.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ContactStoreTest {
+
+    private static ContactStore store(String... names) {
+        ContactStore.Builder builder = new ContactStore.Builder();
+        for (String name : names) builder.add(name.toLowerCase(), name, new String[]{"555 0100"}, 0);
+        return builder.build();
+    }
+
+    private static List<String> names(ContactStore store) {
+        List<String> names = new ArrayList<>();
+        for (int row = 0; row < store.size(); row++) names.add(store.getName(row));
+        return names;
+    }
+
+    private static Contact contact(String name) {
+        return new Contact(name.toLowerCase(), name, "555 0199");
+    }
+
+    @Test
+    public void withChanges_removesAndInsertsInNameOrder() {
+        ContactStore store = store("Anna", "Carla", "Emil");
+        ContactStore changed = store.withChanges(Collections.singleton("carla"),
+                Arrays.asList(contact("Zoe"), contact("Ben"), contact("aaron"), contact("Dora")));
+        assertEquals("[aaron, Anna, Ben, Dora, Emil, Zoe]", names(changed).toString());
+        assertTrue(changed.hasLookupKey(2, "ben"));
+        assertEquals("555 0199", changed.getNumber(2, 0));
+        // The original is untouched.
+        assertEquals("[Anna, Carla, Emil]", names(store).toString());
+    }
+
+    @Test
+    public void withChanges_removingAndAddingTheSameKey_movesTheRow() {
+        ContactStore store = store("Anna", "Ben", "Carla");
+        ContactStore changed = store.withChanges(Collections.singleton("anna"),
+                Collections.singletonList(new Contact("anna", "Bianca", "555 0100")));
+        assertEquals("[Ben, Bianca, Carla]", names(changed).toString());
+        assertTrue(changed.hasLookupKey(1, "anna"));
+    }
+
+    @Test
+    public void withChanges_mergesInTheLocalizedNameOrder() {
+        // A plain case-insensitive order would put "Émile" after "Zoe".
+        ContactStore changed = store("anna", "Eva", "Zoe").withChanges(Collections.emptySet(),
+                Arrays.asList(contact("Émile"), contact("Ben")));
+        assertEquals("[anna, Ben, Émile, Eva, Zoe]", names(changed).toString());
+    }
+
+    @Test
+    public void withChanges_onAnEmptyStore_orRemovingEverything() {
+        ContactStore added = ContactStore.EMPTY.withChanges(Collections.emptySet(),
+                Arrays.asList(contact("Ben"), contact("Anna")));
+        assertEquals("[Anna, Ben]", names(added).toString());
+        assertEquals(0, added.withChanges(Arrays.asList("anna", "ben"), Collections.emptyList()).size());
+    }
+
+    @Test
+    public void withChanges_unknownKeys_changeNothing() {
+        ContactStore store = store("Anna", "Ben");
+        assertEquals("[Anna, Ben]", names(store.withChanges(Collections.singleton("nobody"), Collections.emptyList())).toString());
+    }
+}
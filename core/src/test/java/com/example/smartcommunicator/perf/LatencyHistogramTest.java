@@ -0,0 +1,54 @@
+package com.example.smartcommunicator.perf;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue("expected about " + expected + " got " + actual,
+                actual >= expected && actual <= expected + expected / 16);
+    }
+
+    @Test
+    public void percentiles_ofUniformValues_areWithinOneBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertWithinBucket(5_000_000, histogram.getPercentileNanos(0.50));
+        assertWithinBucket(9_500_000, histogram.getPercentileNanos(0.95));
+        assertWithinBucket(9_900_000, histogram.getPercentileNanos(0.99));
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        assertEquals(5_000_500, histogram.getMeanNanos());
+    }
+
+    @Test
+    public void percentile_neverExceedsTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+        assertEquals(1_000_001, histogram.getPercentileNanos(0.99));
+    }
+
+    @Test
+    public void smallAndHugeValues_haveBuckets() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 1L << 40, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value + " ends before its bucket", LatencyHistogram.bucketEnd(bucket) >= value);
+            if (bucket > 0) assertTrue(value + " fits an earlier bucket", LatencyHistogram.bucketEnd(bucket - 1) < value);
+        }
+    }
+
+    @Test
+    public void emptyOrReset_reportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(0.5));
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(0.99));
+        assertEquals(0, histogram.getMaxNanos());
+    }
+}
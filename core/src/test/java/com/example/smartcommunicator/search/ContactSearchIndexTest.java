@@ -0,0 +1,67 @@
+package com.example.smartcommunicator.search;
+
+import com.example.smartcommunicator.model.ContactSlice;
+import com.example.smartcommunicator.model.ContactStore;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ContactSearchIndexTest {
+
+    private static ContactStore store() {
+        return new ContactStore.Builder()
+                .add("a", "Anna Smith", new String[]{"+1 415 555 0132"}, 0)
+                .add("b", "Ben Smithers", new String[]{"030 1234", "0151 2345678"}, 1)
+                .add("c", "Carla Müller", new String[]{"(212) 555-0199"}, 0)
+                .add("d", "Dan", new String[]{"555 0100"}, 0)
+                .build();
+    }
+
+    private static int[] linear(ContactStore store, String query) {
+        int[] rows = new int[store.size()];
+        int count = 0;
+        for (int row = 0; row < store.size(); row++) {
+            if (ContactSearchIndex.matches(store, row, query)) rows[count++] = row;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    @Test
+    public void indexedSearch_findsWhatTheLinearFilterFinds() {
+        ContactStore store = store();
+        ContactSearchIndex index = ContactSearchIndex.build(store);
+        for (String query : new String[]{"a", "sm", "smith", "müller", "555", "5550132", "0151", "zzq", "n s"}) {
+            assertEquals(query, Arrays.toString(linear(store, query)), Arrays.toString(index.searchPositions(query)));
+        }
+    }
+
+    @Test
+    public void matchesNeverSpanTwoNumbers() {
+        // "1234" ends the first number and "0151" starts the second.
+        assertEquals(0, ContactSearchIndex.build(store()).searchPositions("12340151").length);
+    }
+
+    @Test
+    public void refine_keepsOnlyLongerMatches() {
+        ContactSearchIndex index = ContactSearchIndex.build(store());
+        int[] smi = index.searchPositions("smi");
+        assertEquals("[0, 1]", Arrays.toString(smi));
+        assertEquals("[1]", Arrays.toString(index.refine(smi, "smithe")));
+    }
+
+    @Test
+    public void emptyQuery_matchesEverything_inStoreOrder() {
+        ContactSlice all = ContactSearchIndex.build(store()).search("");
+        assertEquals(4, all.size());
+        assertEquals("a", all.getLookupKey(0));
+    }
+
+    @Test
+    public void stripWhitespace_keepsEverythingElse() {
+        assertEquals("+1(415)555-0132", ContactSearchIndex.stripWhitespace(" +1 (415)\t555-0132\n"));
+        assertEquals("5550132", ContactSearchIndex.stripWhitespace("5550132"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.smartcommunicator.search;
+
+import com.example.smartcommunicator.model.Contact;
+import com.example.smartcommunicator.model.ContactStore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class T9MatcherTest {
+
+    private static ContactStore store() {
+        return new ContactStore.Builder()
+                .add("anna", "Anna Jones", new String[]{"555 0100"}, 0)
+                .add("ben", "Ben Jonas", new String[]{"030 1234"}, 0)
+                .add("john", "John Smith", new String[]{"030 9876"}, 0)
+                .add("kim", "Kim Park", new String[]{"+1 415 566 0000", "0151 56"}, 0)
+                .add("jo", "Jo", new String[]{"5656"}, 0)
+                .build();
+    }
+
+    private static List<String> keys(List<Contact> contacts) {
+        List<String> keys = new ArrayList<>();
+        for (Contact contact : contacts) keys.add(contact.getLookupKey());
+        return keys;
+    }
+
+    @Test
+    public void ranks_nameStarts_thenWordStarts_thenNumbers() {
+        // "56" is "Jo": John and Jo start with it, Jones and Jonas have a word starting with it,
+        // and Kim has it inside a number.
+        List<String> ranked = keys(new T9Matcher(T9MatchIndex.build(store())).match("56", 10));
+        assertEquals("[john, jo, anna, ben, kim]", ranked.toString());
+    }
+
+    @Test
+    public void contactHitTwice_isListedOnce_atItsBestHit() {
+        // Jo's name starts with "56" and its number 5656 contains it.
+        List<String> ranked = keys(new T9Matcher(T9MatchIndex.build(store())).match("56", 10));
+        assertEquals(ranked.indexOf("jo"), ranked.lastIndexOf("jo"));
+        assertTrue(ranked.indexOf("jo") < ranked.indexOf("anna"));
+    }
+
+    @Test
+    public void limit_keepsTheBestHits() {
+        List<String> ranked = keys(new T9Matcher(T9MatchIndex.build(store())).match("56", 3));
+        assertEquals("[john, jo, anna]", ranked.toString());
+    }
+
+    @Test
+    public void numberSubstring_isFoundAnywhere_butNotAcrossNumbers() {
+        T9Matcher matcher = new T9Matcher(T9MatchIndex.build(store()));
+        assertEquals("[kim]", keys(matcher.match("+1 415 566", 10)).toString());
+        assertEquals("[kim]", keys(matcher.match("015156", 10)).toString());
+        // The end of Kim's first number and the start of the second.
+        assertTrue(matcher.match("0000015", 10).isEmpty());
+    }
+
+    @Test
+    public void typingDigitByDigit_matchesAFreshLookup() {
+        ContactStore store = randomStore(500);
+        T9MatchIndex index = T9MatchIndex.build(store);
+        T9Matcher typing = new T9Matcher(index);
+        for (String typed : new String[]{"5", "56", "564", "5646", "56", "2", "27", "276", "0", "01", "015"}) {
+            List<Contact> narrowed = typing.match(typed, 20);
+            List<Contact> fresh = new T9Matcher(index).match(typed, 20);
+            assertEquals(typed, keys(fresh), keys(narrowed));
+        }
+    }
+
+    @Test
+    public void everyNumberContainingTheDigits_isFound() {
+        ContactStore store = randomStore(2000);
+        T9Matcher matcher = new T9Matcher(T9MatchIndex.build(store));
+        // No letter is on the 0 or 1 key, so only numbers can match these.
+        for (String digits : new String[]{"1", "10", "907", "5150"}) {
+            int expected = 0;
+            for (int row = 0; row < store.size(); row++) {
+                if (T9MatchIndex.digitsOnly(store.getNumber(row, 0)).contains(digits)) expected++;
+            }
+            assertEquals(digits, expected, matcher.match(digits, store.size()).size());
+        }
+    }
+
+    private static ContactStore randomStore(int size) {
+        String[] names = {"Anna", "Ben", "Carla", "John", "Jonas", "Smith", "Park", "Lee"};
+        Random random = new Random(7);
+        ContactStore.Builder builder = new ContactStore.Builder();
+        for (int i = 0; i < size; i++) {
+            String number = String.format(Locale.ROOT, "+1 %03d %03d %04d",
+                    200 + random.nextInt(800), random.nextInt(1000), random.nextInt(10000));
+            builder.add("k" + i, names[random.nextInt(names.length)] + " " + names[random.nextInt(names.length)],
+                    new String[]{number}, 0);
+        }
+        return builder.build();
+    }
+}
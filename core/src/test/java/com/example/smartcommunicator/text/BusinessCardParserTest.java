@@ -0,0 +1,37 @@
+package com.example.smartcommunicator.text;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BusinessCardParserTest {
+
+    private final BusinessCardParser parser = new BusinessCardParser(PhoneNumberExtractor.getInstance());
+
+    @Test
+    public void sampleCards_yieldTheirName() throws Exception {
+        for (SampleCards.Card card : SampleCards.load()) {
+            if (card.expectedName == null) continue;
+            assertEquals(card.text, card.expectedName, parser.parse(card.text).getName());
+        }
+    }
+
+    @Test
+    public void capitalisedName_isGivenTitleCase() {
+        assertEquals("Mary O'Neil-Smith", BusinessCardParser.findName("MARY O'NEIL-SMITH\nSALES DIRECTOR"));
+        assertEquals("Ian McAdams", BusinessCardParser.findName("Ian McAdams"));
+    }
+
+    @Test
+    public void companiesTitlesAndSingleWords_areNotNames() {
+        assertEquals("", BusinessCardParser.findName("Acme Widgets Inc.\nSenior Engineer\nJane\n415 555 0132"));
+    }
+
+    @Test
+    public void card_withoutNumber_keepsItsName() {
+        BusinessCardParser.Card card = parser.parse("Jane Doe\njane@example.com");
+        assertEquals("Jane Doe", card.getName());
+        assertNull(card.getNumber());
+        assertEquals(0f, card.getNumberConfidence(), 0f);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.smartcommunicator.text;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PhoneNumberExtractorTest {
+
+    private final PhoneNumberExtractor extractor = PhoneNumberExtractor.getInstance();
+
+    @Test
+    public void sampleCards_yieldTheirNumber() throws Exception {
+        List<SampleCards.Card> cards = SampleCards.load();
+        assertFalse(cards.isEmpty());
+        for (SampleCards.Card card : cards) {
+            PhoneCandidate best = extractor.best(card.text);
+            assertEquals(card.text, card.expected, best != null ? best.getNumber() : null);
+        }
+    }
+
+    @Test
+    public void lookAlikeLetters_areReadAsDigits_atLowerConfidence() {
+        PhoneCandidate clean = extractor.best("415-555-0132");
+        PhoneCandidate misread = extractor.best("4l5-555-O132");
+        assertNotNull(misread);
+        assertEquals("4155550132", misread.getNumber());
+        assertEquals(2, misread.getConfusions());
+        assertTrue(misread.getConfidence() < clean.getConfidence());
+    }
+
+    @Test
+    public void wordsMadeOfLookAlikes_areNotDigits() {
+        assertNull(extractor.best("Sales Office\nBoston"));
+        assertEquals("4155550132", extractor.best("Sales 415 555 0132").getNumber());
+    }
+
+    @Test
+    public void faxNumber_ranksBelowPhone() {
+        List<PhoneCandidate> candidates = extractor.extractAll("Fax: 415 555 0199\nTel: 415 555 0132");
+        assertEquals(2, candidates.size());
+        assertEquals("4155550132", candidates.get(0).getNumber());
+        assertEquals("4155550199", candidates.get(1).getNumber());
+    }
+
+    @Test
+    public void countryCode_isKept() {
+        PhoneCandidate international = extractor.best("+44 20 7946 0018");
+        assertEquals("+442079460018", international.getNumber());
+        // No country code starts with 0.
+        PhoneCandidate implausible = extractor.best("+0 20 7946 0018");
+        assertTrue(implausible == null || implausible.getConfidence() < international.getConfidence());
+    }
+
+    @Test
+    public void datesPostcodesAndAccountNumbers_areRejected() {
+        assertNull(extractor.best("2024-05-17"));
+        assertNull(extractor.best("Cambridge, MA 02139-4307"));
+        assertNull(extractor.best("Account 0012345678901234"));
+        assertNull(extractor.best("Room 12, ext. 4471"));
+    }
+
+    @Test
+    public void numbersWrittenSideBySide_areSplit() {
+        List<PhoneCandidate> candidates = extractor.extractAll("415 555 0132 415 555 0199");
+        assertEquals(2, candidates.size());
+        assertTrue(candidates.get(0).getNumber().equals("4155550132") || candidates.get(1).getNumber().equals("4155550132"));
+        assertTrue(candidates.get(0).getNumber().equals("4155550199") || candidates.get(1).getNumber().equals("4155550199"));
+    }
+
+    @Test
+    public void repeatedNumber_isListedOnce() {
+        List<PhoneCandidate> candidates = extractor.extractAll("Tel 415 555 0132\n415.555.0132");
+        assertEquals(1, candidates.size());
+    }
+
+    @Test
+    public void candidate_spansItsTextExactly() {
+        String text = "Mobile: (415) 555-0132 (24/7)";
+        PhoneCandidate best = extractor.best(text);
+        assertEquals("(415) 555-0132", text.substring(best.getStart(), best.getEnd()));
+    }
+
+    @Test
+    public void emptyText_hasNoCandidates() {
+        assertTrue(extractor.extractAll("").isEmpty());
+        assertNull(extractor.best("no digits here"));
+    }
+}
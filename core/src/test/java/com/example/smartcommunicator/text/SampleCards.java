@@ -0,0 +1,58 @@
+package com.example.smartcommunicator.text;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/** The business card texts in resources/cards/sample_cards.txt, with what each should yield. */
+final class SampleCards {
+
+    static final class Card {
+        final String text;
+        /** The expected number, or null when the card has none. */
+        final String expected;
+        /** The expected name, or null when the card does not say. */
+        final String expectedName;
+
+        Card(String text, String expected, String expectedName) {
+            this.text = text;
+            this.expected = expected;
+            this.expectedName = expectedName;
+        }
+    }
+
+    private SampleCards() { }
+
+    static List<Card> load() throws IOException {
+        List<Card> cards = new ArrayList<>();
+        try (InputStream in = SampleCards.class.getResourceAsStream("/cards/sample_cards.txt")) {
+            if (in == null) throw new IOException("sample_cards.txt is not on the test classpath");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            StringBuilder text = new StringBuilder();
+            String expected = null;
+            String expectedName = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.equals("---")) {
+                    cards.add(new Card(text.toString(), expected, expectedName));
+                    text.setLength(0);
+                    expected = null;
+                    expectedName = null;
+                } else if (line.startsWith("# expect: ")) {
+                    String value = line.substring("# expect: ".length());
+                    expected = value.equals("none") ? null : value;
+                } else if (line.startsWith("# name: ")) {
+                    expectedName = line.substring("# name: ".length());
+                } else if (!line.startsWith("#")) {
+                    text.append(line).append('\n');
+                }
+            }
+            if (text.length() > 0) cards.add(new Card(text.toString(), expected, expectedName));
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.smartcommunicator.text;
+
+import com.example.smartcommunicator.model.Contact;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class VCardTest {
+
+    private static List<Contact> readAll(String vcf) throws IOException {
+        List<Contact> contacts = new ArrayList<>();
+        try (VCardReader reader = new VCardReader(new StringReader(vcf))) {
+            Contact contact;
+            while ((contact = reader.next()) != null) contacts.add(contact);
+        }
+        return contacts;
+    }
+
+    @Test
+    public void written_cards_readBackTheSame() throws IOException {
+        Contact plain = new Contact(null, "Lena Park", "+1 415 555 0132");
+        Contact tricky = new Contact(null, "Doe, Jane; \"JD\" \\ Ünal-Øster with a name long enough to be folded more than once by the writer",
+                new String[]{"555-0100", "555-0199"}, 1);
+        StringWriter out = new StringWriter();
+        try (VCardWriter writer = new VCardWriter(out)) {
+            writer.write(plain);
+            writer.write(tricky);
+        }
+        for (String line : out.toString().split("\r\n")) {
+            assertTrue(line, line.getBytes(StandardCharsets.UTF_8).length <= 75);
+        }
+        List<Contact> read = readAll(out.toString());
+        assertEquals(2, read.size());
+        assertTrue(plain.hasSameContent(read.get(0)));
+        assertTrue(tricky.hasSameContent(read.get(1)));
+        assertEquals(1, read.get(1).getPrimaryNumberIndex());
+    }
+
+    @Test
+    public void version21_quotedPrintable_andStructuredName() throws IOException {
+        String vcf = "BEGIN:VCARD\r\nVERSION:2.1\r\n"
+                + "N;CHARSET=UTF-8;ENCODING=QUOTED-PRINTABLE:M=C3=BCller;J=C3=B6rg;;Dr.;\r\n"
+                + "TEL;CELL:0151 2345678\r\n"
+                + "TEL;WORK;PREF:030 1234\r\n"
+                + "END:VCARD\r\n";
+        List<Contact> read = readAll(vcf);
+        assertEquals(1, read.size());
+        assertEquals("Dr. Jörg Müller", read.get(0).getName());
+        assertEquals(2, read.get(0).getNumberCount());
+        assertEquals("030 1234", read.get(0).getNumber(1));
+        assertEquals(1, read.get(0).getPrimaryNumberIndex());
+    }
+
+    @Test
+    public void numberTypes_followTheTelTypes() throws IOException {
+        String vcf = "BEGIN:VCARD\r\nVERSION:3.0\r\nFN:Ines Silva\r\n"
+                + "TEL;TYPE=CELL,PREF:0151 2345678\r\n"
+                + "item1.TEL;TYPE=\"home\":030 1234\r\n"
+                + "TEL;WORK;FAX:030 1299\r\n"
+                + "TEL;TYPE=VOICE:030 5555\r\n"
+                + "TEL:030 6666\r\n"
+                + "END:VCARD\r\n"
+                + "BEGIN:VCARD\r\nVERSION:2.1\r\nFN:Omar Ali\r\nTEL;HOME;FAX:040 1\r\nTEL;WORK:040 2\r\nEND:VCARD\r\n";
+        List<Contact> read = readAll(vcf);
+        assertEquals(5, read.get(0).getNumberCount());
+        assertArrayEquals(new int[]{Contact.TYPE_MOBILE, Contact.TYPE_HOME, Contact.TYPE_FAX_WORK,
+                Contact.TYPE_OTHER, Contact.TYPE_OTHER}, numberTypes(read.get(0)));
+        assertArrayEquals(new int[]{Contact.TYPE_FAX_HOME, Contact.TYPE_WORK}, numberTypes(read.get(1)));
+    }
+
+    @Test
+    public void numberTypes_surviveARoundTrip() throws IOException {
+        int[] types = {Contact.TYPE_MOBILE, Contact.TYPE_HOME, Contact.TYPE_WORK, Contact.TYPE_FAX_WORK,
+                Contact.TYPE_FAX_HOME, Contact.TYPE_PAGER, Contact.TYPE_CAR, Contact.TYPE_OTHER};
+        String[] numbers = new String[types.length];
+        for (int i = 0; i < numbers.length; i++) numbers[i] = "555-010" + i;
+        StringWriter out = new StringWriter();
+        try (VCardWriter writer = new VCardWriter(out)) {
+            writer.write(new Contact(null, "Kai Meyer", numbers, 2, types));
+            writer.write(new Contact(null, "Lena Park", "555-0200"));
+        }
+        List<Contact> read = readAll(out.toString());
+        assertArrayEquals(types, numberTypes(read.get(0)));
+        assertEquals(2, read.get(0).getPrimaryNumberIndex());
+        // A number of unknown type goes out as VOICE and comes back as other.
+        assertArrayEquals(new int[]{Contact.TYPE_OTHER}, numberTypes(read.get(1)));
+    }
+
+    private static int[] numberTypes(Contact contact) {
+        int[] types = new int[contact.getNumberCount()];
+        for (int i = 0; i < types.length; i++) types[i] = contact.getNumberType(i);
+        return types;
+    }
+
+    @Test
+    public void softLineBreak_joinsQuotedPrintableLines() throws IOException {
+        String vcf = "BEGIN:VCARD\nVERSION:2.1\nFN;ENCODING=QUOTED-PRINTABLE:Ren=C3=A9e =\nDubois\nEND:VCARD\n";
+        assertEquals("Renée Dubois", readAll(vcf).get(0).getName());
+    }
+
+    @Test
+    public void photosAndUnknownProperties_areSkipped_andGroupsIgnored() throws IOException {
+        StringBuilder photo = new StringBuilder("PHOTO;ENCODING=b;TYPE=JPEG:");
+        for (int i = 0; i < 2000; i++) photo.append("\r\n /9j/4AAQSkZJRgABAQAAAQABAAD");
+        String vcf = "BEGIN:VCARD\r\nVERSION:3.0\r\nFN:Sam Lee\r\n" + photo + "\r\n"
+                + "item1.TEL;TYPE=\"cell,pref\":tel:+44 20 7946 0958\r\nX-CUSTOM:a:b\r\nEND:VCARD\r\n";
+        List<Contact> read = readAll(vcf);
+        assertEquals(1, read.size());
+        assertEquals("Sam Lee", read.get(0).getName());
+        assertEquals("+44 20 7946 0958", read.get(0).getNumber());
+    }
+
+    @Test
+    public void emptyCards_andTextOutsideCards_areSkipped() throws IOException {
+        String vcf = "garbage\nBEGIN:VCARD\nVERSION:3.0\nEND:VCARD\nBEGIN:VCARD\nTEL:555 0100\nEND:VCARD";
+        List<Contact> read = readAll(vcf);
+        assertEquals(1, read.size());
+        assertEquals("", read.get(0).getName());
+        assertEquals("555 0100", read.get(0).getNumber());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.smartcommunicator.usage;
+
+import com.example.smartcommunicator.model.ContactSectionIndex;
+import com.example.smartcommunicator.model.ContactSlice;
+import com.example.smartcommunicator.model.ContactStore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UsageRankerTest {
+
+    private static ContactStore store() {
+        ContactStore.Builder builder = new ContactStore.Builder();
+        String[] names = {"Anna", "Ben", "Carla", "Dan", "Eve", "Finn", "Gus"};
+        for (int i = 0; i < names.length; i++) {
+            builder.add("key" + i, names[i], new String[]{"555 010" + i}, 0);
+        }
+        return builder.build();
+    }
+
+    private static String keys(ContactSlice slice) {
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < slice.size(); i++) {
+            if (i > 0) keys.append(',');
+            keys.append(slice.getLookupKey(i));
+        }
+        return keys.toString();
+    }
+
+    @Test
+    public void fullList_isHeadedByFrequentContacts_whichStayInPlaceToo() {
+        UsageScores scores = new UsageScores();
+        scores.record("key4", 0);
+        scores.record("key4", 0);
+        scores.record("key1", 0);
+        scores.record("deleted", 0);
+        ContactSlice slice = UsageRanker.withFrequent(store(), scores, 0);
+        assertEquals(2, slice.getPinnedCount());
+        assertEquals("key4,key1,key0,key1,key2,key3,key4,key5,key6", keys(slice));
+
+        ContactSectionIndex sections = ContactSectionIndex.of(slice, ContactSectionIndex.rowKeys(slice.getStore(), null, 0));
+        assertEquals(ContactSectionIndex.PINNED_LABEL, sections.getLabel(0));
+        assertEquals("A", sections.getLabel(1));
+        assertEquals(2, sections.getStart(1));
+    }
+
+    @Test
+    public void pinnedRow_isFoundAtBothOfItsPositions() {
+        UsageScores scores = new UsageScores();
+        scores.record("key4", 0);
+        scores.record("key4", 0);
+        scores.record("key1", 0);
+        ContactSlice slice = UsageRanker.withFrequent(store(), scores, 0);
+        assertArrayEquals(new int[]{0, 6}, slice.positionsOf(4));
+        assertArrayEquals(new int[]{1, 3}, slice.positionsOf(1));
+        assertArrayEquals(new int[]{2}, slice.positionsOf(0));
+        assertArrayEquals(new int[0], ContactSlice.of(store(), new int[]{0, 2}).positionsOf(1));
+    }
+
+    @Test
+    public void noUsage_leavesTheListAlone() {
+        ContactSlice slice = UsageRanker.withFrequent(store(), new UsageScores(), 0);
+        assertEquals(0, slice.getPinnedCount());
+        assertEquals(7, slice.size());
+    }
+
+    @Test
+    public void searchResults_moveUsedMatchesUp_bestFirst() {
+        UsageScores scores = new UsageScores();
+        for (int i = 0; i < 3; i++) scores.record("key5", 0);
+        scores.record("key2", 0);
+        scores.record("key3", 0);
+        ContactSlice slice = UsageRanker.boost(store(), new int[]{0, 2, 4, 5}, scores, 0);
+        assertEquals(2, slice.getPinnedCount());
+        assertEquals("key5,key2,key0,key4", keys(slice));
+    }
+
+    @Test
+    public void boost_keepsAtMostThePinnedLimit() {
+        UsageScores scores = new UsageScores();
+        int[] all = new int[7];
+        for (int i = 0; i < 7; i++) {
+            all[i] = i;
+            // key6 most used, key0 least.
+            for (int n = 0; n <= i; n++) scores.record("key" + i, 0);
+        }
+        ContactSlice slice = UsageRanker.boost(store(), all, scores, 0);
+        assertEquals(UsageRanker.PINNED_LIMIT, slice.getPinnedCount());
+        assertEquals("key6,key5,key4,key3,key2,key0,key1", keys(slice));
+    }
+}
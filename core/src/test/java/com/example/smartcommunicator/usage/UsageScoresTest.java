@@ -0,0 +1,64 @@
+package com.example.smartcommunicator.usage;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class UsageScoresTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    @Test
+    public void score_halvesEveryHalfLife() {
+        UsageScores scores = new UsageScores();
+        scores.record("a", 0);
+        scores.record("a", 0);
+        assertEquals(2.0, scores.score("a", 0), 1e-9);
+        assertEquals(1.0, scores.score("a", UsageScores.HALF_LIFE_MS), 1e-9);
+        assertEquals(0.0, scores.score("never", 0), 0);
+    }
+
+    @Test
+    public void recentUse_outranksOldFrequentUse() {
+        UsageScores scores = new UsageScores();
+        for (int i = 0; i < 4; i++) scores.record("old", 0);
+        scores.record("new", 60 * DAY);
+        scores.record("new", 60 * DAY);
+        assertEquals(Arrays.asList("new", "old"), scores.top(5, 0, 61 * DAY));
+        // Four uses two months ago have decayed below the cut-off.
+        assertEquals(Arrays.asList("new"), scores.top(5, 0.5, 61 * DAY));
+    }
+
+    @Test
+    public void writtenScores_readBackTheSame() throws IOException {
+        UsageScores scores = new UsageScores();
+        scores.record("a", 10 * DAY);
+        scores.record("b", 20 * DAY);
+        scores.record("b", 21 * DAY);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        scores.writeTo(new DataOutputStream(bytes));
+        UsageScores read = UsageScores.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(2, read.size());
+        assertEquals(scores.score("a", 30 * DAY), read.score("a", 30 * DAY), 1e-9);
+        assertEquals(scores.score("b", 30 * DAY), read.score("b", 30 * DAY), 1e-9);
+    }
+
+    @Test
+    public void writing_keepsOnlyTheHighestScores() throws IOException {
+        UsageScores scores = new UsageScores();
+        for (int i = 0; i < UsageScores.MAX_ENTRIES + 10; i++) scores.record("k" + i, i * DAY);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        scores.writeTo(new DataOutputStream(bytes));
+        UsageScores read = UsageScores.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(UsageScores.MAX_ENTRIES, read.size());
+        assertEquals(0.0, read.score("k0", 0), 0);
+        assertTrue(read.score("k" + (UsageScores.MAX_ENTRIES + 9), 0) > 0);
+    }
+}